@@ -0,0 +1,84 @@
+package ut.aesp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ut.aesp.enums.UserRole;
+import ut.aesp.model.User;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling cost per authenticated request in JwtAuthenticationFilter: the previous
+ * validateToken + getEmailFromToken + getRoleFromToken sequence (three parses, each deriving
+ * the key and building a parser), the single parse with the prebuilt parser, and the
+ * verified-token cache hit that repeated requests with the same token take.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationBenchmark {
+
+  private static final String SECRET = "benchmark-secret-".repeat(5);
+
+  private JwtTokenProvider tokenProvider;
+  private VerifiedTokenCache tokenCache;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    tokenProvider = new JwtTokenProvider(SECRET, 3_600_000, 86_400_000);
+    tokenCache = new VerifiedTokenCache(tokenProvider, new SimpleMeterRegistry(), true, 10_000, 300);
+    User user = new User();
+    user.setId(42L);
+    user.setEmail("learner@example.com");
+    user.setName("Benchmark Learner");
+    user.setRole(UserRole.LEARNER);
+    token = tokenProvider.generateAccessToken(user);
+  }
+
+  @Benchmark
+  public void threeParses(Blackhole blackhole) {
+    boolean valid;
+    try {
+      Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseClaimsJws(token);
+      valid = true;
+    } catch (RuntimeException e) {
+      valid = false;
+    }
+    blackhole.consume(valid);
+    blackhole.consume(Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+        .parseClaimsJws(token).getBody().getSubject());
+    Claims claims = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+        .parseClaimsJws(token).getBody();
+    blackhole.consume(claims.get("role", String.class));
+  }
+
+  @Benchmark
+  public Optional<JwtPrincipal> singleParse() {
+    return tokenProvider.authenticate(token);
+  }
+
+  @Benchmark
+  public Optional<JwtPrincipal> cachedPrincipal() {
+    return tokenCache.authenticate(token);
+  }
+}
@@ -0,0 +1,86 @@
+package ut.aesp.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ut.aesp.dto.session.AiEvaluationResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one generateContent response into an evaluation: the previous path (body to
+ * String, envelope tree, code-fence substring, a discarded AiEvaluationResponse parse and a
+ * second tree in AiService) against {@link GeminiResponseReader}'s single streaming pass.
+ * {@code feedbackChars} scales the candidate text, which dominates the response size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiResponseDecodingBenchmark {
+
+  @Param({"200", "2000"})
+  public int feedbackChars;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private byte[] body;
+
+  @Setup
+  public void setUp() throws IOException {
+    SpeechEvaluation evaluation = new SpeechEvaluation(72, 7.5, 7, 6.5, 8,
+        "Good effort. ".repeat(Math.max(1, feedbackChars / 13)),
+        List.of("past tense", "linking words", "word stress"));
+    String text = "```json\n" + GeminiResponseReader.write(evaluation) + "\n```";
+    body = objectMapper.writeValueAsBytes(Map.of(
+        "candidates", List.of(Map.of(
+            "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+            "finishReason", "STOP",
+            "safetyRatings", List.of(Map.of("category", "HARM_CATEGORY_HARASSMENT", "probability", "NEGLIGIBLE")))),
+        "usageMetadata", Map.of("promptTokenCount", 812, "candidatesTokenCount", 240, "totalTokenCount", 1052),
+        "modelVersion", "gemini-1.5-flash"));
+  }
+
+  @Benchmark
+  public AiEvaluationResponse.Rubric treeDecoding() throws IOException {
+    String responseBody = new String(new ByteArrayInputStream(body).readAllBytes(), StandardCharsets.UTF_8);
+    JsonNode envelope = objectMapper.readTree(responseBody);
+    String rawText = envelope.get("candidates").get(0).get("content").get("parts").get(0).get("text").asText().trim();
+    if (rawText.startsWith("```json")) {
+      rawText = rawText.substring(7).trim();
+    }
+    if (rawText.endsWith("```")) {
+      rawText = rawText.substring(0, rawText.length() - 3).trim();
+    }
+    // Parsed and thrown away in GeminiHttpClient, then parsed again in AiService
+    objectMapper.readValue(rawText, AiEvaluationResponse.class);
+    JsonNode evaluation = objectMapper.readTree(rawText);
+    JsonNode rubric = evaluation.path("rubric");
+    evaluation.path("feedback").asText("");
+    return new AiEvaluationResponse.Rubric(rubric.path("pronunciation").asDouble(0),
+        rubric.path("fluency").asDouble(0), rubric.path("grammar").asDouble(0),
+        rubric.path("vocabulary").asDouble(0));
+  }
+
+  @Benchmark
+  public AiEvaluationResponse.Rubric streamingDecoding() throws IOException {
+    GeminiResponseReader.Reply reply = GeminiResponseReader.readReply(new ByteArrayInputStream(body));
+    return GeminiResponseReader.readEvaluation(reply.text()).toRubric();
+  }
+}
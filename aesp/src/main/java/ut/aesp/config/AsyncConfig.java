@@ -0,0 +1,73 @@
+package ut.aesp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+  /**
+   * Bounded pool for AI evaluations. Work is rejected (not queued forever)
+   * once the queue is full so callers can answer 503 instead of piling up.
+   */
+  @Bean(name = "aiEvaluationExecutor")
+  public ThreadPoolTaskExecutor aiEvaluationExecutor(
+      @Value("${ai.evaluation.executor.core-size:8}") int coreSize,
+      @Value("${ai.evaluation.executor.max-size:32}") int maxSize,
+      @Value("${ai.evaluation.executor.queue-capacity:200}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(coreSize);
+    executor.setMaxPoolSize(maxSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("ai-eval-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Runs the remote half of hybrid evaluations, whose caller stops waiting after the latency
+   * budget. Separate from aiEvaluationExecutor, whose jobs are the ones waiting here.
+   */
+  @Bean(name = "aiHybridExecutor")
+  public ThreadPoolTaskExecutor aiHybridExecutor(
+      @Value("${ai.evaluator.hybrid.executor.core-size:4}") int coreSize,
+      @Value("${ai.evaluator.hybrid.executor.max-size:16}") int maxSize,
+      @Value("${ai.evaluator.hybrid.executor.queue-capacity:50}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(coreSize);
+    executor.setMaxPoolSize(maxSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("ai-hybrid-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Runs coalesced peer-chat feedback evaluations off the STOMP inbound channel.
+   * Kept separate from aiEvaluationExecutor so chatty sessions cannot starve graded evaluations.
+   */
+  @Bean(name = "peerFeedbackExecutor")
+  public ThreadPoolTaskExecutor peerFeedbackExecutor(
+      @Value("${app.peer.feedback.executor.core-size:4}") int coreSize,
+      @Value("${app.peer.feedback.executor.max-size:8}") int maxSize,
+      @Value("${app.peer.feedback.executor.queue-capacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(coreSize);
+    executor.setMaxPoolSize(maxSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("peer-feedback-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.initialize();
+    return executor;
+  }
+}
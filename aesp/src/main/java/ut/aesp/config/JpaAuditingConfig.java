@@ -0,0 +1,10 @@
+package ut.aesp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+// Populates Auditable.createdAt/updatedAt; leaderboard windows and streaks depend on createdAt
+@Configuration
+@EnableJpaAuditing
+public class JpaAuditingConfig {
+}
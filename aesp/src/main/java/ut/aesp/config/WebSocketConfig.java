@@ -1,21 +1,122 @@
 package ut.aesp.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over WebSocket. {@code app.websocket.broker.mode} picks the broker:
+ * "simple" keeps the in-memory broker (single node, local development and tests),
+ * "relay" forwards /topic and /queue to an external STOMP broker (RabbitMQ/ActiveMQ)
+ * so a peer session's subscribers can be connected to different nodes.
+ * Destinations are dot-separated after the prefix (/topic/peer-practice.42.ai,
+ * /app/peer-practice.42.message) in both modes: RabbitMQ's STOMP adapter takes what follows
+ * /topic/ as a routing key and rejects further "/" segments.
+ */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+  @Value("${app.websocket.broker.mode:simple}")
+  private String brokerMode;
+
+  @Value("${app.websocket.broker.relay.host:localhost}")
+  private String relayHost;
+
+  @Value("${app.websocket.broker.relay.port:61613}")
+  private int relayPort;
+
+  @Value("${app.websocket.broker.relay.virtual-host:}")
+  private String relayVirtualHost;
+
+  @Value("${app.websocket.broker.relay.client-login:guest}")
+  private String relayClientLogin;
+
+  @Value("${app.websocket.broker.relay.client-passcode:guest}")
+  private String relayClientPasscode;
+
+  @Value("${app.websocket.broker.relay.system-login:guest}")
+  private String relaySystemLogin;
+
+  @Value("${app.websocket.broker.relay.system-passcode:guest}")
+  private String relaySystemPasscode;
+
+  @Value("${app.websocket.broker.heartbeat-ms:10000}")
+  private long heartbeatMs;
+
+  @Value("${app.websocket.inbound.core-size:8}")
+  private int inboundCoreSize;
+
+  @Value("${app.websocket.inbound.max-size:32}")
+  private int inboundMaxSize;
+
+  @Value("${app.websocket.inbound.queue-capacity:1000}")
+  private int inboundQueueCapacity;
+
+  @Value("${app.websocket.outbound.core-size:8}")
+  private int outboundCoreSize;
+
+  @Value("${app.websocket.outbound.max-size:32}")
+  private int outboundMaxSize;
+
+  @Value("${app.websocket.outbound.queue-capacity:1000}")
+  private int outboundQueueCapacity;
+
+  @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+  private int sendBufferSizeLimit;
+
+  @Value("${app.websocket.transport.send-time-limit-ms:15000}")
+  private int sendTimeLimitMs;
+
+  @Value("${app.websocket.transport.message-size-limit:65536}")
+  private int messageSizeLimit;
+
+  // The framework's broker scheduler bean, started and stopped with the context; lazy because
+  // it is defined by the configuration this class is part of
+  @Autowired
+  @Lazy
+  @Qualifier("messageBrokerTaskScheduler")
+  private TaskScheduler messageBrokerTaskScheduler;
+
   @Override
   public void configureMessageBroker(MessageBrokerRegistry config) {
-    // Enable a simple in-memory message broker to carry messages back to the client
-    config.enableSimpleBroker("/topic", "/queue");
+    long[] heartbeat = { heartbeatMs, heartbeatMs };
+    if ("relay".equalsIgnoreCase(brokerMode)) {
+      var relay = config.enableStompBrokerRelay("/topic", "/queue")
+          .setRelayHost(relayHost)
+          .setRelayPort(relayPort)
+          .setClientLogin(relayClientLogin)
+          .setClientPasscode(relayClientPasscode)
+          .setSystemLogin(relaySystemLogin)
+          .setSystemPasscode(relaySystemPasscode)
+          .setSystemHeartbeatSendInterval(heartbeatMs)
+          .setSystemHeartbeatReceiveInterval(heartbeatMs);
+      if (!relayVirtualHost.isBlank()) {
+        relay.setVirtualHost(relayVirtualHost);
+      }
+      log.info("[WebSocket] Using STOMP broker relay at {}:{}", relayHost, relayPort);
+    } else {
+      // Enable a simple in-memory message broker to carry messages back to the client
+      config.enableSimpleBroker("/topic", "/queue")
+          .setHeartbeatValue(heartbeat)
+          .setTaskScheduler(messageBrokerTaskScheduler);
+      log.info("[WebSocket] Using in-memory simple broker");
+    }
     // Prefix for messages bound to methods annotated with @MessageMapping
     config.setApplicationDestinationPrefixes("/app");
+    config.setPathMatcher(new AntPathMatcher("."));
   }
 
   @Override
@@ -25,6 +126,33 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         .setAllowedOriginPatterns("*") // In production, specify exact origins
         .withSockJS(); // Enable SockJS fallback options
   }
-}
 
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.taskExecutor()
+        .corePoolSize(inboundCoreSize)
+        .maxPoolSize(inboundMaxSize)
+        .queueCapacity(inboundQueueCapacity);
+  }
+
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    registration.taskExecutor()
+        .corePoolSize(outboundCoreSize)
+        .maxPoolSize(outboundMaxSize)
+        .queueCapacity(outboundQueueCapacity);
+  }
 
+  /**
+   * Bound what a slow client can cost: once a session's pending sends exceed the buffer
+   * limit or a send blocks past the time limit, that session is closed instead of
+   * holding an outbound thread.
+   */
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    registration
+        .setSendBufferSizeLimit(sendBufferSizeLimit)
+        .setSendTimeLimit(sendTimeLimitMs)
+        .setMessageSizeLimit(messageSizeLimit);
+  }
+}
@@ -1,29 +1,48 @@
 package ut.aesp.controller;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ut.aesp.dto.session.AiEvaluationJobResponse;
 import ut.aesp.dto.session.AiEvaluationRequest;
 import ut.aesp.dto.session.AiEvaluationResponse;
 import ut.aesp.dto.session.AiPracticeSessionResponse;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
 import ut.aesp.model.AiPracticeSession;
+import ut.aesp.service.IAiEvaluationJobService;
 import ut.aesp.service.IAiService;
 import ut.aesp.service.Impl.AiPracticeSessionService;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1")
 public class AiPracticeSessionController {
 
+  private static final long STREAM_TIMEOUT_MS = 120_000L;
+
   private final AiPracticeSessionService service;
   private final IAiService aiService;
+  private final IAiEvaluationJobService evaluationJobService;
+  private final ThreadPoolTaskExecutor evaluationExecutor;
 
-  public AiPracticeSessionController(AiPracticeSessionService service, IAiService aiService) {
+  public AiPracticeSessionController(AiPracticeSessionService service, IAiService aiService,
+      IAiEvaluationJobService evaluationJobService,
+      @Qualifier("aiEvaluationExecutor") ThreadPoolTaskExecutor evaluationExecutor) {
     this.service = service;
     this.aiService = aiService;
+    this.evaluationJobService = evaluationJobService;
+    this.evaluationExecutor = evaluationExecutor;
   }
 
   @GetMapping("/ai-practice-sessions")
@@ -52,6 +71,14 @@ public class AiPracticeSessionController {
     try {
       AiEvaluationResponse response = aiService.evaluateSpeech(request);
       return ResponseEntity.ok(response);
+    } catch (ResourceNotFoundException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    } catch (APIException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(e.getStatus()).body(errorResponse);
     } catch (Exception e) {
       // Log error for debugging
       System.err.println("Error in /ai/evaluation: " + e.getMessage());
@@ -66,6 +93,97 @@ public class AiPracticeSessionController {
     }
   }
 
+  /**
+   * Stream evaluation feedback as Server-Sent Events
+   * POST /api/v1/ai/evaluation/stream
+   * Events: "chunk" (partial Gemini text), then "result" (saved AiEvaluationResponse) or "error"
+   */
+  @PostMapping(value = "/ai/evaluation/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvaluation(@RequestBody AiEvaluationRequest request) {
+    SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+    try {
+      evaluationExecutor.execute(() -> {
+        try {
+          AiEvaluationResponse response = aiService.streamEvaluateSpeech(request,
+              chunk -> sendEvent(emitter, "chunk", chunk));
+          sendEvent(emitter, "result", response);
+          emitter.complete();
+        } catch (Exception e) {
+          sendEvent(emitter, "error", Map.of("error", String.valueOf(e.getMessage())));
+          emitter.complete();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      sendEvent(emitter, "error", Map.of("error", "Evaluation queue is full, please retry shortly"));
+      emitter.complete();
+    }
+    return emitter;
+  }
+
+  // The evaluation keeps running (and is still saved) if the browser goes away mid-stream
+  private void sendEvent(SseEmitter emitter, String name, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(name).data(data));
+    } catch (Exception e) {
+      // client disconnected
+    }
+  }
+
+  /**
+   * Accept a speech evaluation and run it in the background
+   * POST /api/v1/ai/evaluation/jobs -> 202 with jobId, poll the GET below
+   */
+  @PostMapping("/ai/evaluation/jobs")
+  public ResponseEntity<?> submitEvaluation(@RequestBody AiEvaluationRequest request) {
+    try {
+      AiEvaluationJobResponse job = evaluationJobService.submit(request);
+      return ResponseEntity.accepted().body(job);
+    } catch (ResourceNotFoundException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(404).body(errorResponse);
+    } catch (APIException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(e.getStatus()).body(errorResponse);
+    }
+  }
+
+  /**
+   * Poll an evaluation job
+   * GET /api/v1/ai/evaluation/jobs/{jobId}
+   */
+  @GetMapping("/ai/evaluation/jobs/{jobId}")
+  public ResponseEntity<?> getEvaluationJob(@PathVariable String jobId) {
+    try {
+      return ResponseEntity.ok(evaluationJobService.getJob(jobId));
+    } catch (ResourceNotFoundException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(404).body(errorResponse);
+    }
+  }
+
+  /**
+   * Requeue a dead-lettered evaluation job (admin)
+   * POST /api/v1/ai/evaluation/jobs/{jobId}/retry
+   */
+  @PreAuthorize("hasRole('ADMIN')")
+  @PostMapping("/ai/evaluation/jobs/{jobId}/retry")
+  public ResponseEntity<?> retryEvaluationJob(@PathVariable String jobId) {
+    try {
+      return ResponseEntity.ok(evaluationJobService.requeue(jobId));
+    } catch (ResourceNotFoundException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(404).body(errorResponse);
+    } catch (APIException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(e.getStatus()).body(errorResponse);
+    }
+  }
+
   /**
    * Get practice sessions for current authenticated learner
    * GET /api/v1/ai/practice/me?page=0&size=10
@@ -0,0 +1,124 @@
+package ut.aesp.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ut.aesp.dto.audio.AudioUploadRequest;
+import ut.aesp.dto.audio.AudioUploadResponse;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.security.CustomUserDetailsService;
+import ut.aesp.service.IAudioUploadService;
+import ut.aesp.service.ai.AudioClip;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable recording upload, modelled on the tus protocol:
+ * POST registers the upload, PATCH appends the raw bytes of one chunk at the offset given in
+ * the Upload-Offset header, GET tells a client that lost its connection where to resume.
+ * GET .../content plays back a completed recording.
+ * The finished upload's id is then passed as audioUploadId to /ai/evaluation.
+ * Uploads belong to the signed-in learner; other users get 404 for them.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class AudioUploadController {
+
+  private static final String UPLOAD_OFFSET = "Upload-Offset";
+
+  private final IAudioUploadService audioUploadService;
+
+  public AudioUploadController(IAudioUploadService audioUploadService) {
+    this.audioUploadService = audioUploadService;
+  }
+
+  /**
+   * POST /api/v1/audio/uploads -> 201 with uploadId
+   */
+  @PostMapping("/audio/uploads")
+  public ResponseEntity<?> startUpload(@RequestBody AudioUploadRequest request) {
+    try {
+      AudioUploadResponse upload = audioUploadService.start(request, CustomUserDetailsService.getCurrentUserId());
+      return ResponseEntity.created(URI.create("/api/v1/audio/uploads/" + upload.getUploadId()))
+          .header(UPLOAD_OFFSET, String.valueOf(upload.getReceivedBytes()))
+          .body(upload);
+    } catch (ResourceNotFoundException e) {
+      return error(HttpStatus.NOT_FOUND, e.getMessage());
+    } catch (APIException e) {
+      return error(e.getStatus(), e.getMessage());
+    }
+  }
+
+  /**
+   * PATCH /api/v1/audio/uploads/{uploadId} with header Upload-Offset and the chunk as the body.
+   * The body is streamed to disk, never buffered in memory.
+   */
+  @PatchMapping("/audio/uploads/{uploadId}")
+  public ResponseEntity<?> appendChunk(@PathVariable String uploadId,
+      @RequestHeader(UPLOAD_OFFSET) long offset,
+      HttpServletRequest request) {
+    try {
+      AudioUploadResponse upload = audioUploadService.appendChunk(uploadId, offset, request.getInputStream(),
+          CustomUserDetailsService.getCurrentUserId());
+      return ResponseEntity.ok()
+          .header(UPLOAD_OFFSET, String.valueOf(upload.getReceivedBytes()))
+          .body(upload);
+    } catch (ResourceNotFoundException e) {
+      return error(HttpStatus.NOT_FOUND, e.getMessage());
+    } catch (APIException e) {
+      return error(e.getStatus(), e.getMessage());
+    } catch (IOException e) {
+      return error(HttpStatus.BAD_REQUEST, "Failed to read upload body: " + e.getMessage());
+    }
+  }
+
+  /**
+   * GET /api/v1/audio/uploads/{uploadId}
+   */
+  @GetMapping("/audio/uploads/{uploadId}")
+  public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+    try {
+      AudioUploadResponse upload = audioUploadService.getUpload(uploadId, CustomUserDetailsService.getCurrentUserId());
+      return ResponseEntity.ok()
+          .header(UPLOAD_OFFSET, String.valueOf(upload.getReceivedBytes()))
+          .body(upload);
+    } catch (ResourceNotFoundException e) {
+      return error(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+  }
+
+  /**
+   * GET /api/v1/audio/uploads/{uploadId}/content -> the recording of a completed upload
+   */
+  @GetMapping("/audio/uploads/{uploadId}/content")
+  public ResponseEntity<?> getContent(@PathVariable String uploadId) {
+    AudioClip clip;
+    try {
+      clip = audioUploadService.recording(uploadId, CustomUserDetailsService.getCurrentUserId());
+    } catch (ResourceNotFoundException e) {
+      return error(HttpStatus.NOT_FOUND, e.getMessage());
+    } catch (APIException e) {
+      return error(e.getStatus(), e.getMessage());
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(clip.mimeType()))
+        .contentLength(clip.sizeBytes())
+        .eTag(clip.contentHash())
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .body(new FileSystemResource(clip.path()));
+  }
+
+  private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+    Map<String, String> errorResponse = new HashMap<>();
+    errorResponse.put("error", message);
+    return ResponseEntity.status(status).body(errorResponse);
+  }
+}
@@ -5,11 +5,16 @@ import lombok.experimental.FieldDefaults;
 import lombok.AccessLevel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import ut.aesp.dto.leaderboard.LeaderboardEntryResponse;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.security.CustomUserDetailsService;
 import ut.aesp.service.Impl.LeaderboardService;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/leaderboard")
@@ -17,15 +22,25 @@ import java.util.Map;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class LeaderboardController {
   LeaderboardService leaderboardService;
+  LearnerProfileRepository learnerProfileRepository;
 
   @GetMapping
   @PreAuthorize("hasRole('LEARNER') or hasRole('ADMIN')")
   public ResponseEntity<?> getLeaderboard(
       @RequestParam(defaultValue = "all") String filter,
       @RequestParam(defaultValue = "10") int limit) {
-    List<Map<String, Object>> leaderboard = leaderboardService.getLeaderboard(filter, limit);
+    List<LeaderboardEntryResponse> leaderboard = leaderboardService.getLeaderboard(filter, limit);
     return ResponseEntity.ok(leaderboard);
   }
-}
-
 
+  @GetMapping("/me")
+  @PreAuthorize("hasRole('LEARNER')")
+  public ResponseEntity<?> getMyRank(
+      @RequestParam(defaultValue = "all") String filter,
+      @AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails) {
+    Long learnerId = learnerProfileRepository.findByUserId(userDetails.getId())
+        .map(LearnerProfile::getId)
+        .orElseThrow(() -> new ResourceNotFoundException("LearnerProfile", "userId", userDetails.getId()));
+    return ResponseEntity.ok(leaderboardService.getLearnerEntry(learnerId, filter));
+  }
+}
@@ -0,0 +1,33 @@
+package ut.aesp.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.AccessLevel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import ut.aesp.service.ILearnerActivityService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/learners")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LearnerActivityController {
+  ILearnerActivityService learnerActivityService;
+
+  @GetMapping("/{learnerId}/activity")
+  @PreAuthorize("hasRole('ADMIN') or hasRole('MENTOR') or @securityService.isOwnerOfLearnerProfile(#learnerId)")
+  public ResponseEntity<?> getActivity(@PathVariable Long learnerId,
+      @RequestParam(defaultValue = "90") int days) {
+    return ResponseEntity.ok(learnerActivityService.getActivity(learnerId, days));
+  }
+
+  @PostMapping("/activity/backfill")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<?> backfill() {
+    learnerActivityService.backfill();
+    return ResponseEntity.ok(Map.of("message", "Learner activity backfill completed"));
+  }
+}
@@ -3,6 +3,7 @@ package ut.aesp.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.AccessLevel;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -11,6 +12,7 @@ import ut.aesp.dto.peer.PeerPracticeRequest;
 import ut.aesp.dto.peer.PeerPracticeResponse;
 import ut.aesp.repository.LearnerProfileRepository;
 import ut.aesp.service.IPeerPracticeService;
+import ut.aesp.service.Impl.PeerPracticeService;
 import ut.aesp.security.CustomUserDetailsService;
 
 import java.util.List;
@@ -29,7 +31,20 @@ public class PeerPracticeController {
       @RequestBody PeerPracticeRequest request,
       @AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails) {
     Long learnerId = getLearnerIdFromUser(userDetails.getId());
-    return ResponseEntity.ok(peerPracticeService.findMatch(learnerId, request));
+    PeerPracticeResponse response = peerPracticeService.findMatch(learnerId, request);
+    if (PeerPracticeService.WAITING.equals(response.getStatus())) {
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  @DeleteMapping("/find-match")
+  @PreAuthorize("hasRole('LEARNER')")
+  public ResponseEntity<Void> cancelMatch(
+      @AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails) {
+    Long learnerId = getLearnerIdFromUser(userDetails.getId());
+    peerPracticeService.cancelMatch(learnerId);
+    return ResponseEntity.noContent().build();
   }
 
   @GetMapping("/active")
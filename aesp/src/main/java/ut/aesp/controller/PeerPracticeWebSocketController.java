@@ -4,14 +4,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.AccessLevel;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import ut.aesp.dto.peer.PeerMessage;
-import ut.aesp.service.Impl.PeerPracticeService;
-import ut.aesp.service.ai.GeminiHttpClient;
+import ut.aesp.security.CustomUserDetailsService;
+import ut.aesp.service.peer.PeerFeedbackAggregator;
+import ut.aesp.service.peer.PeerSessionAccess;
+import ut.aesp.service.peer.PeerTranscriptBuffer;
+
+import java.security.Principal;
+import java.util.Optional;
 
 @Slf4j
 @Controller
@@ -19,79 +25,55 @@ import ut.aesp.service.ai.GeminiHttpClient;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class PeerPracticeWebSocketController {
 
-  private final SimpMessagingTemplate messagingTemplate;
-  private final GeminiHttpClient geminiClient;
+  private final PeerFeedbackAggregator feedbackAggregator;
+  private final PeerTranscriptBuffer transcriptBuffer;
+  private final PeerSessionAccess sessionAccess;
 
-  @MessageMapping("/peer-practice/{sessionId}/message")
-  @SendTo("/topic/peer-practice/{sessionId}")
-  public PeerMessage handleMessage(@Payload PeerMessage message) {
-    log.info("Received message in session {}: {}", message.getSessionId(), message.getContent());
+  /**
+   * Relays a chat message to the session's subscribers. Messages for sessions that are not
+   * ACTIVE, or from a user who is not one of its learners, are dropped (a null return
+   * sends nothing). The sender is the connection's authenticated user; the senderId and
+   * senderName of the payload are overwritten.
+   */
+  @MessageMapping("peer-practice.{sessionId}.message")
+  @SendTo("/topic/peer-practice.{sessionId}")
+  public PeerMessage handleMessage(@DestinationVariable Long sessionId, @Payload PeerMessage message,
+      Principal principal) {
+    Optional<PeerSessionAccess.Participant> sender = sessionAccess.participant(sessionId, userId(principal));
+    if (sender.isEmpty()) {
+      log.debug("[PeerChat] Dropped message from user {} to session {}", userId(principal), sessionId);
+      return null;
+    }
+    message.setSessionId(sessionId);
+    message.setSenderId(sender.get().learnerId());
+    message.setSenderName(sender.get().name());
+    transcriptBuffer.append(message);
     return message;
   }
 
-  @MessageMapping("/peer-practice/{sessionId}/ai-feedback")
-  public void handleAiFeedbackRequest(@Payload PeerMessage message) {
-    log.info("AI feedback requested for session {}: {}", message.getSessionId(), message.getContent());
-    
-    try {
-      // Call Gemini API for real-time feedback
-      String geminiResponse = geminiClient.evaluateSpeech(
-          message.getContent(),
-          "Peer Practice",
-          "Real-time conversation",
-          "B1"
-      );
-      
-      // Parse Gemini response and extract feedback
-      String feedbackText = extractFeedbackFromGeminiResponse(geminiResponse);
-      
-      PeerMessage feedback = new PeerMessage();
-      feedback.setSessionId(message.getSessionId());
-      feedback.setSenderId(0L); // AI sender
-      feedback.setSenderName("AI Assistant");
-      feedback.setContent(feedbackText);
-      feedback.setType("ai-feedback");
-      
-      messagingTemplate.convertAndSend("/topic/peer-practice/" + message.getSessionId() + "/ai", feedback);
-    } catch (Exception e) {
-      log.error("Error getting AI feedback", e);
-      PeerMessage errorFeedback = new PeerMessage();
-      errorFeedback.setSessionId(message.getSessionId());
-      errorFeedback.setSenderId(0L);
-      errorFeedback.setSenderName("AI Assistant");
-      errorFeedback.setContent("AI feedback temporarily unavailable. Please try again.");
-      errorFeedback.setType("ai-feedback");
-      messagingTemplate.convertAndSend("/topic/peer-practice/" + message.getSessionId() + "/ai", errorFeedback);
+  /**
+   * Only enqueues the text; the aggregator coalesces requests per session and evaluates
+   * off the inbound channel, pushing results to /topic/peer-practice.{sessionId}.ai.
+   */
+  @MessageMapping("peer-practice.{sessionId}.ai-feedback")
+  public void handleAiFeedbackRequest(@DestinationVariable Long sessionId, @Payload PeerMessage message,
+      Principal principal) {
+    if (sessionAccess.participant(sessionId, userId(principal)).isEmpty()) {
+      log.debug("[PeerChat] Dropped AI feedback request from user {} to session {}", userId(principal), sessionId);
+      return;
     }
+    log.debug("AI feedback requested for session {}", sessionId);
+    feedbackAggregator.submit(sessionId, message.getContent());
   }
 
-  private String extractFeedbackFromGeminiResponse(String geminiResponse) {
-    // Try to extract feedback from Gemini JSON response
-    try {
-      // If response is JSON, parse it
-      if (geminiResponse.contains("\"feedback\"")) {
-        // Simple extraction - in production, use proper JSON parsing
-        int feedbackStart = geminiResponse.indexOf("\"feedback\"");
-        if (feedbackStart > 0) {
-          int valueStart = geminiResponse.indexOf(":", feedbackStart) + 1;
-          int valueEnd = geminiResponse.indexOf(",", valueStart);
-          if (valueEnd < 0) valueEnd = geminiResponse.indexOf("}", valueStart);
-          if (valueEnd > valueStart) {
-            String feedback = geminiResponse.substring(valueStart, valueEnd).trim();
-            return feedback.replace("\"", "").replace("\\n", "\n");
-          }
-        }
-      }
-      // If not JSON, return first 200 characters
-      return geminiResponse.length() > 200 
-          ? geminiResponse.substring(0, 200) + "..."
-          : geminiResponse;
-    } catch (Exception e) {
-      log.warn("Failed to parse Gemini response, using raw text", e);
-      return geminiResponse.length() > 200 
-          ? geminiResponse.substring(0, 200) + "..."
-          : geminiResponse;
+  /**
+   * The user authenticated at the WebSocket handshake, or null for an anonymous connection
+   */
+  private static Long userId(Principal principal) {
+    if (principal instanceof Authentication authentication
+        && authentication.getPrincipal() instanceof CustomUserDetailsService.CustomUserDetails userDetails) {
+      return userDetails.getId();
     }
+    return null;
   }
 }
-
@@ -0,0 +1,66 @@
+package ut.aesp.controller;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ut.aesp.dto.tts.TtsRequest;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.service.ITtsService;
+import ut.aesp.service.tts.TtsClip;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/v1")
+public class TtsController {
+
+  private final ITtsService ttsService;
+
+  public TtsController(ITtsService ttsService) {
+    this.ttsService = ttsService;
+  }
+
+  /**
+   * Synthesize text, returning the audio URL
+   * POST /api/v1/tts
+   */
+  @PostMapping("/tts")
+  public ResponseEntity<?> speak(@RequestBody TtsRequest request) {
+    try {
+      return ResponseEntity.ok(ttsService.speak(request));
+    } catch (APIException e) {
+      Map<String, String> errorResponse = new HashMap<>();
+      errorResponse.put("error", e.getMessage());
+      return ResponseEntity.status(e.getStatus()).body(errorResponse);
+    }
+  }
+
+  /**
+   * Stream synthesized audio. Range requests are answered with 206 partial content
+   * (seeking in an audio element), and since the key is a content hash the response may be
+   * cached indefinitely; If-None-Match is answered with 304.
+   * GET /api/v1/tts/audio/{key}
+   */
+  @GetMapping("/tts/audio/{key}")
+  public ResponseEntity<Resource> audio(@PathVariable String key) {
+    TtsClip clip;
+    try {
+      clip = ttsService.audio(key);
+    } catch (ResourceNotFoundException e) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(clip.mimeType()))
+        .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+        .eTag(clip.key())
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .body(new FileSystemResource(clip.path()));
+  }
+}
@@ -0,0 +1,20 @@
+package ut.aesp.dto.audio;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudioUploadRequest {
+  private Long learnerId;
+  // e.g. audio/wav, audio/webm, audio/mpeg
+  private String mimeType;
+  // Size of the whole recording in bytes
+  private Long totalBytes;
+  // Length of the recording as measured by the client; WAV files are measured on upload
+  private Integer durationSeconds;
+}
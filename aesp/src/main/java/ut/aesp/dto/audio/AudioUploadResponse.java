@@ -0,0 +1,22 @@
+package ut.aesp.dto.audio;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ut.aesp.enums.AudioUploadStatus;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AudioUploadResponse {
+  private String uploadId;
+  private AudioUploadStatus status;
+  private String mimeType;
+  private Long totalBytes;
+  // Offset the next chunk must start at
+  private Long receivedBytes;
+  private Integer durationSeconds;
+  private String contentHash;
+}
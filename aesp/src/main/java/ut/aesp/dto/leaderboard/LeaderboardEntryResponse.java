@@ -0,0 +1,19 @@
+package ut.aesp.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+  private Integer rank;
+  private Long learnerId;
+  private String learnerName;
+  private Float aiScore;
+  private Integer totalSessions;
+  private Integer streak;
+}
@@ -0,0 +1,20 @@
+package ut.aesp.dto.leaderboard;
+
+/**
+ * Projection of one row of the leaderboard native query.
+ * Numeric columns are typed as Number because MySQL returns BIGINT/DECIMAL/DOUBLE
+ * depending on the aggregate.
+ */
+public interface LeaderboardRow {
+  Number getRank();
+
+  Number getLearnerId();
+
+  String getLearnerName();
+
+  Number getAiScore();
+
+  Number getTotalSessions();
+
+  Number getStreak();
+}
@@ -0,0 +1,12 @@
+package ut.aesp.dto.leaderboard;
+
+/**
+ * Learner identity and score used to rebuild the in-memory leaderboard
+ */
+public interface LearnerSeedRow {
+  Number getLearnerId();
+
+  String getLearnerName();
+
+  Number getAiScore();
+}
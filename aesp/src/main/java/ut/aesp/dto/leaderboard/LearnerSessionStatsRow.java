@@ -0,0 +1,15 @@
+package ut.aesp.dto.leaderboard;
+
+/**
+ * All-time session count, last practice day and current streak of one learner.
+ * lastDay is left untyped: the JDBC driver may hand back java.sql.Date or LocalDate.
+ */
+public interface LearnerSessionStatsRow {
+  Number getLearnerId();
+
+  Number getTotalSessions();
+
+  Object getLastDay();
+
+  Number getStreak();
+}
@@ -0,0 +1,12 @@
+package ut.aesp.dto.leaderboard;
+
+/**
+ * createdAt is left untyped: the JDBC driver may hand back java.sql.Timestamp or LocalDateTime.
+ */
+public interface SessionTimestampRow {
+  Number getSessionId();
+
+  Number getLearnerId();
+
+  Object getCreatedAt();
+}
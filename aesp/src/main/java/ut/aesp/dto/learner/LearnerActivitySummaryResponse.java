@@ -0,0 +1,22 @@
+package ut.aesp.dto.learner;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearnerActivitySummaryResponse {
+  private Long learnerId;
+  private Integer currentStreak;
+  private Integer longestStreak;
+  private LocalDate lastPracticeDate;
+  private Integer sessionsLast7Days;
+  private List<LearnerDailyActivityResponse> days;
+}
@@ -0,0 +1,20 @@
+package ut.aesp.dto.learner;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearnerDailyActivityResponse {
+  private LocalDate day;
+  private Integer sessionCount;
+  private Float avgPronunciation;
+  private Float avgGrammar;
+  private Float avgVocabulary;
+}
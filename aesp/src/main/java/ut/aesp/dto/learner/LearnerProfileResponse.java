@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import ut.aesp.enums.EnglishLevel;
 
+import java.time.LocalDate;
+
 @Getter
 @Setter
 public class LearnerProfileResponse {
@@ -17,4 +19,7 @@ public class LearnerProfileResponse {
   private Float aiScore;
   private Float pronunciationScore;
   private Integer totalPracticeMinutes;
+  private Integer currentStreak;
+  private Integer longestStreak;
+  private LocalDate lastPracticeDate;
 }
@@ -0,0 +1,23 @@
+package ut.aesp.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ut.aesp.enums.EvaluationJobStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AiEvaluationJobResponse {
+  private String jobId;
+  private EvaluationJobStatus status;
+  private AiEvaluationResponse result;
+  private String error;
+  private LocalDateTime submittedAt;
+  private LocalDateTime completedAt;
+  private Integer attempts;
+}
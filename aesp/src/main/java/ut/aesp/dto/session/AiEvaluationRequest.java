@@ -15,6 +15,12 @@ public class AiEvaluationRequest {
   private String scenario;
   private String targetLevel;
   private String speechText;
+  // Optional, seconds of speech; lets the local evaluator score speaking rate
+  private Integer durationSeconds;
+  // Optional, a completed /audio/uploads recording to evaluate along with (or instead of) the transcript
+  private String audioUploadId;
+  // Optional, the language feedback is written in; one of ai.prompt.languages, else the first of them
+  private String language;
 }
 
 
@@ -16,7 +16,8 @@ public class AiEvaluationResponse {
   private String feedback;
   private Integer score;
   private Rubric rubric;
-  private String ttsAudioBase64;
+  // Spoken feedback, served from the TTS cache; null when spoken feedback is off
+  private String ttsAudioUrl;
   private Long practiceSessionId;
   private List<String> suggestedFocus;
 
@@ -0,0 +1,16 @@
+package ut.aesp.dto.tts;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TtsRequest {
+  private String text;
+  // Optional, engine-specific voice name
+  private String voice;
+}
@@ -0,0 +1,18 @@
+package ut.aesp.dto.tts;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TtsResponse {
+  private String key;
+  // Cacheable, supports Range requests
+  private String url;
+  private String mimeType;
+  private Long sizeBytes;
+}
@@ -0,0 +1,13 @@
+package ut.aesp.dto.user;
+
+import ut.aesp.enums.UserRole;
+import ut.aesp.enums.UserStatus;
+
+/**
+ * Status and role of a live user, the two columns authentication checks per request
+ */
+public interface UserAccessRow {
+  UserStatus getStatus();
+
+  UserRole getRole();
+}
@@ -0,0 +1,6 @@
+package ut.aesp.enums;
+
+public enum AudioUploadStatus {
+  UPLOADING,
+  COMPLETE
+}
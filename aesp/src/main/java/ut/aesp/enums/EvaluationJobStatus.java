@@ -0,0 +1,8 @@
+package ut.aesp.enums;
+
+public enum EvaluationJobStatus {
+  PENDING,
+  RUNNING,
+  DONE,
+  FAILED
+}
@@ -0,0 +1,11 @@
+package ut.aesp.event;
+
+/**
+ * Published when a learner profile is created, updated or deleted.
+ */
+public record LearnerProfileChangedEvent(
+    Long learnerId,
+    String learnerName,
+    Float aiScore,
+    boolean deleted) {
+}
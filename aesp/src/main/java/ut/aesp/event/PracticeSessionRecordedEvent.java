@@ -0,0 +1,15 @@
+package ut.aesp.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after an AiPracticeSession row has been inserted.
+ */
+public record PracticeSessionRecordedEvent(
+    Long sessionId,
+    Long learnerId,
+    LocalDateTime createdAt,
+    Float pronunciationScore,
+    Float grammarScore,
+    Float vocabularyScore) {
+}
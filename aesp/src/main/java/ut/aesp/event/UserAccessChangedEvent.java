@@ -0,0 +1,8 @@
+package ut.aesp.event;
+
+/**
+ * Published when a user's status, role or password changes or the user is deleted;
+ * authentication state cached for the user must be dropped.
+ */
+public record UserAccessChangedEvent(Long userId) {
+}
@@ -0,0 +1,22 @@
+package ut.aesp.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A peer session could not be booked because one of its learners already holds an
+ * active_peer_learners row; {@link #getLearnerId()} says which one.
+ */
+public class LearnerAlreadyBookedException extends APIException {
+  private static final long serialVersionUID = 1L;
+
+  private final Long learnerId;
+
+  public LearnerAlreadyBookedException(Long learnerId) {
+    super("Learner is already in an active peer practice session", HttpStatus.CONFLICT);
+    this.learnerId = learnerId;
+  }
+
+  public Long getLearnerId() {
+    return learnerId;
+  }
+}
@@ -16,6 +16,9 @@ public interface LearnerProfileMapper {
   @Mapping(target = "aiScore", source = "aiScore", defaultValue = "0.0f")
   @Mapping(target = "pronunciationScore", source = "pronunciationScore", defaultValue = "0.0f")
   @Mapping(target = "totalPracticeMinutes", source = "totalPracticeMinutes")
+  @Mapping(target = "currentStreak", ignore = true)
+  @Mapping(target = "longestStreak", ignore = true)
+  @Mapping(target = "lastPracticeDate", ignore = true)
   LearnerProfile toEntity(LearnerProfileRequest dto);
 
   @Mapping(target = "userId", source = "user.id")
@@ -27,5 +30,8 @@ public interface LearnerProfileMapper {
   LearnerProfileResponse toResponse(LearnerProfile entity);
 
   @Mapping(target = "user.id", source = "userId")
+  @Mapping(target = "currentStreak", ignore = true)
+  @Mapping(target = "longestStreak", ignore = true)
+  @Mapping(target = "lastPracticeDate", ignore = true)
   void updateEntityFromDto(@MappingTarget LearnerProfile entity, LearnerProfileRequest dto);
 }
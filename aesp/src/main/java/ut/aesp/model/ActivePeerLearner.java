@@ -0,0 +1,31 @@
+package ut.aesp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a learner as booked in an ACTIVE peer session; the learner_id primary key
+ * enforces one active session per learner at the database level.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "active_peer_learners")
+public class ActivePeerLearner {
+
+  @Id
+  @Column(name = "learner_id")
+  private Long learnerId;
+
+  @Column(name = "session_id", nullable = false)
+  private Long sessionId;
+
+  private LocalDateTime createdAt;
+}
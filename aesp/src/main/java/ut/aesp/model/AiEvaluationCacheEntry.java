@@ -0,0 +1,33 @@
+package ut.aesp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ai_evaluation_cache")
+public class AiEvaluationCacheEntry {
+
+  // SHA-256 hex of the normalized (speechText, topic, scenario, targetLevel, model)
+  @Id
+  @Column(name = "cache_key", length = 64)
+  private String cacheKey;
+
+  @Column(length = 100)
+  private String model;
+
+  @Lob
+  private String result;
+
+  private LocalDateTime createdAt;
+
+  private LocalDateTime expiresAt;
+}
@@ -0,0 +1,61 @@
+package ut.aesp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ut.aesp.enums.EvaluationJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued AI evaluation. FAILED is the dead-letter state: retries exhausted or a
+ * non-retryable error; such jobs are kept for inspection and can be requeued.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ai_evaluation_jobs")
+public class AiEvaluationJob {
+
+  @Id
+  @Column(length = 36)
+  private String id;
+
+  @Column(name = "learner_id", nullable = false)
+  private Long learnerId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private EvaluationJobStatus status;
+
+  @Lob
+  @Column(name = "request_json", nullable = false)
+  private String requestJson;
+
+  @Lob
+  @Column(name = "result_json")
+  private String resultJson;
+
+  @Column(length = 1000)
+  private String error;
+
+  private int attempts;
+
+  private int maxAttempts;
+
+  // Due time while PENDING, lease expiry while RUNNING
+  private LocalDateTime nextAttemptAt;
+
+  @Column(length = 100)
+  private String lockedBy;
+
+  private LocalDateTime submittedAt;
+
+  private LocalDateTime startedAt;
+
+  private LocalDateTime completedAt;
+}
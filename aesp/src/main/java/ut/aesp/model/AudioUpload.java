@@ -0,0 +1,53 @@
+package ut.aesp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ut.aesp.enums.AudioUploadStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A learner recording. While UPLOADING, receivedBytes is the offset the next chunk must
+ * start at; once COMPLETE the bytes live in the blob named by contentHash.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audio_uploads")
+public class AudioUpload {
+
+  @Id
+  @Column(length = 36)
+  private String id;
+
+  @Column(name = "learner_id", nullable = false)
+  private Long learnerId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private AudioUploadStatus status;
+
+  @Column(nullable = false, length = 50)
+  private String mimeType;
+
+  private long totalBytes;
+
+  private long receivedBytes;
+
+  private Integer durationSeconds;
+
+  // SHA-256 hex of the complete recording
+  @Column(length = 64)
+  private String contentHash;
+
+  private LocalDateTime createdAt;
+
+  private LocalDateTime updatedAt;
+
+  private LocalDateTime completedAt;
+}
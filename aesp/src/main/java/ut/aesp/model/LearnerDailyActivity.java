@@ -0,0 +1,45 @@
+package ut.aesp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(LearnerDailyActivity.Key.class)
+@Table(name = "learner_daily_activity")
+public class LearnerDailyActivity {
+
+  @Id
+  @Column(name = "learner_id")
+  private Long learnerId;
+
+  @Id
+  private LocalDate day;
+
+  private Integer sessionCount;
+  private Float avgPronunciation;
+  private Float avgGrammar;
+  private Float avgVocabulary;
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  public static class Key implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long learnerId;
+    private LocalDate day;
+  }
+}
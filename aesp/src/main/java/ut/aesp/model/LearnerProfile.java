@@ -1,6 +1,7 @@
 package ut.aesp.model;
 
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,6 +11,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import ut.aesp.enums.EnglishLevel;
 
+import java.time.LocalDate;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,4 +44,19 @@ public class LearnerProfile extends Auditable {
   private Float aiScore;
   private Float pronunciationScore;
   private Integer totalPracticeMinutes = 0;
+
+  // Maintained by LearnerActivityService from learner_daily_activity; not part of the audit trail.
+  // Read-only here, so saving a loaded profile cannot write back stale values over its updates;
+  // new rows get the column defaults.
+  @NotAudited
+  @Column(insertable = false, updatable = false)
+  private Integer currentStreak = 0;
+
+  @NotAudited
+  @Column(insertable = false, updatable = false)
+  private Integer longestStreak = 0;
+
+  @NotAudited
+  @Column(insertable = false, updatable = false)
+  private LocalDate lastPracticeDate;
 }
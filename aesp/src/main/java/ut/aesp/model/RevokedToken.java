@@ -0,0 +1,34 @@
+package ut.aesp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A token revoked before its expiry, identified by the SHA-256 hex of the token string
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+  @Id
+  @Column(name = "token_hash", length = 64)
+  private String tokenHash;
+
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Column(name = "revoked_at", nullable = false)
+  private LocalDateTime revokedAt;
+}
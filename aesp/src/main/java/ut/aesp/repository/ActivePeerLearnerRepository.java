@@ -0,0 +1,30 @@
+package ut.aesp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.model.ActivePeerLearner;
+
+@Repository
+public interface ActivePeerLearnerRepository extends JpaRepository<ActivePeerLearner, Long> {
+
+  /**
+   * Plain INSERT (save() would merge): a learner who is already booked fails with a
+   * duplicate-key error instead of being silently overwritten.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO active_peer_learners (learner_id, session_id, created_at)
+      VALUES (:learnerId, :sessionId, NOW())
+      """, nativeQuery = true)
+  int book(@Param("learnerId") Long learnerId, @Param("sessionId") Long sessionId);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ActivePeerLearner a WHERE a.sessionId = :sessionId")
+  int releaseSession(@Param("sessionId") Long sessionId);
+}
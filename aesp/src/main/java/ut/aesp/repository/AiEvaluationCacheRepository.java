@@ -0,0 +1,22 @@
+package ut.aesp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.model.AiEvaluationCacheEntry;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AiEvaluationCacheRepository extends JpaRepository<AiEvaluationCacheEntry, String> {
+  Optional<AiEvaluationCacheEntry> findByCacheKeyAndExpiresAtAfter(String cacheKey, LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM AiEvaluationCacheEntry e WHERE e.expiresAt < :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+}
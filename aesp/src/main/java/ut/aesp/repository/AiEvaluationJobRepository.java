@@ -0,0 +1,111 @@
+package ut.aesp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.model.AiEvaluationJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AiEvaluationJobRepository extends JpaRepository<AiEvaluationJob, String> {
+
+  /**
+   * Lock up to {@code limit} due jobs: PENDING ones whose retry time has come and RUNNING
+   * ones whose lease expired. Rows locked by another worker are skipped, not waited on.
+   * Must run inside the transaction that then marks them running.
+   */
+  @Query(value = """
+      SELECT id FROM ai_evaluation_jobs
+      WHERE status IN ('PENDING', 'RUNNING') AND next_attempt_at <= :now
+      ORDER BY next_attempt_at
+      LIMIT :limit
+      FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+  List<String> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs
+      SET status = 'RUNNING', attempts = attempts + 1, locked_by = :node,
+          started_at = :now, next_attempt_at = :leaseUntil
+      WHERE id IN (:ids)
+      """, nativeQuery = true)
+  int markRunning(@Param("ids") List<String> ids, @Param("node") String node,
+      @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  // The guards on status and locked_by fence off a worker whose lease was taken over
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs SET next_attempt_at = :leaseUntil
+      WHERE id IN (:ids) AND status = 'RUNNING' AND locked_by = :node
+      """, nativeQuery = true)
+  int renewLeases(@Param("ids") List<String> ids, @Param("node") String node,
+      @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs
+      SET status = 'DONE', result_json = :result, error = NULL, locked_by = NULL, completed_at = :now
+      WHERE id = :id AND status = 'RUNNING' AND locked_by = :node
+      """, nativeQuery = true)
+  int complete(@Param("id") String id, @Param("node") String node, @Param("result") String result,
+      @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs
+      SET status = 'PENDING', error = :error, locked_by = NULL, next_attempt_at = :nextAttemptAt
+      WHERE id = :id AND status = 'RUNNING' AND locked_by = :node
+      """, nativeQuery = true)
+  int retryLater(@Param("id") String id, @Param("node") String node, @Param("error") String error,
+      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs
+      SET status = 'FAILED', error = :error, locked_by = NULL, completed_at = :now
+      WHERE id = :id AND status = 'RUNNING' AND locked_by = :node
+      """, nativeQuery = true)
+  int deadLetter(@Param("id") String id, @Param("node") String node, @Param("error") String error,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Hand a claimed job back untouched, e.g. when the local worker pool rejected it
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs
+      SET status = 'PENDING', attempts = attempts - 1, locked_by = NULL, next_attempt_at = :now
+      WHERE id = :id AND status = 'RUNNING' AND locked_by = :node
+      """, nativeQuery = true)
+  int release(@Param("id") String id, @Param("node") String node, @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE ai_evaluation_jobs
+      SET status = 'PENDING', attempts = 0, error = NULL, completed_at = NULL, next_attempt_at = :now
+      WHERE id = :id AND status = 'FAILED'
+      """, nativeQuery = true)
+  int requeueDeadLetter(@Param("id") String id, @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      DELETE FROM ai_evaluation_jobs
+      WHERE (status = 'DONE' AND completed_at < :doneBefore)
+         OR (status = 'FAILED' AND completed_at < :failedBefore)
+      """, nativeQuery = true)
+  int purgeFinished(@Param("doneBefore") LocalDateTime doneBefore, @Param("failedBefore") LocalDateTime failedBefore);
+}
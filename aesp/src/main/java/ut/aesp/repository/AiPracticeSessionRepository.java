@@ -3,7 +3,11 @@ package ut.aesp.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ut.aesp.dto.leaderboard.LearnerSessionStatsRow;
+import ut.aesp.dto.leaderboard.SessionTimestampRow;
 import ut.aesp.model.AiPracticeSession;
 
 import java.time.LocalDateTime;
@@ -16,4 +20,26 @@ public interface AiPracticeSessionRepository extends JpaRepository<AiPracticeSes
   Page<AiPracticeSession> findAllByLearnerIdOrderByCreatedAtDesc(Long learnerId, Pageable pageable);
   
   List<AiPracticeSession> findAllByLearnerIdAndCreatedAtAfter(Long learnerId, LocalDateTime startDate);
+
+  /**
+   * Per-learner all-time totals and stored streak, read from the daily rollup
+   */
+  @Query(value = """
+      SELECT a.learner_id AS learnerId,
+             SUM(a.session_count) AS totalSessions,
+             lp.last_practice_date AS lastDay,
+             COALESCE(lp.current_streak, 0) AS streak
+      FROM learner_daily_activity a
+      JOIN learner_profiles lp ON lp.id = a.learner_id
+      GROUP BY a.learner_id, lp.last_practice_date, lp.current_streak
+      """, nativeQuery = true)
+  List<LearnerSessionStatsRow> findLearnerSessionStats();
+
+  @Query(value = """
+      SELECT s.id AS sessionId, s.learner_id AS learnerId, s.created_at AS createdAt
+      FROM ai_practice_sessions s
+      WHERE s.created_at > :since
+      ORDER BY s.created_at
+      """, nativeQuery = true)
+  List<SessionTimestampRow> findSessionTimestampsAfter(@Param("since") LocalDateTime since);
 }
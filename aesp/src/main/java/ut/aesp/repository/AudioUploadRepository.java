@@ -0,0 +1,49 @@
+package ut.aesp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.model.AudioUpload;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AudioUploadRepository extends JpaRepository<AudioUpload, String> {
+
+  /**
+   * Move the upload offset forward, only if nobody else has since the chunk started
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE audio_uploads SET received_bytes = :newOffset, updated_at = :now
+      WHERE id = :id AND status = 'UPLOADING' AND received_bytes = :expectedOffset
+      """, nativeQuery = true)
+  int advance(@Param("id") String id, @Param("expectedOffset") long expectedOffset,
+      @Param("newOffset") long newOffset, @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE audio_uploads
+      SET status = 'COMPLETE', content_hash = :hash, duration_seconds = :durationSeconds,
+          updated_at = :now, completed_at = :now
+      WHERE id = :id AND status = 'UPLOADING' AND received_bytes = total_bytes
+      """, nativeQuery = true)
+  int complete(@Param("id") String id, @Param("hash") String hash,
+      @Param("durationSeconds") Integer durationSeconds, @Param("now") LocalDateTime now);
+
+  @Query(value = "SELECT id FROM audio_uploads WHERE status = 'UPLOADING' AND updated_at < :before LIMIT :limit",
+      nativeQuery = true)
+  List<String> findStaleUploads(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+  @Query(value = "SELECT * FROM audio_uploads WHERE status = 'COMPLETE' AND completed_at < :before LIMIT :limit",
+      nativeQuery = true)
+  List<AudioUpload> findExpiredRecordings(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+  boolean existsByContentHash(String contentHash);
+}
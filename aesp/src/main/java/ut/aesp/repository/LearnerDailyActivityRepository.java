@@ -0,0 +1,67 @@
+package ut.aesp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.model.LearnerDailyActivity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LearnerDailyActivityRepository
+    extends JpaRepository<LearnerDailyActivity, LearnerDailyActivity.Key> {
+
+  List<LearnerDailyActivity> findAllByLearnerIdAndDayBetweenOrderByDay(Long learnerId, LocalDate from, LocalDate to);
+
+  /**
+   * Add one session to the learner's row for the day. Averages are folded in before
+   * session_count is bumped (MySQL applies the assignments left to right).
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO learner_daily_activity
+          (learner_id, day, session_count, avg_pronunciation, avg_grammar, avg_vocabulary)
+      VALUES (:learnerId, :day, 1, :pronunciation, :grammar, :vocabulary)
+      ON DUPLICATE KEY UPDATE
+          avg_pronunciation = (COALESCE(avg_pronunciation, 0) * session_count + COALESCE(VALUES(avg_pronunciation), 0))
+              / (session_count + 1),
+          avg_grammar = (COALESCE(avg_grammar, 0) * session_count + COALESCE(VALUES(avg_grammar), 0))
+              / (session_count + 1),
+          avg_vocabulary = (COALESCE(avg_vocabulary, 0) * session_count + COALESCE(VALUES(avg_vocabulary), 0))
+              / (session_count + 1),
+          session_count = session_count + 1
+      """, nativeQuery = true)
+  int recordSession(@Param("learnerId") Long learnerId,
+      @Param("day") LocalDate day,
+      @Param("pronunciation") Float pronunciation,
+      @Param("grammar") Float grammar,
+      @Param("vocabulary") Float vocabulary);
+
+  /**
+   * Rebuild every rollup row from ai_practice_sessions; idempotent
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO learner_daily_activity
+          (learner_id, day, session_count, avg_pronunciation, avg_grammar, avg_vocabulary)
+      SELECT s.learner_id, DATE(s.created_at), COUNT(*),
+             AVG(COALESCE(s.pronunciation_score, 0)),
+             AVG(COALESCE(s.grammar_score, 0)),
+             AVG(COALESCE(s.vocabulary_score, 0))
+      FROM ai_practice_sessions s
+      WHERE s.created_at IS NOT NULL AND s.learner_id IS NOT NULL
+      GROUP BY s.learner_id, DATE(s.created_at)
+      ON DUPLICATE KEY UPDATE
+          session_count = VALUES(session_count),
+          avg_pronunciation = VALUES(avg_pronunciation),
+          avg_grammar = VALUES(avg_grammar),
+          avg_vocabulary = VALUES(avg_vocabulary)
+      """, nativeQuery = true)
+  int backfillFromSessions();
+}
@@ -1,9 +1,18 @@
 package ut.aesp.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.dto.leaderboard.LeaderboardRow;
+import ut.aesp.dto.leaderboard.LearnerSeedRow;
 import ut.aesp.model.LearnerProfile;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +21,178 @@ public interface LearnerProfileRepository extends JpaRepository<LearnerProfile,
     Optional<LearnerProfile> findByUserId(Long UserId);
 
     // Optional<LearnerProfile> findByEmail(String email);
+
+    /**
+     * Top {@code limit} learners by aiScore with their session count and current streak
+     * (length of the most recent run of consecutive practice days), computed in one round trip.
+     * Counts come from the learner_daily_activity rollup, so windows are day-aligned. The all-time
+     * streak is the stored current_streak; windowed streaks use gaps-and-islands over the rollup
+     * days (day minus its row number is constant within a run).
+     */
+    @Query(value = """
+        WITH top_learners AS (
+            SELECT lp.id AS learner_id,
+                   COALESCE(u.name, lp.name) AS learner_name,
+                   COALESCE(lp.ai_score, 0) AS ai_score,
+                   COALESCE(lp.current_streak, 0) AS current_streak
+            FROM learner_profiles lp
+            LEFT JOIN users u ON u.id = lp.user_id
+            ORDER BY COALESCE(lp.ai_score, 0) DESC, lp.id
+            LIMIT :limit
+        ),
+        windowed AS (
+            SELECT a.learner_id, a.day, a.session_count
+            FROM learner_daily_activity a
+            JOIN top_learners t ON t.learner_id = a.learner_id
+            WHERE :allTime = TRUE OR a.day >= DATE(:since)
+        ),
+        totals AS (
+            SELECT learner_id, SUM(session_count) AS total_sessions
+            FROM windowed
+            GROUP BY learner_id
+        ),
+        islands AS (
+            SELECT learner_id, day,
+                   DATE_SUB(day, INTERVAL ROW_NUMBER() OVER (PARTITION BY learner_id ORDER BY day) DAY) AS grp
+            FROM windowed
+            WHERE :allTime = FALSE
+        ),
+        runs AS (
+            SELECT learner_id, COUNT(*) AS run_length,
+                   ROW_NUMBER() OVER (PARTITION BY learner_id ORDER BY MAX(day) DESC) AS recency
+            FROM islands
+            GROUP BY learner_id, grp
+        )
+        SELECT ROW_NUMBER() OVER (ORDER BY t.ai_score DESC, t.learner_id) AS `rank`,
+               t.learner_id AS learnerId,
+               t.learner_name AS learnerName,
+               t.ai_score AS aiScore,
+               COALESCE(tot.total_sessions, 0) AS totalSessions,
+               CASE WHEN :allTime = TRUE THEN t.current_streak ELSE COALESCE(r.run_length, 0) END AS streak
+        FROM top_learners t
+        LEFT JOIN totals tot ON tot.learner_id = t.learner_id
+        LEFT JOIN runs r ON r.learner_id = t.learner_id AND r.recency = 1
+        ORDER BY t.ai_score DESC, t.learner_id
+        """, nativeQuery = true)
+    List<LeaderboardRow> findLeaderboard(@Param("allTime") boolean allTime,
+        @Param("since") LocalDateTime since,
+        @Param("limit") int limit);
+
+    /**
+     * Position and window stats of a single learner, same ordering as {@link #findLeaderboard}
+     */
+    @Query(value = """
+        WITH me AS (
+            SELECT lp.id AS learner_id,
+                   COALESCE(u.name, lp.name) AS learner_name,
+                   COALESCE(lp.ai_score, 0) AS ai_score,
+                   COALESCE(lp.current_streak, 0) AS current_streak
+            FROM learner_profiles lp
+            LEFT JOIN users u ON u.id = lp.user_id
+            WHERE lp.id = :learnerId
+        ),
+        windowed AS (
+            SELECT a.day, a.session_count
+            FROM learner_daily_activity a
+            WHERE a.learner_id = :learnerId AND (:allTime = TRUE OR a.day >= DATE(:since))
+        ),
+        islands AS (
+            SELECT day, DATE_SUB(day, INTERVAL ROW_NUMBER() OVER (ORDER BY day) DAY) AS grp
+            FROM windowed
+            WHERE :allTime = FALSE
+        ),
+        latest_run AS (
+            SELECT COUNT(*) AS run_length, MAX(day) AS last_day
+            FROM islands
+            GROUP BY grp
+            ORDER BY last_day DESC
+            LIMIT 1
+        )
+        SELECT (SELECT COUNT(*) FROM learner_profiles o
+                WHERE COALESCE(o.ai_score, 0) > me.ai_score
+                   OR (COALESCE(o.ai_score, 0) = me.ai_score AND o.id < me.learner_id)) + 1 AS `rank`,
+               me.learner_id AS learnerId,
+               me.learner_name AS learnerName,
+               me.ai_score AS aiScore,
+               (SELECT COALESCE(SUM(session_count), 0) FROM windowed) AS totalSessions,
+               CASE WHEN :allTime = TRUE THEN me.current_streak
+                    ELSE COALESCE((SELECT run_length FROM latest_run), 0) END AS streak
+        FROM me
+        """, nativeQuery = true)
+    Optional<LeaderboardRow> findLeaderboardEntry(@Param("learnerId") Long learnerId,
+        @Param("allTime") boolean allTime,
+        @Param("since") LocalDateTime since);
+
+    @Query(value = """
+        SELECT lp.id AS learnerId,
+               COALESCE(u.name, lp.name) AS learnerName,
+               COALESCE(lp.ai_score, 0) AS aiScore
+        FROM learner_profiles lp
+        LEFT JOIN users u ON u.id = lp.user_id
+        """, nativeQuery = true)
+    List<LearnerSeedRow> findLeaderboardSeeds();
+
+    @Query(value = """
+        SELECT lp.id AS learnerId,
+               COALESCE(u.name, lp.name) AS learnerName,
+               COALESCE(lp.ai_score, 0) AS aiScore
+        FROM learner_profiles lp
+        LEFT JOIN users u ON u.id = lp.user_id
+        WHERE lp.id = :learnerId
+        """, nativeQuery = true)
+    Optional<LearnerSeedRow> findLeaderboardSeed(@Param("learnerId") Long learnerId);
+
+    /**
+     * Advance the learner's streak for a practice day: same day keeps it, the next day extends it,
+     * a later day restarts it at 1, an older (out-of-order) day leaves it alone.
+     * MySQL evaluates SET left to right, so longest_streak sees the new current_streak.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE learner_profiles SET
+            current_streak = CASE
+                WHEN last_practice_date = :day THEN COALESCE(current_streak, 1)
+                WHEN last_practice_date = DATE_SUB(:day, INTERVAL 1 DAY) THEN COALESCE(current_streak, 0) + 1
+                WHEN last_practice_date IS NULL OR last_practice_date < :day THEN 1
+                ELSE current_streak
+            END,
+            longest_streak = GREATEST(COALESCE(longest_streak, 0), COALESCE(current_streak, 0)),
+            last_practice_date = GREATEST(COALESCE(last_practice_date, :day), :day)
+        WHERE id = :learnerId
+        """, nativeQuery = true)
+    int recordPracticeDay(@Param("learnerId") Long learnerId, @Param("day") LocalDate day);
+
+    /**
+     * Recompute current/longest streak and last practice day for every learner from the rollup
+     * (gaps-and-islands over learner_daily_activity)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE learner_profiles lp
+        JOIN (
+            WITH islands AS (
+                SELECT learner_id, day,
+                       DATE_SUB(day, INTERVAL ROW_NUMBER() OVER (PARTITION BY learner_id ORDER BY day) DAY) AS grp
+                FROM learner_daily_activity
+            ),
+            runs AS (
+                SELECT learner_id, COUNT(*) AS run_length, MAX(day) AS last_day
+                FROM islands
+                GROUP BY learner_id, grp
+            ),
+            ranked AS (
+                SELECT learner_id, run_length, last_day,
+                       ROW_NUMBER() OVER (PARTITION BY learner_id ORDER BY last_day DESC) AS recency,
+                       MAX(run_length) OVER (PARTITION BY learner_id) AS longest
+                FROM runs
+            )
+            SELECT learner_id, run_length, longest, last_day FROM ranked WHERE recency = 1
+        ) s ON s.learner_id = lp.id
+        SET lp.current_streak = s.run_length,
+            lp.longest_streak = s.longest,
+            lp.last_practice_date = s.last_day
+        """, nativeQuery = true)
+    int backfillStreaks();
 }
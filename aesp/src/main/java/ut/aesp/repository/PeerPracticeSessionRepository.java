@@ -1,6 +1,10 @@
 package ut.aesp.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ut.aesp.model.PeerPracticeSession;
 
@@ -14,6 +18,13 @@ public interface PeerPracticeSessionRepository extends JpaRepository<PeerPractic
   Optional<PeerPracticeSession> findByIdAndStatus(Long id, PeerPracticeSession.SessionStatus status);
   
   List<PeerPracticeSession> findAllByStatus(PeerPracticeSession.SessionStatus status);
+
+  /**
+   * Row-locked read, so concurrent state changes of one session are serialized
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM PeerPracticeSession s WHERE s.id = :id")
+  Optional<PeerPracticeSession> findByIdForUpdate(@Param("id") Long id);
 }
 
 
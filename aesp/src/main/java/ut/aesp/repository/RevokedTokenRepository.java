@@ -0,0 +1,36 @@
+package ut.aesp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.model.RevokedToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+  /**
+   * Idempotent: revoking a token twice, or from two nodes at once, keeps the first row
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT IGNORE INTO revoked_tokens (token_hash, user_id, expires_at, revoked_at)
+      VALUES (:tokenHash, :userId, :expiresAt, CURRENT_TIMESTAMP(3))
+      """, nativeQuery = true)
+  int revoke(@Param("tokenHash") String tokenHash, @Param("userId") Long userId,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Query("SELECT r FROM RevokedToken r WHERE r.revokedAt >= :since AND r.expiresAt > :now ORDER BY r.revokedAt")
+  List<RevokedToken> findActiveRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+}
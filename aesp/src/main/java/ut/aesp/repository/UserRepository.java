@@ -1,9 +1,12 @@
 package ut.aesp.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import ut.aesp.dto.user.UserAccessRow;
 import ut.aesp.model.User;
 import ut.aesp.enums.UserStatus;
 import ut.aesp.enums.UserRole;
@@ -20,4 +23,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Page<User> findAllByRole(UserRole role, Pageable pageable);
 
   Page<User> findAllByStatus(UserStatus status, Pageable pageable);
+
+  /**
+   * Status and role of a user that has not been deleted; a two-column read for authentication checks
+   */
+  @Query("SELECT u.status AS status, u.role AS role FROM User u WHERE u.id = :id AND u.deletedAt IS NULL")
+  Optional<UserAccessRow> findLiveAccessById(@Param("id") Long id);
 }
@@ -0,0 +1,49 @@
+package ut.aesp.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over 256-bit digests. Bits are only ever set, so readers need no
+ * coordination with writers; a membership test is k volatile reads. Positions come from
+ * double hashing of two 64-bit words of the digest, which are already uniformly distributed.
+ */
+final class ConcurrentBloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+
+  /**
+   * @param expectedInsertions entries the filter is sized for
+   * @param falsePositiveRate  target rate at that many entries
+   */
+  ConcurrentBloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(1, expectedInsertions);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+    this.words = new AtomicLongArray(wordCount);
+    this.bits = (long) wordCount * 64;
+    this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / n * Math.log(2))));
+  }
+
+  void put(long h1, long h2) {
+    for (int i = 0; i < hashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bits);
+      long mask = 1L << bit;
+      int index = (int) (bit >>> 6);
+      if ((words.get(index) & mask) == 0) {
+        words.getAndAccumulate(index, mask, (word, m) -> word | m);
+      }
+    }
+  }
+
+  boolean mightContain(long h1, long h2) {
+    for (int i = 0; i < hashes; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bits);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -20,41 +20,71 @@ public class CustomUserDetailsService implements UserDetailsService {
 
   // ⚡ Gộp luôn class CustomUserDetails ở trong file này
   public static class CustomUserDetails implements UserDetails {
+    private final Long id;
+    private final String email;
+    private final String role;
+    private final String name;
     private final User user;
 
     public CustomUserDetails(User user) {
+      this.id = user.getId();
+      this.email = user.getEmail();
+      this.role = user.getRole().name();
+      this.name = user.getName();
       this.user = user;
     }
 
+    private CustomUserDetails(JwtPrincipal principal, String role) {
+      this.id = principal.userId();
+      this.email = principal.email();
+      this.role = role;
+      this.name = principal.name();
+      this.user = null;
+    }
+
+    /**
+     * Built from verified token claims alone, without loading the user
+     */
+    public static CustomUserDetails fromClaims(JwtPrincipal principal, String role) {
+      return new CustomUserDetails(principal, role);
+    }
+
+    /**
+     * The loaded entity; null when built from token claims
+     */
     public User getUser() {
       return this.user;
     }
 
     public Long getId() {
-      return user.getId();
+      return id;
     }
 
     public String getEmail() {
-      return user.getEmail();
+      return email;
+    }
+
+    public String getName() {
+      return name;
     }
 
     public String getRole() {
-      return user.getRole().name();
+      return role;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-      return List.of(() -> "ROLE_" + user.getRole().name());
+      return List.of(() -> "ROLE_" + role);
     }
 
     @Override
     public String getPassword() {
-      return user.getPassword();
+      return user != null ? user.getPassword() : null;
     }
 
     @Override
     public String getUsername() {
-      return user.getEmail();
+      return email;
     }
 
     @Override
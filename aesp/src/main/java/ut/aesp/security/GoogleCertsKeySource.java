@@ -0,0 +1,116 @@
+package ut.aesp.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Google's published signing certificates. {@link GooglePublicKeysManager} does the fetch and
+ * reads the Cache-Control max-age, but its refresh empties the key list before fetching, so
+ * a failed refresh would leave it without keys until the next success. Verification therefore
+ * reads an immutable snapshot of the last successful fetch, swapped only after a new fetch
+ * succeeds. Past its expiry a snapshot is refetched on demand. A failed fetch is not retried
+ * for {@code retryBackoffMs}, so an outage does not put a serial network call on every login;
+ * meanwhile, and while a fetch is under way, the expired keys keep being served for up to
+ * {@code staleGraceMs}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.google.key-source", havingValue = "google", matchIfMissing = true)
+public class GoogleCertsKeySource implements GoogleKeySource {
+
+  private record Snapshot(List<PublicKey> keys, long expiresAtMillis) {
+  }
+
+  private final GooglePublicKeysManager keysManager;
+  private final long retryBackoffMs;
+  private final long staleGraceMs;
+  private final ReentrantLock fetchLock = new ReentrantLock();
+  private volatile Snapshot current = new Snapshot(List.of(), 0);
+  // Epoch millis before which no fetch is attempted after a failure
+  private volatile long nextAttemptMillis;
+
+  @Autowired
+  public GoogleCertsKeySource(
+      @Value("${app.google.keys.retry-backoff-ms:30000}") long retryBackoffMs,
+      @Value("${app.google.keys.stale-grace-ms:21600000}") long staleGraceMs) {
+    this(new GooglePublicKeysManager(new NetHttpTransport(), GsonFactory.getDefaultInstance()),
+        retryBackoffMs, staleGraceMs);
+  }
+
+  GoogleCertsKeySource(GooglePublicKeysManager keysManager, long retryBackoffMs, long staleGraceMs) {
+    this.keysManager = keysManager;
+    this.retryBackoffMs = Math.max(0, retryBackoffMs);
+    this.staleGraceMs = Math.max(0, staleGraceMs);
+  }
+
+  @Override
+  public List<PublicKey> publicKeys() throws GeneralSecurityException, IOException {
+    Snapshot snapshot = current;
+    long now = System.currentTimeMillis();
+    if (now < snapshot.expiresAtMillis()) {
+      return snapshot.keys();
+    }
+    // Google publishes new keys well before retiring old ones
+    boolean staleUsable = !snapshot.keys().isEmpty() && now < snapshot.expiresAtMillis() + staleGraceMs;
+    if (staleUsable && (now < nextAttemptMillis || fetchLock.isLocked())) {
+      return snapshot.keys();
+    }
+    try {
+      refresh();
+    } catch (GeneralSecurityException | IOException e) {
+      if (!staleUsable) {
+        throw e;
+      }
+      log.warn("[Auth] Google signing keys expired and refetch failed, using the previous keys: {}", e.getMessage());
+    }
+    return current.keys();
+  }
+
+  @Override
+  public long expiresAtMillis() {
+    return current.expiresAtMillis();
+  }
+
+  @Override
+  public void refresh() throws GeneralSecurityException, IOException {
+    long seenExpiry = current.expiresAtMillis();
+    fetchLock.lock();
+    try {
+      // Another caller refreshed while this one waited for the lock
+      long now = System.currentTimeMillis();
+      if (current.expiresAtMillis() != seenExpiry && now < current.expiresAtMillis()) {
+        return;
+      }
+      if (now < nextAttemptMillis) {
+        throw new IOException("Google signing keys fetch failed recently, next attempt in "
+            + (nextAttemptMillis - now) + " ms");
+      }
+      try {
+        keysManager.refresh();
+        List<PublicKey> keys = List.copyOf(keysManager.getPublicKeys());
+        if (keys.isEmpty()) {
+          throw new IOException("Google returned no signing keys");
+        }
+        current = new Snapshot(keys, keysManager.getExpirationTimeMilliseconds());
+        nextAttemptMillis = 0;
+      } catch (GeneralSecurityException | IOException | RuntimeException e) {
+        nextAttemptMillis = System.currentTimeMillis() + retryBackoffMs;
+        throw e;
+      }
+    } finally {
+      fetchLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package ut.aesp.security;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.List;
+
+/**
+ * Where {@link GoogleTokenVerifier} gets the keys Google signs ID tokens with. The default is
+ * {@link GoogleCertsKeySource}; app.google.key-source=local selects {@link LocalGoogleKeySource}
+ * with fixed keys for development and tests.
+ */
+public interface GoogleKeySource {
+
+  /**
+   * The current keys, served from cache while it is fresh
+   */
+  List<PublicKey> publicKeys() throws GeneralSecurityException, IOException;
+
+  /**
+   * Epoch millis after which {@link #publicKeys} would fetch again; 0 if nothing is cached
+   */
+  long expiresAtMillis();
+
+  /**
+   * Fetch the keys now. Implementations must keep serving the previous keys when the fetch
+   * fails.
+   */
+  void refresh() throws GeneralSecurityException, IOException;
+}
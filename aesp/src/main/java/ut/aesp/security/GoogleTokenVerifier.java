@@ -0,0 +1,128 @@
+package ut.aesp.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Verifies Google ID tokens with one shared verifier, so Google's signing keys are fetched
+ * once per cache lifetime instead of on every login. Keys are refreshed in the background
+ * shortly before they expire, keeping the certificate fetch off the login path.
+ */
+@Slf4j
+@Component
+public class GoogleTokenVerifier {
+
+  private static final List<String> ISSUERS = List.of("accounts.google.com", "https://accounts.google.com");
+
+  private final GoogleKeySource keySource;
+  private final GoogleIdTokenVerifier verifier;
+  private final MeterRegistry meterRegistry;
+  private final long refreshAheadMs;
+
+  public GoogleTokenVerifier(GoogleKeySource keySource, MeterRegistry meterRegistry,
+      @Value("${GOOGLE_CLIENT_ID}") String googleClientId,
+      @Value("${app.google.keys.refresh-ahead-ms:600000}") long refreshAheadMs,
+      @Value("${app.google.clock-skew-seconds:300}") long clockSkewSeconds) {
+    this.keySource = keySource;
+    this.meterRegistry = meterRegistry;
+    this.refreshAheadMs = refreshAheadMs;
+    this.verifier = new KeySourceVerifier(keySource, new GoogleIdTokenVerifier.Builder(
+        new NetHttpTransport(), GsonFactory.getDefaultInstance())
+        .setAudience(List.of(googleClientId))
+        .setIssuers(ISSUERS)
+        .setAcceptableTimeSkewSeconds(clockSkewSeconds));
+  }
+
+  /**
+   * @return the token's payload, or empty when it is malformed, badly signed, expired or
+   *         issued for another client
+   * @throws GeneralSecurityException or IOException when the keys cannot be obtained
+   */
+  public Optional<GoogleIdToken.Payload> verify(String idToken) throws GeneralSecurityException, IOException {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "error";
+    try {
+      GoogleIdToken verified = parseAndVerify(idToken);
+      outcome = verified != null ? "valid" : "invalid";
+      return Optional.ofNullable(verified).map(GoogleIdToken::getPayload);
+    } finally {
+      sample.stop(meterRegistry.timer("auth.google.verify", "outcome", outcome));
+    }
+  }
+
+  private GoogleIdToken parseAndVerify(String idToken) throws GeneralSecurityException, IOException {
+    try {
+      return verifier.verify(idToken);
+    } catch (IllegalArgumentException e) {
+      // Not a JWS at all
+      return null;
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    refreshKeys(true);
+  }
+
+  @Scheduled(fixedDelayString = "${app.google.keys.check-interval-ms:60000}")
+  public void refreshIfExpiring() {
+    refreshKeys(false);
+  }
+
+  private void refreshKeys(boolean force) {
+    long remainingMs = keySource.expiresAtMillis() - System.currentTimeMillis();
+    if (!force && remainingMs > refreshAheadMs) {
+      return;
+    }
+    try {
+      keySource.refresh();
+      log.debug("[Auth] Google signing keys refreshed, valid for {} s",
+          (keySource.expiresAtMillis() - System.currentTimeMillis()) / 1000);
+    } catch (GeneralSecurityException | IOException e) {
+      // The key source keeps its last good keys; they are refetched on demand once expired
+      log.warn("[Auth] Could not refresh Google signing keys: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * The library verifier for the claim checks, with signatures checked against the key source
+   */
+  private static final class KeySourceVerifier extends GoogleIdTokenVerifier {
+
+    private final GoogleKeySource keySource;
+
+    KeySourceVerifier(GoogleKeySource keySource, GoogleIdTokenVerifier.Builder builder) {
+      super(builder);
+      this.keySource = keySource;
+    }
+
+    @Override
+    public boolean verify(GoogleIdToken idToken) throws GeneralSecurityException, IOException {
+      if (!verifyPayload(idToken)) {
+        return false;
+      }
+      for (PublicKey key : keySource.publicKeys()) {
+        if (idToken.verifySignature(key)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
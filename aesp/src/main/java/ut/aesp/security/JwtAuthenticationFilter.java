@@ -4,7 +4,8 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,17 +13,44 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ut.aesp.enums.UserRole;
 
 import java.io.IOException;
+import java.util.Optional;
+
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.util.Collection;
 import java.util.Collections;
 
+/**
+ * Authenticates bearer tokens, verified through {@link VerifiedTokenCache}. In stateless mode
+ * (default) the principal is built from the verified claims and the only per-request lookup is
+ * {@link UserStatusCache}; with stateless mode switched off the user is loaded from the database.
+ * Only access tokens authenticate: a token without the role and userId claims (a refresh token)
+ * is ignored and the request proceeds anonymously.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-  private final JwtTokenProvider jwtTokenProvider;
+  private final VerifiedTokenCache verifiedTokenCache;
   private final UserDetailsService userDetailsService;
+  private final UserStatusCache userStatusCache;
+  private final TokenRevocationStore revocationStore;
+  private final boolean statelessPrincipal;
+
+  public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache,
+      UserDetailsService userDetailsService,
+      UserStatusCache userStatusCache,
+      TokenRevocationStore revocationStore,
+      @Value("${app.security.stateless-principal:true}") boolean statelessPrincipal) {
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.userDetailsService = userDetailsService;
+    this.userStatusCache = userStatusCache;
+    this.revocationStore = revocationStore;
+    this.statelessPrincipal = statelessPrincipal;
+  }
 
   @Override
   protected void doFilterInternal(HttpServletRequest request,
@@ -31,43 +59,69 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
 
     final String authHeader = request.getHeader("Authorization");
-    final String jwt;
-    final String email;
 
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    if (authHeader == null || !authHeader.startsWith("Bearer ")
+        || SecurityContextHolder.getContext().getAuthentication() != null) {
       filterChain.doFilter(request, response);
       return;
     }
 
-    jwt = authHeader.substring(7);
-    if (!jwtTokenProvider.validateToken(jwt)) {
+    // Signature checked once per distinct token, then served from the cache until exp
+    String token = authHeader.substring(7);
+    Optional<JwtPrincipal> verified = verifiedTokenCache.authenticate(token);
+    if (verified.isEmpty() || verified.get().email() == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    // Checked on every request: a logout on another node does not evict this node's cache
+    if (revocationStore.isRevoked(token)) {
+      log.debug("[Auth] Rejected revoked token");
       filterChain.doFilter(request, response);
       return;
     }
 
-    email = jwtTokenProvider.getEmailFromToken(jwt);
-    if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+    JwtPrincipal principal = verified.get();
 
-      // lấy role từ token
-      String role = jwtTokenProvider.getRoleFromToken(jwt);
-      if (role == null) {
-        System.out.println("Token không chứa role, gán mặc định ROLE_USER");
-        role = "LEARNER";
+    // lấy role từ token
+    String role = principal.role();
+    if (role == null || principal.userId() == null) {
+      log.debug("[Auth] Rejected token without access claims for {}", principal.email());
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    UserDetails userDetails;
+    if (statelessPrincipal) {
+      Optional<UserRole> currentRole = userStatusCache.activeRole(principal.userId());
+      if (currentRole.isEmpty()) {
+        log.debug("[Auth] Rejected token of inactive user {}", principal.userId());
+        filterChain.doFilter(request, response);
+        return;
       }
+      // The role claim is fixed at issue time; after a role change the user must sign in again
+      if (!currentRole.get().name().equals(role)) {
+        log.debug("[Auth] Rejected token of user {} issued for role {}, now {}", principal.userId(), role,
+            currentRole.get());
+        filterChain.doFilter(request, response);
+        return;
+      }
+      userDetails = CustomUserDetailsService.CustomUserDetails.fromClaims(principal, role);
+    } else {
+      userDetails = userDetailsService.loadUserByUsername(principal.email());
+    }
 
-      SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
+    Collection<? extends GrantedAuthority> authorities =
+        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
 
-      UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-          userDetails,
-          null,
-          Collections.singletonList(authority));
+    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+        userDetails,
+        null,
+        authorities);
 
-      authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-      SecurityContextHolder.getContext().setAuthentication(authToken);
+    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+    SecurityContextHolder.getContext().setAuthentication(authToken);
 
-      System.out.println("✅ Xác thực thành công: " + email + " (" + role + ")");
-    }
+    log.debug("[Auth] Authenticated {} ({})", principal.email(), role);
 
     filterChain.doFilter(request, response);
   }
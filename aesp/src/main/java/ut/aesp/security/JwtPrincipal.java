@@ -0,0 +1,14 @@
+package ut.aesp.security;
+
+import java.time.Instant;
+
+/**
+ * The verified contents of an access token, decoded once per request. {@code userId} and
+ * {@code role} are null for tokens that do not carry them (refresh tokens).
+ */
+public record JwtPrincipal(Long userId, String email, String role, String name, Instant expiresAt) {
+
+  public boolean isExpired(Instant now) {
+    return expiresAt != null && !now.isBefore(expiresAt);
+  }
+}
@@ -8,21 +8,45 @@ import ut.aesp.model.User;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
 
-  @Value("${app.jwt.secret}")
-  private String jwtSecret;
+  private final long jwtExpirationMs;
+  private final long refreshExpirationMs;
+  // Derived once: both are immutable and thread-safe
+  private final Key signingKey;
+  private final JwtParser parser;
 
-  @Value("${app.jwt.expirationMs}")
-  private long jwtExpirationMs;
-
-  @Value("${app.jwt.refreshExpirationMs}")
-  private long refreshExpirationMs;
+  public JwtTokenProvider(@Value("${app.jwt.secret}") String jwtSecret,
+      @Value("${app.jwt.expirationMs}") long jwtExpirationMs,
+      @Value("${app.jwt.refreshExpirationMs}") long refreshExpirationMs) {
+    this.jwtExpirationMs = jwtExpirationMs;
+    this.refreshExpirationMs = refreshExpirationMs;
+    this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+  }
 
-  private Key getSigningKey() {
-    return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+  /**
+   * Verify the token and decode its claims in a single parse
+   *
+   * @return the principal, or empty when the token is malformed, forged or expired
+   */
+  public Optional<JwtPrincipal> authenticate(String token) {
+    try {
+      Claims claims = parser.parseClaimsJws(token).getBody();
+      Object userId = claims.get("userId");
+      Date expiration = claims.getExpiration();
+      return Optional.of(new JwtPrincipal(
+          userId instanceof Number number ? number.longValue() : null,
+          claims.getSubject(),
+          claims.get("role", String.class),
+          claims.get("name", String.class),
+          expiration != null ? expiration.toInstant() : null));
+    } catch (JwtException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
   }
 
   public String generateAccessToken(User user) {
@@ -34,7 +58,7 @@ public class JwtTokenProvider {
         .claim("name", user.getName())
         .setIssuedAt(new Date())
         .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-        .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+        .signWith(signingKey, SignatureAlgorithm.HS512)
         .compact();
   }
 
@@ -43,13 +67,13 @@ public class JwtTokenProvider {
         .setSubject(user.getEmail())
         .setIssuedAt(new Date())
         .setExpiration(new Date(System.currentTimeMillis() + refreshExpirationMs))
-        .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+        .signWith(signingKey, SignatureAlgorithm.HS512)
         .compact();
   }
 
   public boolean validateToken(String token) {
     try {
-      Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
+      parser.parseClaimsJws(token);
       return true;
     } catch (JwtException | IllegalArgumentException e) {
       return false;
@@ -57,29 +81,16 @@ public class JwtTokenProvider {
   }
 
   public String getEmailFromToken(String token) {
-    return Jwts.parserBuilder()
-        .setSigningKey(getSigningKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody()
-        .getSubject();
+    return parser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public String getRoleFromToken(String token) {
-    Claims claims = Jwts.parserBuilder()
-        .setSigningKey(getSigningKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
+    Claims claims = parser.parseClaimsJws(token).getBody();
     return claims.get("role", String.class);
   }
 
   public Long getUserIdFromToken(String token) {
-    Claims claims = Jwts.parserBuilder()
-        .setSigningKey(getSigningKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
+    Claims claims = parser.parseClaimsJws(token).getBody();
     Object userIdObj = claims.get("userId");
     if (userIdObj instanceof Number) {
       return ((Number) userIdObj).longValue();
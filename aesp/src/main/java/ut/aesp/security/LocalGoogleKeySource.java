@@ -0,0 +1,76 @@
+package ut.aesp.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed signing keys for local development and tests (app.google.key-source=local): the
+ * X.509 certificates in the PEM file at app.google.local.certificates, so ID tokens signed
+ * with the matching private keys verify without reaching Google. Nothing expires or is
+ * fetched; {@link #refresh} rereads the file.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.google.key-source", havingValue = "local")
+public class LocalGoogleKeySource implements GoogleKeySource {
+
+  private final Path certificates;
+  private volatile List<PublicKey> keys;
+
+  @Autowired
+  public LocalGoogleKeySource(@Value("${app.google.local.certificates}") Path certificates)
+      throws GeneralSecurityException, IOException {
+    this.certificates = certificates;
+    this.keys = read(certificates);
+    log.info("[Auth] Using {} local Google signing keys from {}", keys.size(), certificates);
+  }
+
+  LocalGoogleKeySource(List<PublicKey> keys) {
+    this.certificates = null;
+    this.keys = List.copyOf(keys);
+  }
+
+  @Override
+  public List<PublicKey> publicKeys() {
+    return keys;
+  }
+
+  @Override
+  public long expiresAtMillis() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public void refresh() throws GeneralSecurityException, IOException {
+    if (certificates != null) {
+      keys = read(certificates);
+    }
+  }
+
+  private static List<PublicKey> read(Path file) throws GeneralSecurityException, IOException {
+    List<PublicKey> keys = new ArrayList<>();
+    try (InputStream in = Files.newInputStream(file)) {
+      for (Certificate certificate : CertificateFactory.getInstance("X.509").generateCertificates(in)) {
+        keys.add(certificate.getPublicKey());
+      }
+    }
+    if (keys.isEmpty()) {
+      throw new IOException("No certificates in " + file);
+    }
+    return List.copyOf(keys);
+  }
+}
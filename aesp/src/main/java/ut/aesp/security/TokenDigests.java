@@ -0,0 +1,27 @@
+package ut.aesp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of bearer tokens, so caches and the revocation store never keep the tokens
+ * themselves
+ */
+final class TokenDigests {
+
+  private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private TokenDigests() {
+  }
+
+  static byte[] sha256(String token) {
+    return SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+  }
+}
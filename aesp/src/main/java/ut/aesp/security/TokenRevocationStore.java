@@ -0,0 +1,169 @@
+package ut.aesp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ut.aesp.model.RevokedToken;
+import ut.aesp.repository.RevokedTokenRepository;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens revoked before their expiry (logout), keyed by the SHA-256 of the token.
+ * <ul>
+ * <li>revoked_tokens is the shared record; each node polls it by revoked_at, so a logout
+ * reaches every node within one sync interval.</li>
+ * <li>In memory, a Bloom filter answers "not revoked" for almost every live token in a few
+ * nanoseconds without locking; only its positives consult the exact digest map.</li>
+ * <li>Entries leave the map once the token would have expired anyway, and the filter, which
+ * cannot delete, is rebuilt from the map when that happens.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+  private static final HexFormat HEX = HexFormat.of();
+  private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private final RevokedTokenRepository revokedTokenRepository;
+  // digest hex -> token expiry
+  private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+  private final long expectedRevocations;
+  private final double falsePositiveRate;
+  private final long syncOverlapMs;
+  private final long fallbackLifetimeMs;
+  private final Counter bloomNegative;
+  private final Counter falsePositive;
+  private final Counter revokedHit;
+
+  private volatile ConcurrentBloomFilter filter;
+  private long filterCapacity;
+  // Latest revoked_at seen; sync re-reads a little before it to catch rows committed late
+  private LocalDateTime syncedUntil = EPOCH;
+
+  public TokenRevocationStore(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+      @Value("${app.security.revocation.expected-size:100000}") long expectedRevocations,
+      @Value("${app.security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+      @Value("${app.security.revocation.sync-overlap-ms:30000}") long syncOverlapMs,
+      @Value("${app.jwt.refreshExpirationMs}") long fallbackLifetimeMs) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.expectedRevocations = expectedRevocations;
+    this.falsePositiveRate = falsePositiveRate;
+    this.syncOverlapMs = syncOverlapMs;
+    this.fallbackLifetimeMs = fallbackLifetimeMs;
+    this.filter = new ConcurrentBloomFilter(expectedRevocations, falsePositiveRate);
+    this.filterCapacity = expectedRevocations;
+    this.bloomNegative = meterRegistry.counter("auth.revocation.checks", "result", "bloom_negative");
+    this.falsePositive = meterRegistry.counter("auth.revocation.checks", "result", "false_positive");
+    this.revokedHit = meterRegistry.counter("auth.revocation.checks", "result", "revoked");
+    meterRegistry.gaugeMapSize("auth.revocation.tokens", List.of(), revoked);
+  }
+
+  /**
+   * Revoke a token until it expires
+   *
+   * @param expiresAt the token's exp; null for a token without one, kept for the longest
+   *                  lifetime we issue
+   */
+  public void revoke(String token, Long userId, Instant expiresAt) {
+    Instant until = expiresAt != null ? expiresAt : Instant.now().plusMillis(fallbackLifetimeMs);
+    if (!until.isAfter(Instant.now())) {
+      return;
+    }
+    byte[] digest = TokenDigests.sha256(token);
+    String hash = HEX.formatHex(digest);
+    revokedTokenRepository.revoke(hash, userId, LocalDateTime.ofInstant(until, ZoneId.systemDefault()));
+    remember(hash, digest, until);
+    log.info("[Auth] Revoked token of user {} until {}", userId, until);
+  }
+
+  public boolean isRevoked(String token) {
+    byte[] digest = TokenDigests.sha256(token);
+    ByteBuffer words = ByteBuffer.wrap(digest);
+    if (!filter.mightContain(words.getLong(), words.getLong())) {
+      bloomNegative.increment();
+      return false;
+    }
+    Instant until = revoked.get(HEX.formatHex(digest));
+    if (until == null || !until.isAfter(Instant.now())) {
+      falsePositive.increment();
+      return false;
+    }
+    revokedHit.increment();
+    return true;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    sync();
+  }
+
+  /**
+   * Pull revocations made on any node since the last sync, and drop expired ones
+   */
+  @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval-ms:5000}",
+      initialDelayString = "${app.security.revocation.sync-interval-ms:5000}")
+  public synchronized void sync() {
+    LocalDateTime since = syncedUntil == EPOCH ? EPOCH : syncedUntil.minusNanos(syncOverlapMs * 1_000_000);
+    List<RevokedToken> rows = revokedTokenRepository.findActiveRevokedSince(since, LocalDateTime.now());
+    for (RevokedToken row : rows) {
+      remember(row.getTokenHash(), HEX.parseHex(row.getTokenHash()),
+          row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+      if (row.getRevokedAt().isAfter(syncedUntil)) {
+        syncedUntil = row.getRevokedAt();
+      }
+    }
+
+    Instant now = Instant.now();
+    boolean expired = revoked.values().removeIf(until -> !until.isAfter(now));
+    // Past its capacity the filter's false-positive rate climbs, so resize it too
+    if (expired || revoked.size() > filterCapacity) {
+      rebuildFilter();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.security.revocation.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    if (purged > 0) {
+      log.info("[Auth] Purged {} expired token revocations", purged);
+    }
+  }
+
+  private void remember(String hash, byte[] digest, Instant until) {
+    // Map before filter: a filter positive must always find its entry
+    revoked.put(hash, until);
+    ByteBuffer words = ByteBuffer.wrap(digest);
+    filter.put(words.getLong(), words.getLong());
+  }
+
+  // Called from sync only, hence under its lock
+  private void rebuildFilter() {
+    long capacity = Math.max(expectedRevocations, 2L * revoked.size());
+    ConcurrentBloomFilter rebuilt = new ConcurrentBloomFilter(capacity, falsePositiveRate);
+    revoked.keySet().forEach(hash -> put(rebuilt, hash));
+    filter = rebuilt;
+    filterCapacity = capacity;
+    // A concurrent revoke may have written to the old filter after the pass above;
+    // it is already in the map, so a second pass covers it
+    revoked.keySet().forEach(hash -> put(rebuilt, hash));
+  }
+
+  private static void put(ConcurrentBloomFilter target, String hash) {
+    ByteBuffer words = ByteBuffer.wrap(HEX.parseHex(hash));
+    target.put(words.getLong(), words.getLong());
+  }
+}
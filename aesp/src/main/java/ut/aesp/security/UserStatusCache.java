@@ -0,0 +1,61 @@
+package ut.aesp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ut.aesp.enums.UserRole;
+import ut.aesp.enums.UserStatus;
+import ut.aesp.event.UserAccessChangedEvent;
+import ut.aesp.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Whether a user may still use their tokens (exists, not deleted, ACTIVE) and the role they
+ * currently hold, cached for a few seconds so stateless authentication needs no query per
+ * request. A change made on this node takes effect at once through
+ * {@link UserAccessChangedEvent}; on other nodes within the TTL.
+ */
+@Component
+public class UserStatusCache {
+
+  // role is null for a user who may not authenticate
+  private record Access(UserRole role) {
+    static final Access NONE = new Access(null);
+  }
+
+  private final Cache<Long, Access> active;
+  private final UserRepository userRepository;
+
+  public UserStatusCache(UserRepository userRepository, MeterRegistry meterRegistry,
+      @Value("${app.security.user-status.ttl-seconds:30}") long ttlSeconds,
+      @Value("${app.security.user-status.max-size:100000}") long maxSize) {
+    this.userRepository = userRepository;
+    this.active = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, active, "userStatus");
+  }
+
+  /**
+   * The user's current role, or empty if they are deleted, missing or not ACTIVE
+   */
+  public Optional<UserRole> activeRole(Long userId) {
+    return Optional.ofNullable(active.get(userId, id -> userRepository.findLiveAccessById(id)
+        .filter(row -> row.getStatus() == UserStatus.ACTIVE)
+        .map(row -> new Access(row.getRole()))
+        .orElse(Access.NONE)).role());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAccessChanged(UserAccessChangedEvent event) {
+    active.invalidate(event.userId());
+  }
+}
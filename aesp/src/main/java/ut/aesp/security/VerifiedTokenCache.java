@@ -0,0 +1,111 @@
+package ut.aesp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ut.aesp.event.UserAccessChangedEvent;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Tokens whose signature has already been verified, mapped to their decoded principal, so a
+ * client repeating the same bearer token skips the HS512 check. Keys are SHA-256 digests,
+ * never the tokens themselves. Reads are lock-free (Caffeine over a ConcurrentHashMap); an
+ * entry lives until the token's exp or {@code ttl}, whichever is sooner, and the cache is
+ * size-bounded. Only successful verifications are cached, so garbage tokens cannot fill it.
+ */
+@Component
+public class VerifiedTokenCache {
+
+  private record Digest(long a, long b, long c, long d) {
+  }
+
+  private final JwtTokenProvider tokenProvider;
+  private final Cache<Digest, JwtPrincipal> verified;
+  private final boolean enabled;
+
+  public VerifiedTokenCache(JwtTokenProvider tokenProvider, MeterRegistry meterRegistry,
+      @Value("${app.security.token-cache.enabled:true}") boolean enabled,
+      @Value("${app.security.token-cache.max-size:10000}") long maxSize,
+      @Value("${app.security.token-cache.ttl-seconds:300}") long ttlSeconds) {
+    this.tokenProvider = tokenProvider;
+    this.enabled = enabled;
+    long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<Digest, JwtPrincipal>() {
+          @Override
+          public long expireAfterCreate(Digest key, JwtPrincipal principal, long currentTime) {
+            if (principal.expiresAt() == null) {
+              return ttlNanos;
+            }
+            long untilExp = Duration.between(Instant.now(), principal.expiresAt()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilExp));
+          }
+
+          @Override
+          public long expireAfterUpdate(Digest key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(Digest key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, verified, "verifiedTokens");
+  }
+
+  /**
+   * Same contract as {@link JwtTokenProvider#authenticate}, answered from the cache when the
+   * token was verified recently
+   */
+  public Optional<JwtPrincipal> authenticate(String token) {
+    if (!enabled) {
+      return tokenProvider.authenticate(token);
+    }
+    Digest key = digest(token);
+    JwtPrincipal cached = verified.getIfPresent(key);
+    if (cached != null) {
+      // Expiry is approximate to the scheduler's tick; exp itself is checked exactly
+      return cached.isExpired(Instant.now()) ? Optional.empty() : Optional.of(cached);
+    }
+    Optional<JwtPrincipal> principal = tokenProvider.authenticate(token);
+    principal.ifPresent(p -> verified.put(key, p));
+    return principal;
+  }
+
+  /**
+   * Forget one token, e.g. on logout
+   */
+  public void invalidate(String token) {
+    verified.invalidate(digest(token));
+  }
+
+  /**
+   * Forget every token of a user. A full scan, acceptable for rare status and role changes.
+   */
+  public void invalidateUser(Long userId) {
+    verified.asMap().values().removeIf(principal -> userId.equals(principal.userId()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAccessChanged(UserAccessChangedEvent event) {
+    invalidateUser(event.userId());
+  }
+
+  private static Digest digest(String token) {
+    ByteBuffer hash = ByteBuffer.wrap(TokenDigests.sha256(token));
+    return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+  }
+}
@@ -0,0 +1,21 @@
+package ut.aesp.service;
+
+import ut.aesp.dto.session.AiEvaluationJobResponse;
+import ut.aesp.dto.session.AiEvaluationRequest;
+
+public interface IAiEvaluationJobService {
+  /**
+   * Accept an evaluation and run it in the background, returning the job id
+   */
+  AiEvaluationJobResponse submit(AiEvaluationRequest request);
+
+  /**
+   * Current state of a submitted evaluation
+   */
+  AiEvaluationJobResponse getJob(String jobId);
+
+  /**
+   * Put a dead-lettered (FAILED) job back on the queue with a fresh retry budget
+   */
+  AiEvaluationJobResponse requeue(String jobId);
+}
@@ -6,10 +6,22 @@ import ut.aesp.dto.session.AiEvaluationResponse;
 import ut.aesp.dto.session.AiPracticeSessionRequest;
 import ut.aesp.dto.session.AiPracticeSessionResponse;
 
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 public interface IAiService {
   AiPracticeSessionResponse generateAndSaveSession(AiPracticeSessionRequest request);
 
   Page<AiPracticeSessionResponse> getSessionsForCurrentUser(int page, int size);
 
   AiEvaluationResponse evaluateSpeech(AiEvaluationRequest request);
+
+  /**
+   * Same as {@link #evaluateSpeech(AiEvaluationRequest)}, but the practice session is stored
+   * in one transaction with {@code commit}; when it returns false the session is rolled back
+   * and nothing is recorded. Used by queued jobs to store the result at most once.
+   */
+  AiEvaluationResponse evaluateSpeech(AiEvaluationRequest request, Predicate<AiEvaluationResponse> commit);
+
+  AiEvaluationResponse streamEvaluateSpeech(AiEvaluationRequest request, Consumer<String> onChunk);
 }
@@ -0,0 +1,36 @@
+package ut.aesp.service;
+
+import ut.aesp.dto.audio.AudioUploadRequest;
+import ut.aesp.dto.audio.AudioUploadResponse;
+import ut.aesp.service.ai.AudioClip;
+
+import java.io.InputStream;
+
+public interface IAudioUploadService {
+  /**
+   * Register a recording about to be uploaded for the caller's own learner profile; limits
+   * are checked up front
+   */
+  AudioUploadResponse start(AudioUploadRequest request, Long userId);
+
+  /**
+   * Append the next chunk; {@code offset} must equal the bytes received so far. Only the
+   * learner who started the upload may write to it.
+   */
+  AudioUploadResponse appendChunk(String uploadId, long offset, InputStream body, Long userId);
+
+  /**
+   * Current state, including the offset to resume from
+   */
+  AudioUploadResponse getUpload(String uploadId, Long userId);
+
+  /**
+   * The caller's completed recording, for playback
+   */
+  AudioClip recording(String uploadId, Long userId);
+
+  /**
+   * The stored recording of a completed upload of {@code learnerId}, for handing to an evaluator
+   */
+  AudioClip clip(String uploadId, Long learnerId);
+}
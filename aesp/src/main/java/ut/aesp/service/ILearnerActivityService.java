@@ -0,0 +1,9 @@
+package ut.aesp.service;
+
+import ut.aesp.dto.learner.LearnerActivitySummaryResponse;
+
+public interface ILearnerActivityService {
+  LearnerActivitySummaryResponse getActivity(Long learnerId, int days);
+
+  void backfill();
+}
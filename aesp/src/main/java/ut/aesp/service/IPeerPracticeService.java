@@ -7,10 +7,15 @@ import java.util.List;
 
 public interface IPeerPracticeService {
   /**
-   * Find a matching partner for peer practice
+   * Find a matching partner for peer practice, or join the waiting pool (status WAITING)
    */
   PeerPracticeResponse findMatch(Long learnerId, PeerPracticeRequest request);
 
+  /**
+   * Leave the waiting pool
+   */
+  void cancelMatch(Long learnerId);
+
   /**
    * Create a peer practice session
    */
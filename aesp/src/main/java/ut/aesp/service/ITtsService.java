@@ -0,0 +1,22 @@
+package ut.aesp.service;
+
+import ut.aesp.dto.tts.TtsRequest;
+import ut.aesp.dto.tts.TtsResponse;
+import ut.aesp.service.tts.TtsClip;
+
+public interface ITtsService {
+  /**
+   * Synthesize (or reuse) audio for the text and return where to fetch it
+   */
+  TtsResponse speak(TtsRequest request);
+
+  /**
+   * Audio URL for spoken evaluation feedback, or null when spoken feedback is disabled or fails
+   */
+  String feedbackAudioUrl(String feedback);
+
+  /**
+   * A synthesized clip by key
+   */
+  TtsClip audio(String key);
+}
@@ -0,0 +1,326 @@
+package ut.aesp.service.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ut.aesp.dto.session.AiEvaluationJobResponse;
+import ut.aesp.dto.session.AiEvaluationRequest;
+import ut.aesp.dto.session.AiEvaluationResponse;
+import ut.aesp.enums.EvaluationJobStatus;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.model.AiEvaluationJob;
+import ut.aesp.repository.AiEvaluationJobRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.service.IAiEvaluationJobService;
+import ut.aesp.service.IAiService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable evaluation queue on the ai_evaluation_jobs table. Any node can accept a job;
+ * every node polls for due jobs, claims them with SELECT ... FOR UPDATE SKIP LOCKED and runs
+ * them on aiEvaluationExecutor, at most {@code workers} at a time. A claim is a lease: if
+ * the node dies mid-evaluation the job becomes due again when the lease expires. Failures
+ * are retried with jittered exponential backoff up to {@code maxAttempts}, then the job is
+ * dead-lettered as FAILED. A running job's lease is renewed while it works, and its practice
+ * session is stored in the same transaction that marks the job DONE (fenced on the lease),
+ * so a job that runs twice still records one session.
+ */
+@Slf4j
+@Service
+public class AiEvaluationJobService implements IAiEvaluationJobService {
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final IAiService aiService;
+  private final AiEvaluationJobRepository jobRepository;
+  private final LearnerProfileRepository learnerProfileRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolTaskExecutor executor;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final String nodeId;
+  private final Semaphore workerPermits;
+  private final ReentrantLock pollLock = new ReentrantLock();
+  // Jobs this node is working on, whose leases the heartbeat extends
+  private final Set<String> running = ConcurrentHashMap.newKeySet();
+  private final long ttlMinutes;
+  private final long deadLetterRetentionHours;
+  private final int maxAttempts;
+  private final long backoffBaseMs;
+  private final long backoffMaxMs;
+  private final long leaseSeconds;
+
+  public AiEvaluationJobService(
+      IAiService aiService,
+      AiEvaluationJobRepository jobRepository,
+      LearnerProfileRepository learnerProfileRepository,
+      TransactionTemplate transactionTemplate,
+      @Qualifier("aiEvaluationExecutor") ThreadPoolTaskExecutor executor,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${ai.evaluation.jobs.ttl-minutes:30}") long ttlMinutes,
+      @Value("${ai.evaluation.jobs.dead-letter-retention-hours:168}") long deadLetterRetentionHours,
+      @Value("${ai.evaluation.jobs.workers:8}") int workers,
+      @Value("${ai.evaluation.jobs.max-attempts:5}") int maxAttempts,
+      @Value("${ai.evaluation.jobs.backoff-base-ms:2000}") long backoffBaseMs,
+      @Value("${ai.evaluation.jobs.backoff-max-ms:300000}") long backoffMaxMs,
+      @Value("${ai.evaluation.jobs.lease-seconds:300}") long leaseSeconds) {
+    this.aiService = aiService;
+    this.jobRepository = jobRepository;
+    this.learnerProfileRepository = learnerProfileRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.executor = executor;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.ttlMinutes = ttlMinutes;
+    this.deadLetterRetentionHours = deadLetterRetentionHours;
+    this.workerPermits = new Semaphore(Math.max(1, workers));
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffBaseMs = Math.max(1, backoffBaseMs);
+    this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+    this.leaseSeconds = Math.max(30, leaseSeconds);
+    this.nodeId = System.getenv().getOrDefault("HOSTNAME", "node") + "-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  @Override
+  public AiEvaluationJobResponse submit(AiEvaluationRequest request) {
+    if (request.getLearnerId() == null) {
+      throw new APIException("learnerId is required", HttpStatus.BAD_REQUEST);
+    }
+    if (!learnerProfileRepository.existsById(request.getLearnerId())) {
+      throw new ResourceNotFoundException("LearnerProfile", "id", request.getLearnerId());
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    AiEvaluationJob job = new AiEvaluationJob();
+    job.setId(UUID.randomUUID().toString());
+    job.setLearnerId(request.getLearnerId());
+    job.setStatus(EvaluationJobStatus.PENDING);
+    job.setRequestJson(toJson(request));
+    job.setMaxAttempts(maxAttempts);
+    job.setNextAttemptAt(now);
+    job.setSubmittedAt(now);
+    jobRepository.save(job);
+    meterRegistry.counter("ai.evaluation.jobs", "outcome", "submitted").increment();
+
+    wake();
+    return toResponse(job);
+  }
+
+  @Override
+  public AiEvaluationJobResponse getJob(String jobId) {
+    return jobRepository.findById(jobId)
+        .map(this::toResponse)
+        .orElseThrow(() -> new ResourceNotFoundException("AiEvaluationJob", "id", jobId));
+  }
+
+  @Override
+  public AiEvaluationJobResponse requeue(String jobId) {
+    AiEvaluationJob job = jobRepository.findById(jobId)
+        .orElseThrow(() -> new ResourceNotFoundException("AiEvaluationJob", "id", jobId));
+    if (jobRepository.requeueDeadLetter(jobId, LocalDateTime.now()) == 0) {
+      throw new APIException("Only failed jobs can be requeued, job is " + job.getStatus(), HttpStatus.CONFLICT);
+    }
+    log.info("[AiJob] Dead-lettered job {} requeued", jobId);
+    wake();
+    return getJob(jobId);
+  }
+
+  /**
+   * Claim due jobs up to the free worker capacity and start them
+   */
+  @Scheduled(fixedDelayString = "${ai.evaluation.jobs.poll-interval-ms:500}")
+  public void poll() {
+    if (!pollLock.tryLock()) {
+      return;
+    }
+    try {
+      int capacity;
+      while ((capacity = workerPermits.availablePermits()) > 0) {
+        List<String> claimed = claim(capacity);
+        for (String jobId : claimed) {
+          dispatch(jobId);
+        }
+        if (claimed.size() < capacity) {
+          return;
+        }
+      }
+    } catch (Exception e) {
+      log.error("[AiJob] Polling for due jobs failed", e);
+    } finally {
+      pollLock.unlock();
+    }
+  }
+
+  private List<String> claim(int limit) {
+    LocalDateTime now = LocalDateTime.now();
+    List<String> claimed = transactionTemplate.execute(status -> {
+      List<String> ids = jobRepository.lockDue(now, limit);
+      if (!ids.isEmpty()) {
+        jobRepository.markRunning(ids, nodeId, now, now.plusSeconds(leaseSeconds));
+      }
+      return ids;
+    });
+    return claimed != null ? claimed : List.of();
+  }
+
+  private void dispatch(String jobId) {
+    if (!workerPermits.tryAcquire()) {
+      jobRepository.release(jobId, nodeId, LocalDateTime.now());
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          work(jobId);
+        } finally {
+          workerPermits.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      workerPermits.release();
+      jobRepository.release(jobId, nodeId, LocalDateTime.now());
+      log.warn("[AiJob] Worker pool saturated, job {} handed back to the queue", jobId);
+    }
+  }
+
+  private void work(String jobId) {
+    AiEvaluationJob job = jobRepository.findById(jobId).orElse(null);
+    if (job == null || job.getStatus() != EvaluationJobStatus.RUNNING || !nodeId.equals(job.getLockedBy())) {
+      return;
+    }
+    // A job that keeps taking its worker down is dead-lettered when its lease is reclaimed
+    if (job.getAttempts() > job.getMaxAttempts()) {
+      deadLetter(job, "Exceeded " + job.getMaxAttempts() + " attempts");
+      return;
+    }
+    running.add(jobId);
+    try {
+      AiEvaluationRequest request = objectMapper.readValue(job.getRequestJson(), AiEvaluationRequest.class);
+      boolean[] completed = { false };
+      aiService.evaluateSpeech(request, result ->
+          completed[0] = jobRepository.complete(jobId, nodeId, toJson(result), LocalDateTime.now()) > 0);
+      if (!completed[0]) {
+        // The session was rolled back with it; whoever holds the lease now records the result
+        log.warn("[AiJob] Lease on job {} was lost before completion", jobId);
+        return;
+      }
+      meterRegistry.counter("ai.evaluation.jobs", "outcome", "done").increment();
+    } catch (Exception e) {
+      fail(job, e);
+    } finally {
+      running.remove(jobId);
+    }
+  }
+
+  /**
+   * Extend the leases of jobs still being evaluated here, so a slow evaluation (guard
+   * retries, file upload) is not reclaimed and run again by another node
+   */
+  @Scheduled(fixedDelayString = "${ai.evaluation.jobs.lease-renew-interval-ms:60000}")
+  public void renewLeases() {
+    if (running.isEmpty()) {
+      return;
+    }
+    try {
+      int renewed = jobRepository.renewLeases(List.copyOf(running), nodeId,
+          LocalDateTime.now().plusSeconds(leaseSeconds));
+      log.debug("[AiJob] Renewed {} lease(s)", renewed);
+    } catch (Exception e) {
+      log.warn("[AiJob] Lease renewal failed: {}", e.getMessage());
+    }
+  }
+
+  private void fail(AiEvaluationJob job, Exception e) {
+    String error = truncate(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+    if (!isRetryable(e) || job.getAttempts() >= job.getMaxAttempts()) {
+      log.error("[AiJob] Evaluation job {} failed after {} attempt(s)", job.getId(), job.getAttempts(), e);
+      deadLetter(job, error);
+      return;
+    }
+    long delayMs = backoff(job.getAttempts());
+    log.warn("[AiJob] Evaluation job {} attempt {} failed ({}), retrying in {} ms",
+        job.getId(), job.getAttempts(), error, delayMs);
+    jobRepository.retryLater(job.getId(), nodeId, error, LocalDateTime.now().plusNanos(delayMs * 1_000_000));
+    meterRegistry.counter("ai.evaluation.jobs", "outcome", "retry").increment();
+  }
+
+  private void deadLetter(AiEvaluationJob job, String error) {
+    jobRepository.deadLetter(job.getId(), nodeId, truncate(error), LocalDateTime.now());
+    meterRegistry.counter("ai.evaluation.jobs", "outcome", "dead_letter").increment();
+  }
+
+  // Client errors will fail the same way every time
+  private static boolean isRetryable(Exception e) {
+    if (e instanceof APIException api) {
+      return !api.getStatus().is4xxClientError();
+    }
+    return !(e instanceof ResourceNotFoundException || e instanceof com.fasterxml.jackson.core.JacksonException);
+  }
+
+  // Full jitter: uniform in [base, min(max, base * 2^(attempt-1))]
+  private long backoff(int attempt) {
+    long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(Math.max(attempt - 1, 0), 20));
+    return backoffBaseMs + ThreadLocalRandom.current().nextLong(Math.max(1, cap - backoffBaseMs + 1));
+  }
+
+  // Start a poll right away instead of waiting for the next tick
+  private void wake() {
+    try {
+      executor.execute(this::poll);
+    } catch (RejectedExecutionException e) {
+      // the scheduled poll picks the job up
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${ai.evaluation.jobs.purge-interval-ms:60000}")
+  public void purgeExpiredJobs() {
+    LocalDateTime now = LocalDateTime.now();
+    int removed = jobRepository.purgeFinished(now.minusMinutes(ttlMinutes), now.minusHours(deadLetterRetentionHours));
+    if (removed > 0) {
+      log.info("[AiJob] Purged {} finished evaluation jobs", removed);
+    }
+  }
+
+  private AiEvaluationJobResponse toResponse(AiEvaluationJob job) {
+    AiEvaluationResponse result = null;
+    if (job.getResultJson() != null) {
+      try {
+        result = objectMapper.readValue(job.getResultJson(), AiEvaluationResponse.class);
+      } catch (Exception e) {
+        log.warn("[AiJob] Stored result of job {} is unreadable", job.getId());
+      }
+    }
+    return new AiEvaluationJobResponse(job.getId(), job.getStatus(), result, job.getError(),
+        job.getSubmittedAt(), job.getCompletedAt(), job.getAttempts());
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to serialize evaluation job payload", e);
+    }
+  }
+
+  private static String truncate(String value) {
+    return value != null && value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+  }
+}
@@ -1,6 +1,8 @@
 package ut.aesp.service.Impl;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ut.aesp.event.PracticeSessionRecordedEvent;
 import ut.aesp.model.AiPracticeSession;
 import ut.aesp.repository.AiPracticeSessionRepository;
 
@@ -11,13 +13,27 @@ import java.util.Optional;
 public class AiPracticeSessionService {
 
   private final AiPracticeSessionRepository repository;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public AiPracticeSessionService(AiPracticeSessionRepository repository) {
+  public AiPracticeSessionService(AiPracticeSessionRepository repository,
+      ApplicationEventPublisher eventPublisher) {
     this.repository = repository;
+    this.eventPublisher = eventPublisher;
   }
 
   public AiPracticeSession save(AiPracticeSession session) {
-    return repository.save(session);
+    boolean isNew = session.getId() == null;
+    AiPracticeSession saved = repository.save(session);
+    if (isNew && saved.getLearner() != null) {
+      eventPublisher.publishEvent(new PracticeSessionRecordedEvent(
+          saved.getId(),
+          saved.getLearner().getId(),
+          saved.getCreatedAt(),
+          saved.getPronunciationScore(),
+          saved.getGrammarScore(),
+          saved.getVocabularyScore()));
+    }
+    return saved;
   }
 
   public List<AiPracticeSession> findAll() {
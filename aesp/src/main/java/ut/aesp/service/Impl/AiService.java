@@ -1,20 +1,23 @@
 package ut.aesp.service.Impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ut.aesp.dto.session.AiEvaluationRequest;
 import ut.aesp.dto.session.AiEvaluationResponse;
 import ut.aesp.dto.session.AiPracticeSessionRequest;
 import ut.aesp.dto.session.AiPracticeSessionResponse;
+import ut.aesp.event.PracticeSessionRecordedEvent;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
 import ut.aesp.model.AiPracticeSession;
 import ut.aesp.model.LearnerProfile;
 import ut.aesp.model.User;
@@ -22,7 +25,15 @@ import ut.aesp.repository.AiPracticeSessionRepository;
 import ut.aesp.repository.LearnerProfileRepository;
 import ut.aesp.repository.UserRepository;
 import ut.aesp.service.IAiService;
-import ut.aesp.service.ai.GeminiHttpClient;
+import ut.aesp.service.IAudioUploadService;
+import ut.aesp.service.ITtsService;
+import ut.aesp.service.ai.AudioClip;
+import ut.aesp.service.ai.EvaluationRouter;
+import ut.aesp.service.ai.SpeechEvaluation;
+import ut.aesp.service.ai.SpeechInput;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
@@ -32,11 +43,15 @@ public class AiService implements IAiService {
   private final AiPracticeSessionRepository sessionRepository;
   private final LearnerProfileRepository learnerProfileRepository;
   private final UserRepository userRepository;
-  private final GeminiHttpClient geminiClient;
-  private final ObjectMapper objectMapper;
+  private final EvaluationRouter evaluationRouter;
+  private final IAudioUploadService audioUploadService;
+  private final ITtsService ttsService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
 
+  // Not @Transactional: the Gemini call must not hold a JPA connection.
+  // The lookup and the final save each run in their own short repository transaction.
   @Override
-  @Transactional
   public AiPracticeSessionResponse generateAndSaveSession(AiPracticeSessionRequest request) {
     LearnerProfile learner = learnerProfileRepository.findById(request.getLearnerId())
         .orElseThrow(() -> new RuntimeException("Learner not found"));
@@ -47,110 +62,150 @@ public class AiService implements IAiService {
     session.setScenario(request.getScenario());
     session.setDurationMinutes(request.getDurationMinutes() != null ? request.getDurationMinutes() : 1);
     session.setAudioUrl(request.getAudioUrl());
-    session.setAiVersion("gemini-2.5-flash");
 
-    // Call Gemini for evaluation
+    // Gemini, or the local evaluator when Gemini is unavailable or too slow
     try {
-      String geminiResponse = geminiClient.evaluateSpeech(
+      EvaluationRouter.Routed routed = evaluationRouter.evaluate(new SpeechInput(
           request.getSpeech() != null ? request.getSpeech() : "",
           request.getTopic(),
           request.getScenario(),
-          "B1"); // Default level, can be passed in request
-
-      // Parse Gemini response
-      JsonNode jsonNode = objectMapper.readTree(geminiResponse);
-      JsonNode rubric = jsonNode.path("rubric");
-      String feedback = jsonNode.path("feedback").asText("");
+          "B1", // Default level, can be passed in request
+          request.getDurationMinutes() != null ? request.getDurationMinutes() * 60 : null));
+      SpeechEvaluation evaluation = routed.evaluation();
+      session.setAiVersion(routed.version());
 
-      session.setPronunciationScore((float) rubric.path("pronunciation").asDouble(0));
-      session.setGrammarScore((float) rubric.path("grammar").asDouble(0));
-      session.setVocabularyScore((float) rubric.path("vocabulary").asDouble(0));
-      session.setAiFeedback(feedback);
+      session.setPronunciationScore((float) evaluation.pronunciation());
+      session.setGrammarScore((float) evaluation.grammar());
+      session.setVocabularyScore((float) evaluation.vocabulary());
+      session.setAiFeedback(evaluation.feedback() != null ? evaluation.feedback() : "");
 
     } catch (Exception e) {
-      log.error("Error calling Gemini", e);
+      log.error("Error evaluating speech", e);
       session.setAiFeedback("Error evaluating speech: " + e.getMessage());
     }
 
     AiPracticeSession saved = sessionRepository.save(session);
+    publishRecorded(saved);
     return toResponse(saved);
   }
 
   /**
-   * Evaluate speech and return immediate response
+   * Evaluate speech and return immediate response.
+   * Runs outside a transaction so the remote call never pins a pooled connection;
+   * only the final insert opens one.
    */
-  @Transactional
+  @Override
   public AiEvaluationResponse evaluateSpeech(AiEvaluationRequest request) {
+    return evaluateSpeech(request, null);
+  }
+
+  @Override
+  public AiEvaluationResponse evaluateSpeech(AiEvaluationRequest request, Predicate<AiEvaluationResponse> commit) {
     LearnerProfile learner = learnerProfileRepository.findById(request.getLearnerId())
-        .orElseThrow(() -> new RuntimeException("Learner not found"));
+        .orElseThrow(() -> new ResourceNotFoundException("LearnerProfile", "id", request.getLearnerId()));
+    SpeechInput input = speechInput(request);
 
     try {
-      // Call Gemini for evaluation
-      String geminiResponse = geminiClient.evaluateSpeech(
-          request.getSpeechText(),
-          request.getTopic(),
-          request.getScenario(),
-          request.getTargetLevel() != null ? request.getTargetLevel() : "B1");
-
-      // Parse Gemini response
-      JsonNode jsonNode;
-      try {
-        jsonNode = objectMapper.readTree(geminiResponse);
-      } catch (Exception e) {
-        log.error("Failed to parse Gemini JSON response: {}", geminiResponse, e);
-        throw new RuntimeException("Invalid JSON response from Gemini: " + e.getMessage(), e);
-      }
+      EvaluationRouter.Routed routed = evaluationRouter.evaluate(input);
 
-      JsonNode rubricNode = jsonNode.path("rubric");
-      String feedback = jsonNode.path("feedback").asText("No feedback provided");
-
-      // Build rubric with safe defaults
-      AiEvaluationResponse.Rubric rubric = new AiEvaluationResponse.Rubric();
-      if (rubricNode != null && !rubricNode.isMissingNode()) {
-        rubric.setPronunciation(rubricNode.path("pronunciation").asDouble(0));
-        rubric.setFluency(rubricNode.path("fluency").asDouble(0));
-        rubric.setGrammar(rubricNode.path("grammar").asDouble(0));
-        rubric.setVocabulary(rubricNode.path("vocabulary").asDouble(0));
-      } else {
-        // Default values if rubric is missing
-        rubric.setPronunciation(0.0);
-        rubric.setFluency(0.0);
-        rubric.setGrammar(0.0);
-        rubric.setVocabulary(0.0);
-      }
+      return saveEvaluation(learner, request, routed.evaluation(), routed.version(), commit);
 
-      // Save to database
-      AiPracticeSession session = new AiPracticeSession();
-      session.setLearner(learner);
-      session.setTopic(request.getTopic());
-      session.setScenario(request.getScenario());
-      session.setDurationMinutes(1);
-      session.setPronunciationScore(rubric.getPronunciation() != null ? rubric.getPronunciation().floatValue() : 0f);
-      session.setGrammarScore(rubric.getGrammar() != null ? rubric.getGrammar().floatValue() : 0f);
-      session.setVocabularyScore(rubric.getVocabulary() != null ? rubric.getVocabulary().floatValue() : 0f);
-      session.setAiFeedback(feedback);
-      session.setAiVersion("gemini-2.5-flash");
+    } catch (APIException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error evaluating speech", e);
+      throw new RuntimeException("Failed to evaluate speech: " + e.getMessage(), e);
+    }
+  }
 
-      AiPracticeSession saved = sessionRepository.save(session);
+  /**
+   * Same as {@link #evaluateSpeech} but feeds Gemini's partial output to {@code onChunk}
+   * while it is generated; the final rubric is persisted once the stream completes.
+   * Recordings and local evaluations produce no chunks, only the final result.
+   */
+  @Override
+  public AiEvaluationResponse streamEvaluateSpeech(AiEvaluationRequest request, Consumer<String> onChunk) {
+    LearnerProfile learner = learnerProfileRepository.findById(request.getLearnerId())
+        .orElseThrow(() -> new ResourceNotFoundException("LearnerProfile", "id", request.getLearnerId()));
+    SpeechInput input = speechInput(request);
 
-      // Build response
-      AiEvaluationResponse response = new AiEvaluationResponse();
-      response.setTranscript(request.getSpeechText());
-      response.setFeedback(feedback);
-      // response.setScore(score);
-      response.setRubric(rubric);
-      response.setPracticeSessionId(saved.getId());
-      // TTS audio can be added later if needed
-      response.setTtsAudioBase64(null);
+    try {
+      EvaluationRouter.Routed routed = evaluationRouter.stream(input, onChunk);
 
-      return response;
+      return saveEvaluation(learner, request, routed.evaluation(), routed.version(), null);
 
+    } catch (APIException e) {
+      throw e;
     } catch (Exception e) {
-      log.error("Error evaluating speech", e);
+      log.error("Error streaming speech evaluation", e);
       throw new RuntimeException("Failed to evaluate speech: " + e.getMessage(), e);
     }
   }
 
+  // Resolved before the remote call so a missing or unfinished upload fails fast
+  private SpeechInput speechInput(AiEvaluationRequest request) {
+    AudioClip audio = request.getAudioUploadId() != null ? audioUploadService.clip(request.getAudioUploadId(), request.getLearnerId()) : null;
+    if (audio == null && (request.getSpeechText() == null || request.getSpeechText().isBlank())) {
+      throw new APIException("speechText or audioUploadId is required", HttpStatus.BAD_REQUEST);
+    }
+    return new SpeechInput(
+        request.getSpeechText(),
+        request.getTopic(),
+        request.getScenario(),
+        request.getTargetLevel() != null ? request.getTargetLevel() : "B1",
+        request.getDurationSeconds() != null || audio == null ? request.getDurationSeconds() : audio.durationSeconds(),
+        audio,
+        request.getLanguage());
+  }
+
+  private AiEvaluationResponse saveEvaluation(LearnerProfile learner, AiEvaluationRequest request,
+      SpeechEvaluation evaluation, String aiVersion, Predicate<AiEvaluationResponse> commit) {
+    // Missing rubric criteria are already decoded as 0
+    AiEvaluationResponse.Rubric rubric = evaluation.toRubric();
+    String feedback = evaluation.feedback() != null ? evaluation.feedback() : "No feedback provided";
+
+    // Save to database
+    AiPracticeSession session = new AiPracticeSession();
+    session.setLearner(learner);
+    session.setTopic(request.getTopic());
+    session.setScenario(request.getScenario());
+    session.setDurationMinutes(1);
+    session.setPronunciationScore(rubric.getPronunciation() != null ? rubric.getPronunciation().floatValue() : 0f);
+    session.setGrammarScore(rubric.getGrammar() != null ? rubric.getGrammar().floatValue() : 0f);
+    session.setVocabularyScore(rubric.getVocabulary() != null ? rubric.getVocabulary().floatValue() : 0f);
+    session.setAiFeedback(feedback);
+    session.setAiVersion(aiVersion);
+    if (request.getAudioUploadId() != null) {
+      session.setAudioUrl("/api/v1/audio/uploads/" + request.getAudioUploadId() + "/content");
+    }
+
+    // Build response; speech synthesis happens before any transaction is opened
+    AiEvaluationResponse response = new AiEvaluationResponse();
+    response.setTranscript(request.getSpeechText());
+    response.setFeedback(feedback);
+    response.setScore(evaluation.score());
+    response.setRubric(rubric);
+    response.setTtsAudioUrl(ttsService.feedbackAudioUrl(feedback));
+
+    if (commit == null) {
+      AiPracticeSession saved = sessionRepository.save(session);
+      publishRecorded(saved);
+      response.setPracticeSessionId(saved.getId());
+      return response;
+    }
+    // The recorded event is delivered after commit only, so a rolled-back session is never counted
+    transactionTemplate.executeWithoutResult(status -> {
+      AiPracticeSession saved = sessionRepository.save(session);
+      publishRecorded(saved);
+      response.setPracticeSessionId(saved.getId());
+      if (!commit.test(response)) {
+        status.setRollbackOnly();
+        response.setPracticeSessionId(null);
+      }
+    });
+    return response;
+  }
+
   @Override
   public Page<AiPracticeSessionResponse> getSessionsForCurrentUser(int page, int size) {
     Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -173,6 +228,16 @@ public class AiService implements IAiService {
     return sessions.map(this::toResponse);
   }
 
+  private void publishRecorded(AiPracticeSession saved) {
+    eventPublisher.publishEvent(new PracticeSessionRecordedEvent(
+        saved.getId(),
+        saved.getLearner().getId(),
+        saved.getCreatedAt(),
+        saved.getPronunciationScore(),
+        saved.getGrammarScore(),
+        saved.getVocabularyScore()));
+  }
+
   private AiPracticeSessionResponse toResponse(AiPracticeSession session) {
     AiPracticeSessionResponse response = new AiPracticeSessionResponse();
     response.setId(session.getId());
@@ -0,0 +1,278 @@
+package ut.aesp.service.Impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ut.aesp.dto.audio.AudioUploadRequest;
+import ut.aesp.dto.audio.AudioUploadResponse;
+import ut.aesp.enums.AudioUploadStatus;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.model.AudioUpload;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.repository.AudioUploadRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.service.IAudioUploadService;
+import ut.aesp.service.ai.AudioClip;
+import ut.aesp.service.audio.AudioStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Resumable audio uploads: the client registers the recording, then PATCHes chunks at the
+ * current offset and may resume from {@link #getUpload} after a dropped connection. When the
+ * last byte arrives the recording is hashed, its duration checked and it is stored once per
+ * distinct content. An upload is only visible to the learner it belongs to; to anyone else
+ * it does not exist. Completed recordings are kept for {@code retentionDays}, after which the
+ * upload is deleted and its blob too once no other upload shares it.
+ */
+@Slf4j
+@Service
+public class AudioUploadService implements IAudioUploadService {
+
+  private static final Set<String> WAV_TYPES = Set.of("audio/wav", "audio/x-wav", "audio/wave", "audio/vnd.wave");
+
+  private final AudioUploadRepository uploadRepository;
+  private final LearnerProfileRepository learnerProfileRepository;
+  private final AudioStore store;
+  private final MeterRegistry meterRegistry;
+  private final long maxBytes;
+  private final int maxDurationSeconds;
+  private final Set<String> allowedTypes;
+  private final long staleUploadHours;
+  private final long retentionDays;
+
+  public AudioUploadService(AudioUploadRepository uploadRepository,
+      LearnerProfileRepository learnerProfileRepository,
+      AudioStore store,
+      MeterRegistry meterRegistry,
+      @Value("${app.audio.max-bytes:16777216}") long maxBytes,
+      @Value("${app.audio.max-duration-seconds:180}") int maxDurationSeconds,
+      @Value("${app.audio.allowed-types:audio/wav,audio/x-wav,audio/webm,audio/ogg,audio/mpeg,audio/mp4,audio/aac,audio/flac}") List<String> allowedTypes,
+      @Value("${app.audio.stale-upload-hours:24}") long staleUploadHours,
+      @Value("${app.audio.retention-days:30}") long retentionDays) {
+    this.uploadRepository = uploadRepository;
+    this.learnerProfileRepository = learnerProfileRepository;
+    this.store = store;
+    this.meterRegistry = meterRegistry;
+    this.maxBytes = maxBytes;
+    this.maxDurationSeconds = maxDurationSeconds;
+    this.allowedTypes = allowedTypes.stream()
+        .map(type -> type.trim().toLowerCase(Locale.ROOT))
+        .collect(Collectors.toUnmodifiableSet());
+    this.staleUploadHours = staleUploadHours;
+    this.retentionDays = retentionDays;
+  }
+
+  @Override
+  public AudioUploadResponse start(AudioUploadRequest request, Long userId) {
+    if (request.getLearnerId() == null) {
+      throw new APIException("learnerId is required", HttpStatus.BAD_REQUEST);
+    }
+    if (!request.getLearnerId().equals(learnerIdOf(userId))) {
+      throw new APIException("Recordings can only be uploaded to your own learner profile", HttpStatus.FORBIDDEN);
+    }
+    String mimeType = normalizeType(request.getMimeType());
+    if (mimeType == null || !allowedTypes.contains(mimeType)) {
+      throw new APIException("Unsupported audio type: " + request.getMimeType(), HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+    if (request.getTotalBytes() == null || request.getTotalBytes() <= 0) {
+      throw new APIException("totalBytes is required", HttpStatus.BAD_REQUEST);
+    }
+    if (request.getTotalBytes() > maxBytes) {
+      throw new APIException("Recording exceeds " + maxBytes + " bytes", HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+    // Only WAV headers are read on completion; other formats rely on the declared duration
+    if (!WAV_TYPES.contains(mimeType) && (request.getDurationSeconds() == null || request.getDurationSeconds() <= 0)) {
+      throw new APIException("durationSeconds is required for " + mimeType + " recordings", HttpStatus.BAD_REQUEST);
+    }
+    if (request.getDurationSeconds() != null && request.getDurationSeconds() > maxDurationSeconds) {
+      throw new APIException("Recording exceeds " + maxDurationSeconds + " seconds", HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    AudioUpload upload = new AudioUpload();
+    upload.setId(UUID.randomUUID().toString());
+    upload.setLearnerId(request.getLearnerId());
+    upload.setStatus(AudioUploadStatus.UPLOADING);
+    upload.setMimeType(mimeType);
+    upload.setTotalBytes(request.getTotalBytes());
+    upload.setDurationSeconds(request.getDurationSeconds());
+    upload.setCreatedAt(now);
+    upload.setUpdatedAt(now);
+    return toResponse(uploadRepository.save(upload));
+  }
+
+  @Override
+  public AudioUploadResponse appendChunk(String uploadId, long offset, InputStream body, Long userId) {
+    AudioUpload upload = find(uploadId, learnerIdOf(userId));
+    if (upload.getStatus() == AudioUploadStatus.COMPLETE) {
+      // A retried final chunk whose response was lost
+      if (offset == upload.getTotalBytes()) {
+        return toResponse(upload);
+      }
+      throw new APIException("Upload is already complete", HttpStatus.CONFLICT);
+    }
+
+    long received;
+    try (AudioStore.PartialFile partial = store.openPartial(uploadId)) {
+      // Re-read under the file lock: another chunk may have landed since the lookup above
+      upload = find(uploadId);
+      if (upload.getStatus() != AudioUploadStatus.UPLOADING || offset != upload.getReceivedBytes()) {
+        throw new APIException("Upload offset mismatch, resume from " + upload.getReceivedBytes(),
+            HttpStatus.CONFLICT);
+      }
+      long written = partial.append(offset, body, upload.getTotalBytes() - offset);
+      received = offset + written;
+      if (uploadRepository.advance(uploadId, offset, received, LocalDateTime.now()) == 0) {
+        throw new APIException("Upload offset changed concurrently, resume from the current offset",
+            HttpStatus.CONFLICT);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write upload " + uploadId, e);
+    }
+
+    if (received == upload.getTotalBytes()) {
+      finish(upload);
+    }
+    return toResponse(find(uploadId));
+  }
+
+  private void finish(AudioUpload upload) {
+    String uploadId = upload.getId();
+    Integer duration = WAV_TYPES.contains(upload.getMimeType())
+        ? store.wavDurationSeconds(uploadId)
+        : null;
+    if (duration == null) {
+      duration = upload.getDurationSeconds();
+    }
+    if (duration == null) {
+      store.discard(uploadId);
+      uploadRepository.deleteById(uploadId);
+      throw new APIException("Could not read the recording's duration, send durationSeconds", HttpStatus.BAD_REQUEST);
+    }
+    if (duration > maxDurationSeconds) {
+      store.discard(uploadId);
+      uploadRepository.deleteById(uploadId);
+      throw new APIException("Recording is " + duration + " seconds, the limit is " + maxDurationSeconds,
+          HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    String hash = store.sha256(uploadId);
+    boolean stored = store.commit(uploadId, hash);
+    uploadRepository.complete(uploadId, hash, duration, LocalDateTime.now());
+    meterRegistry.counter("audio.uploads", "outcome", stored ? "stored" : "deduplicated").increment();
+    log.info("[Audio] Upload {} complete: {} bytes, {} s, {}", uploadId, upload.getTotalBytes(), duration,
+        stored ? "stored" : "duplicate of an existing recording");
+  }
+
+  @Override
+  public AudioUploadResponse getUpload(String uploadId, Long userId) {
+    return toResponse(find(uploadId, learnerIdOf(userId)));
+  }
+
+  @Override
+  public AudioClip recording(String uploadId, Long userId) {
+    return clip(uploadId, learnerIdOf(userId));
+  }
+
+  @Override
+  public AudioClip clip(String uploadId, Long learnerId) {
+    AudioUpload upload = find(uploadId, learnerId);
+    if (upload.getStatus() != AudioUploadStatus.COMPLETE) {
+      throw new APIException("Audio upload " + uploadId + " is not complete", HttpStatus.CONFLICT);
+    }
+    Path blob = store.blobPath(upload.getContentHash());
+    if (!Files.exists(blob)) {
+      throw new APIException("Audio upload " + uploadId + " is no longer stored", HttpStatus.GONE);
+    }
+    return new AudioClip(upload.getContentHash(), upload.getMimeType(), upload.getTotalBytes(),
+        upload.getDurationSeconds(), blob);
+  }
+
+  /**
+   * Drop uploads the client abandoned part-way
+   */
+  @Scheduled(fixedDelayString = "${app.audio.purge-interval-ms:3600000}")
+  public void purgeStaleUploads() {
+    List<String> stale = uploadRepository.findStaleUploads(LocalDateTime.now().minusHours(staleUploadHours), 500);
+    for (String uploadId : stale) {
+      store.discard(uploadId);
+      uploadRepository.deleteById(uploadId);
+    }
+    if (!stale.isEmpty()) {
+      log.info("[Audio] Purged {} abandoned uploads", stale.size());
+    }
+  }
+
+  /**
+   * Drop recordings past their retention. A blob goes with its last upload; one a new upload
+   * was deduplicated against since the cutoff is kept.
+   */
+  @Scheduled(fixedDelayString = "${app.audio.purge-interval-ms:3600000}")
+  public void purgeExpiredRecordings() {
+    LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+    List<AudioUpload> expired = uploadRepository.findExpiredRecordings(cutoff, 500);
+    if (expired.isEmpty()) {
+      return;
+    }
+    uploadRepository.deleteAllByIdInBatch(expired.stream().map(AudioUpload::getId).toList());
+    int blobs = 0;
+    for (String hash : expired.stream().map(AudioUpload::getContentHash).filter(Objects::nonNull)
+        .collect(Collectors.toSet())) {
+      if (!uploadRepository.existsByContentHash(hash) && store.deleteBlob(hash, cutoff)) {
+        blobs++;
+      }
+    }
+    log.info("[Audio] Purged {} recordings past {} days of retention, {} blobs deleted", expired.size(),
+        retentionDays, blobs);
+  }
+
+  private AudioUpload find(String uploadId) {
+    return uploadRepository.findById(uploadId)
+        .orElseThrow(() -> new ResourceNotFoundException("AudioUpload", "id", uploadId));
+  }
+
+  // Someone else's upload is reported as missing rather than forbidden, so ids cannot be probed
+  private AudioUpload find(String uploadId, Long learnerId) {
+    AudioUpload upload = find(uploadId);
+    if (learnerId == null || !learnerId.equals(upload.getLearnerId())) {
+      throw new ResourceNotFoundException("AudioUpload", "id", uploadId);
+    }
+    return upload;
+  }
+
+  private Long learnerIdOf(Long userId) {
+    return userId == null
+        ? null
+        : learnerProfileRepository.findByUserId(userId).map(LearnerProfile::getId).orElse(null);
+  }
+
+  // "audio/webm;codecs=opus" -> "audio/webm"
+  private static String normalizeType(String mimeType) {
+    if (mimeType == null || mimeType.isBlank()) {
+      return null;
+    }
+    int parameters = mimeType.indexOf(';');
+    return (parameters >= 0 ? mimeType.substring(0, parameters) : mimeType).trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static AudioUploadResponse toResponse(AudioUpload upload) {
+    return new AudioUploadResponse(upload.getId(), upload.getStatus(), upload.getMimeType(), upload.getTotalBytes(),
+        upload.getReceivedBytes(), upload.getDurationSeconds(), upload.getContentHash());
+  }
+}
@@ -10,11 +10,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import java.util.Collections;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.UUID;
 import java.time.LocalDateTime;
 
@@ -27,13 +24,14 @@ import ut.aesp.enums.UserStatus;
 import ut.aesp.exception.APIException;
 import ut.aesp.model.User;
 import ut.aesp.repository.UserRepository;
+import ut.aesp.security.GoogleTokenVerifier;
 import ut.aesp.security.JwtTokenProvider;
+import ut.aesp.security.TokenRevocationStore;
+import ut.aesp.security.VerifiedTokenCache;
 import ut.aesp.service.IAuthService;
 
 import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 import org.springframework.beans.factory.annotation.Value;
 
 @Service
@@ -45,10 +43,10 @@ public class AuthService implements IAuthService {
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
   private final JwtTokenProvider jwtTokenProvider;
-  private final String googleClientId;
-
-  // lưu danh sách token đã logout (blacklist)
-  static Set<String> blacklistedTokens = new HashSet<>();
+  private final VerifiedTokenCache verifiedTokenCache;
+  private final TokenRevocationStore revocationStore;
+  private final GoogleTokenVerifier googleTokenVerifier;
+  private final MeterRegistry meterRegistry;
 
   @Override
   public User register(RegisterRequest request) {
@@ -70,6 +68,18 @@ public class AuthService implements IAuthService {
 
   @Override
   public TokenResponse login(LoginRequest request) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    boolean success = false;
+    try {
+      TokenResponse tokens = loginWithPassword(request);
+      success = true;
+      return tokens;
+    } finally {
+      recordLogin(sample, "password", success);
+    }
+  }
+
+  private TokenResponse loginWithPassword(LoginRequest request) {
     User user = userRepository.findByEmail(request.getEmail())
         .orElseThrow(() -> new APIException("Email không tồn tại", HttpStatus.UNAUTHORIZED));
 
@@ -89,20 +99,11 @@ public class AuthService implements IAuthService {
   @Override
   @Transactional
   public TokenResponse loginWithGoogle(String idTokenString) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    boolean success = false;
     try {
-      final NetHttpTransport transport = GoogleNetHttpTransport.newTrustedTransport();
-      final JacksonFactory jsonFactory = JacksonFactory.getDefaultInstance();
-
-      GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(transport, jsonFactory)
-          .setAudience(Collections.singletonList(googleClientId))
-          .build();
-
-      GoogleIdToken idToken = verifier.verify(idTokenString);
-      if (idToken == null) {
-        throw new APIException("Token Google không hợp lệ", HttpStatus.UNAUTHORIZED);
-      }
-
-      GoogleIdToken.Payload payload = idToken.getPayload();
+      GoogleIdToken.Payload payload = googleTokenVerifier.verify(idTokenString)
+          .orElseThrow(() -> new APIException("Token Google không hợp lệ", HttpStatus.UNAUTHORIZED));
       String email = payload.getEmail();
       String name = (String) payload.get("name");
       String picture = (String) payload.get("picture");
@@ -122,15 +123,24 @@ public class AuthService implements IAuthService {
       String accessToken = jwtTokenProvider.generateAccessToken(user);
       String refreshToken = jwtTokenProvider.generateRefreshToken(user);
 
+      success = true;
       return new TokenResponse(accessToken, refreshToken);
 
+    } catch (APIException e) {
+      throw e;
     } catch (Exception e) {
       throw new APIException("Đăng nhập Google thất bại: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    } finally {
+      recordLogin(sample, "google", success);
     }
   }
 
+  private void recordLogin(Timer.Sample sample, String method, boolean success) {
+    sample.stop(meterRegistry.timer("auth.login", "method", method, "outcome", success ? "success" : "failure"));
+  }
+
   public TokenResponse refreshToken(String refreshToken) {
-    if (!jwtTokenProvider.validateToken(refreshToken)) {
+    if (!jwtTokenProvider.validateToken(refreshToken) || revocationStore.isRevoked(refreshToken)) {
       throw new APIException("Refresh token không hợp lệ", HttpStatus.UNAUTHORIZED);
     }
 
@@ -145,10 +155,13 @@ public class AuthService implements IAuthService {
   }
 
   public void logout(String token) {
-    blacklistedTokens.add(token);
+    verifiedTokenCache.invalidate(token);
+    // A forged or already expired token grants nothing, so there is nothing to revoke
+    jwtTokenProvider.authenticate(token)
+        .ifPresent(principal -> revocationStore.revoke(token, principal.userId(), principal.expiresAt()));
   }
 
   public boolean isTokenBlacklisted(String token) {
-    return blacklistedTokens.contains(token);
+    return revocationStore.isRevoked(token);
   }
 }
@@ -1,104 +1,80 @@
 package ut.aesp.service.Impl;
 
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.AccessLevel;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import ut.aesp.model.AiPracticeSession;
-import ut.aesp.model.LearnerProfile;
-import ut.aesp.repository.AiPracticeSessionRepository;
+import org.springframework.transaction.annotation.Transactional;
+import ut.aesp.dto.leaderboard.LeaderboardEntryResponse;
+import ut.aesp.dto.leaderboard.LeaderboardRow;
+import ut.aesp.exception.ResourceNotFoundException;
 import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.service.leaderboard.LeaderboardIndex;
+import ut.aesp.service.leaderboard.LeaderboardWindow;
 
 import java.time.LocalDateTime;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class LeaderboardService {
+  // Only used as a bind value when the filter is "all"; the query ignores it then
+  private static final LocalDateTime ALL_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+
   private final LearnerProfileRepository learnerProfileRepository;
-  private final AiPracticeSessionRepository sessionRepository;
+  private final LeaderboardIndex leaderboardIndex;
+  // "memory" serves reads from LeaderboardIndex once it is built, "sql" always queries the database
+  private final boolean memoryMode;
 
-  public List<Map<String, Object>> getLeaderboard(String filter, int limit) {
-    List<LearnerProfile> allLearners = learnerProfileRepository.findAll();
-    
-    LocalDateTime startDate = getStartDate(filter);
-    
-    List<Map<String, Object>> leaderboard = allLearners.stream()
-        .map(learner -> {
-          List<AiPracticeSession> sessions = startDate != null
-              ? sessionRepository.findAllByLearnerIdAndCreatedAtAfter(learner.getId(), startDate)
-              : sessionRepository.findAllByLearnerId(learner.getId());
-          
-          int streak = calculateStreak(sessions);
-          
-          Map<String, Object> entry = new HashMap<>();
-          entry.put("learnerId", learner.getId());
-          entry.put("learnerName", learner.getUser() != null ? learner.getUser().getName() : learner.getName());
-          entry.put("aiScore", learner.getAiScore() != null ? learner.getAiScore() : 0.0f);
-          entry.put("totalSessions", sessions.size());
-          entry.put("streak", streak);
-          
-          return entry;
-        })
-        .sorted((a, b) -> {
-          Float scoreA = ((Float) a.get("aiScore"));
-          Float scoreB = ((Float) b.get("aiScore"));
-          return Float.compare(scoreB, scoreA);
-        })
-        .limit(limit)
-        .collect(Collectors.toList());
-    
-    // Add rank
-    for (int i = 0; i < leaderboard.size(); i++) {
-      leaderboard.get(i).put("rank", i + 1);
-    }
-    
-    return leaderboard;
+  public LeaderboardService(LearnerProfileRepository learnerProfileRepository,
+      LeaderboardIndex leaderboardIndex,
+      @Value("${app.leaderboard.mode:memory}") String mode) {
+    this.learnerProfileRepository = learnerProfileRepository;
+    this.leaderboardIndex = leaderboardIndex;
+    this.memoryMode = "memory".equalsIgnoreCase(mode);
   }
 
-  private LocalDateTime getStartDate(String filter) {
-    switch (filter.toLowerCase()) {
-      case "weekly":
-        return LocalDateTime.now().minusWeeks(1);
-      case "monthly":
-        return LocalDateTime.now().minusMonths(1);
-      default:
-        return null; // All time
+  @Transactional(readOnly = true)
+  public List<LeaderboardEntryResponse> getLeaderboard(String filter, int limit) {
+    LeaderboardWindow window = LeaderboardWindow.from(filter);
+    if (memoryMode && leaderboardIndex.isReady()) {
+      return leaderboardIndex.top(window, Math.max(limit, 0));
     }
+
+    LocalDateTime startDate = window.startFrom(LocalDateTime.now());
+    return learnerProfileRepository.findLeaderboard(
+            startDate == null,
+            startDate != null ? startDate : ALL_TIME,
+            Math.max(limit, 0))
+        .stream()
+        .map(this::toResponse)
+        .toList();
   }
 
-  private int calculateStreak(List<AiPracticeSession> sessions) {
-    if (sessions.isEmpty()) return 0;
-    
-    // Sort by date descending
-    List<AiPracticeSession> sorted = sessions.stream()
-        .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-        .collect(Collectors.toList());
-    
-    int streak = 0;
-    LocalDateTime lastDate = null;
-    
-    for (AiPracticeSession session : sorted) {
-      LocalDateTime sessionDate = session.getCreatedAt().toLocalDate().atStartOfDay();
-      
-      if (lastDate == null) {
-        lastDate = sessionDate;
-        streak = 1;
-      } else {
-        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(sessionDate, lastDate);
-        if (daysBetween == 1) {
-          streak++;
-          lastDate = sessionDate;
-        } else if (daysBetween > 1) {
-          break;
-        }
-      }
+  @Transactional(readOnly = true)
+  public LeaderboardEntryResponse getLearnerEntry(Long learnerId, String filter) {
+    LeaderboardWindow window = LeaderboardWindow.from(filter);
+    if (memoryMode && leaderboardIndex.isReady()) {
+      return leaderboardIndex.entryFor(learnerId, window)
+          .orElseThrow(() -> new ResourceNotFoundException("LeaderboardEntry", "learnerId", learnerId));
     }
-    
-    return streak;
-  }
-}
 
+    LocalDateTime startDate = window.startFrom(LocalDateTime.now());
+    return learnerProfileRepository.findLeaderboardEntry(
+            learnerId,
+            startDate == null,
+            startDate != null ? startDate : ALL_TIME)
+        .map(this::toResponse)
+        .orElseThrow(() -> new ResourceNotFoundException("LeaderboardEntry", "learnerId", learnerId));
+  }
 
+  private LeaderboardEntryResponse toResponse(LeaderboardRow row) {
+    return new LeaderboardEntryResponse(
+        row.getRank().intValue(),
+        row.getLearnerId().longValue(),
+        row.getLearnerName(),
+        row.getAiScore() != null ? row.getAiScore().floatValue() : 0.0f,
+        row.getTotalSessions() != null ? row.getTotalSessions().intValue() : 0,
+        row.getStreak() != null ? row.getStreak().intValue() : 0);
+  }
+}
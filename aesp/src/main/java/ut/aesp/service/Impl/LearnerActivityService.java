@@ -0,0 +1,122 @@
+package ut.aesp.service.Impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ut.aesp.dto.learner.LearnerActivitySummaryResponse;
+import ut.aesp.dto.learner.LearnerDailyActivityResponse;
+import ut.aesp.event.PracticeSessionRecordedEvent;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.model.LearnerDailyActivity;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.repository.LearnerDailyActivityRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.service.ILearnerActivityService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps learner_daily_activity and the streak columns on learner_profiles in step with
+ * ai_practice_sessions, so streak and per-day stats are read from small precomputed rows
+ * instead of scanning the session history.
+ */
+@Slf4j
+@Service
+public class LearnerActivityService implements ILearnerActivityService {
+
+  private static final int MAX_DAYS = 366;
+
+  private final LearnerDailyActivityRepository dailyActivityRepository;
+  private final LearnerProfileRepository learnerProfileRepository;
+  private final boolean backfillOnStartup;
+
+  public LearnerActivityService(LearnerDailyActivityRepository dailyActivityRepository,
+      LearnerProfileRepository learnerProfileRepository,
+      @Value("${app.activity.backfill-on-startup:false}") boolean backfillOnStartup) {
+    this.dailyActivityRepository = dailyActivityRepository;
+    this.learnerProfileRepository = learnerProfileRepository;
+    this.backfillOnStartup = backfillOnStartup;
+  }
+
+  /**
+   * Runs after the session insert commits, in its own transaction, so a rollup failure never
+   * rolls back the session itself; the next backfill repairs any row that was missed.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void onSessionRecorded(PracticeSessionRecordedEvent event) {
+    if (event.learnerId() == null) {
+      return;
+    }
+    LocalDate day = (event.createdAt() != null ? event.createdAt() : LocalDateTime.now()).toLocalDate();
+    try {
+      dailyActivityRepository.recordSession(event.learnerId(), day,
+          event.pronunciationScore(), event.grammarScore(), event.vocabularyScore());
+      learnerProfileRepository.recordPracticeDay(event.learnerId(), day);
+    } catch (Exception e) {
+      log.error("[Activity] Failed to record session {} for learner {}", event.sessionId(), event.learnerId(), e);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public LearnerActivitySummaryResponse getActivity(Long learnerId, int days) {
+    LearnerProfile learner = learnerProfileRepository.findById(learnerId)
+        .orElseThrow(() -> new ResourceNotFoundException("LearnerProfile", "id", learnerId));
+
+    LocalDate today = LocalDate.now();
+    int range = Math.min(Math.max(days, 1), MAX_DAYS);
+    List<LearnerDailyActivity> rows = dailyActivityRepository
+        .findAllByLearnerIdAndDayBetweenOrderByDay(learnerId, today.minusDays(range - 1L), today);
+
+    LocalDate weekStart = today.minusDays(6);
+    int sessionsLast7Days = rows.stream()
+        .filter(row -> !row.getDay().isBefore(weekStart))
+        .mapToInt(row -> row.getSessionCount() != null ? row.getSessionCount() : 0)
+        .sum();
+
+    List<LearnerDailyActivityResponse> dayResponses = rows.stream()
+        .map(row -> new LearnerDailyActivityResponse(row.getDay(), row.getSessionCount(),
+            row.getAvgPronunciation(), row.getAvgGrammar(), row.getAvgVocabulary()))
+        .toList();
+
+    return new LearnerActivitySummaryResponse(
+        learnerId,
+        learner.getCurrentStreak() != null ? learner.getCurrentStreak() : 0,
+        learner.getLongestStreak() != null ? learner.getLongestStreak() : 0,
+        learner.getLastPracticeDate(),
+        sessionsLast7Days,
+        dayResponses);
+  }
+
+  @Override
+  @Transactional
+  @Scheduled(cron = "${app.activity.backfill-cron:-}")
+  public void backfill() {
+    long start = System.currentTimeMillis();
+    int dayRows = dailyActivityRepository.backfillFromSessions();
+    int learners = learnerProfileRepository.backfillStreaks();
+    log.info("[Activity] Backfill upserted {} day rows, refreshed {} learner streaks in {} ms",
+        dayRows, learners, System.currentTimeMillis() - start);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    if (!backfillOnStartup) {
+      return;
+    }
+    try {
+      backfill();
+    } catch (Exception e) {
+      log.error("[Activity] Startup backfill failed", e);
+    }
+  }
+}
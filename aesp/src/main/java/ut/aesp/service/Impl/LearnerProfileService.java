@@ -3,6 +3,7 @@ package ut.aesp.service.Impl;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ut.aesp.dto.learner.LearnerProfileRequest;
 import ut.aesp.dto.learner.LearnerProfileResponse;
 import ut.aesp.dto.learner.LearnerProfileUpdate;
+import ut.aesp.event.LearnerProfileChangedEvent;
 import ut.aesp.exception.ResourceNotFoundException;
 import ut.aesp.mapper.LearnerProfileMapper;
 import ut.aesp.model.LearnerProfile;
@@ -26,6 +28,7 @@ public class LearnerProfileService implements ILearnerProfileService {
   private final LearnerProfileRepository repo;
   private final LearnerProfileMapper mapper;
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Override
   public LearnerProfileResponse create(LearnerProfileRequest payload) {
@@ -35,6 +38,7 @@ public class LearnerProfileService implements ILearnerProfileService {
     LearnerProfile entity = mapper.toEntity(payload);
     entity.setUser(user);
     var saved = repo.save(entity);
+    publishChanged(saved, false);
     return mapper.toResponse(saved);
   }
 
@@ -63,6 +67,7 @@ public class LearnerProfileService implements ILearnerProfileService {
       entity.setTotalPracticeMinutes(payload.getTotalPracticeMinutes());
 
     var updated = repo.save(entity);
+    publishChanged(updated, false);
     return mapper.toResponse(updated);
   }
 
@@ -70,6 +75,7 @@ public class LearnerProfileService implements ILearnerProfileService {
   public void delete(Long id) {
     var entity = repo.findById(id).orElseThrow(() -> new ResourceNotFoundException("LearnerProfile", "id", id));
     repo.delete(entity);
+    publishChanged(entity, true);
   }
 
   @Override
@@ -99,7 +105,13 @@ public class LearnerProfileService implements ILearnerProfileService {
     // Preserve other fields like aiScore, pronunciationScore, totalPracticeMinutes
 
     var saved = repo.save(entity);
+    publishChanged(saved, false);
     return mapper.toResponse(saved);
   }
 
+  private void publishChanged(LearnerProfile profile, boolean deleted) {
+    String name = profile.getUser() != null ? profile.getUser().getName() : profile.getName();
+    eventPublisher.publishEvent(new LearnerProfileChangedEvent(profile.getId(), name, profile.getAiScore(), deleted));
+  }
+
 }
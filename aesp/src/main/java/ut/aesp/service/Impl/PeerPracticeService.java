@@ -4,20 +4,34 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.AccessLevel;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ut.aesp.dto.peer.PeerPracticeRequest;
 import ut.aesp.dto.peer.PeerPracticeResponse;
 import ut.aesp.enums.EnglishLevel;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.LearnerAlreadyBookedException;
 import ut.aesp.exception.ResourceNotFoundException;
 import ut.aesp.model.LearnerProfile;
 import ut.aesp.model.PeerPracticeSession;
+import ut.aesp.repository.ActivePeerLearnerRepository;
 import ut.aesp.repository.LearnerProfileRepository;
 import ut.aesp.repository.PeerPracticeSessionRepository;
 import ut.aesp.service.IPeerPracticeService;
+import ut.aesp.service.peer.MatchmakingQueue;
+import ut.aesp.service.peer.PeerSessionAccess;
+import ut.aesp.service.peer.PeerSessionEvaluator;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,51 +41,74 @@ import java.util.stream.Collectors;
 @Transactional
 public class PeerPracticeService implements IPeerPracticeService {
 
+  public static final String WAITING = "WAITING";
+  // Matched sessions are pushed to /topic/peer-practice.match.{learnerId}
+  public static final String MATCH_TOPIC = "/topic/peer-practice.match.";
+
   private final PeerPracticeSessionRepository sessionRepository;
   private final LearnerProfileRepository learnerProfileRepository;
+  private final MatchmakingQueue matchmakingQueue;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final ActivePeerLearnerRepository activePeerLearnerRepository;
+  private final PeerSessionEvaluator sessionEvaluator;
+  private final PeerSessionAccess sessionAccess;
 
   @Override
   public PeerPracticeResponse findMatch(Long learnerId, PeerPracticeRequest request) {
     LearnerProfile learner = learnerProfileRepository.findById(learnerId)
         .orElseThrow(() -> new ResourceNotFoundException("LearnerProfile", "id", learnerId));
 
-    // Find available learners with similar level
-    EnglishLevel targetLevel = request.getPreferredLevel() != null
-        ? EnglishLevel.valueOf(request.getPreferredLevel())
-        : learner.getEnglishLevel();
-
-    List<LearnerProfile> availableLearners = learnerProfileRepository.findAll().stream()
-        .filter(l -> !l.getId().equals(learnerId))
-        .filter(l -> {
-          // Check if learner has active session
-          List<PeerPracticeSession> activeSessions = sessionRepository
-              .findAllByLearner1IdOrLearner2Id(l.getId(), l.getId())
-              .stream()
-              .filter(s -> s.getStatus() == PeerPracticeSession.SessionStatus.ACTIVE)
-              .toList();
-          return activeSessions.isEmpty();
-        })
-        .filter(l -> {
-          // Match by similar level (same level or adjacent)
-          EnglishLevel lLevel = l.getEnglishLevel();
-          if (lLevel == null) return false;
-          return lLevel == targetLevel
-              || (targetLevel == EnglishLevel.BEGINNER && lLevel == EnglishLevel.INTERMEDIATE)
-              || (targetLevel == EnglishLevel.INTERMEDIATE && (lLevel == EnglishLevel.BEGINNER || lLevel == EnglishLevel.ADVANCED))
-              || (targetLevel == EnglishLevel.ADVANCED && lLevel == EnglishLevel.INTERMEDIATE);
-        })
-        .limit(10)
-        .collect(Collectors.toList());
+    if (activePeerLearnerRepository.existsById(learnerId)) {
+      throw new APIException("You already have an active peer practice session", HttpStatus.CONFLICT);
+    }
+
+    EnglishLevel targetLevel = resolveLevel(learner, request.getPreferredLevel());
+    MatchmakingQueue.Ticket ticket = new MatchmakingQueue.Ticket(
+        learnerId, targetLevel, request.getTopic(), request.getScenario(), Instant.now());
 
-    if (availableLearners.isEmpty()) {
-      throw new RuntimeException("No matching partner found. Please try again later.");
+    Optional<MatchmakingQueue.Ticket> partner = matchmakingQueue.matchOrEnqueue(ticket);
+    if (partner.isEmpty()) {
+      log.debug("[PeerMatch] Learner {} waiting in {}/{}", learnerId, targetLevel, request.getTopic());
+      return waitingResponse(learner, request);
     }
 
-    // Select first available learner (can be improved with better matching algorithm)
-    LearnerProfile partner = availableLearners.get(0);
+    // The partner queued first, so they are learner1 and their topic/scenario are used
+    PeerPracticeRequest sessionRequest = new PeerPracticeRequest(
+        partner.get().topic(), partner.get().scenario(), null, request.getEnableAiFeedback());
+    try {
+      PeerPracticeResponse response = createSession(partner.get().learnerId(), learnerId, sessionRequest);
+      notifyMatched(partner.get().learnerId(), response);
+      return response;
+    } catch (LearnerAlreadyBookedException e) {
+      // Drop the partner only if they are the one booked elsewhere; if it is the requester
+      // (e.g. a stale ticket the sweeper paired meanwhile), the partner is still free
+      if (!partner.get().learnerId().equals(e.getLearnerId())) {
+        matchmakingQueue.requeue(partner.get());
+      }
+      throw e;
+    } catch (RuntimeException e) {
+      matchmakingQueue.requeue(partner.get());
+      throw e;
+    }
+  }
 
-    // Create session
-    return createSession(learnerId, partner.getId(), request);
+  /**
+   * Create the session for a pair formed by the widening sweep and notify both learners
+   */
+  public PeerPracticeResponse startMatchedSession(MatchmakingQueue.Pair pair) {
+    PeerPracticeRequest sessionRequest = new PeerPracticeRequest(
+        pair.first().topic(), pair.first().scenario(), null, true);
+    PeerPracticeResponse response = createSession(pair.first().learnerId(), pair.second().learnerId(), sessionRequest);
+    notifyMatched(pair.first().learnerId(), response);
+    notifyMatched(pair.second().learnerId(), response);
+    return response;
+  }
+
+  @Override
+  public void cancelMatch(Long learnerId) {
+    if (!matchmakingQueue.cancel(learnerId)) {
+      throw new ResourceNotFoundException("MatchmakingTicket", "learnerId", learnerId);
+    }
   }
 
   @Override
@@ -90,6 +127,7 @@ public class PeerPracticeService implements IPeerPracticeService {
     session.setStatus(PeerPracticeSession.SessionStatus.ACTIVE);
 
     PeerPracticeSession saved = sessionRepository.save(session);
+    bookLearners(saved.getId(), learner1Id, learner2Id);
 
     return toResponse(saved);
   }
@@ -107,12 +145,17 @@ public class PeerPracticeService implements IPeerPracticeService {
 
   @Override
   public void endSession(Long sessionId, Long learnerId) {
-    PeerPracticeSession session = sessionRepository.findById(sessionId)
+    // Locked so two concurrent "end" calls cannot both see ACTIVE
+    PeerPracticeSession session = sessionRepository.findByIdForUpdate(sessionId)
         .orElseThrow(() -> new ResourceNotFoundException("PeerPracticeSession", "id", sessionId));
 
     if (!session.getLearner1().getId().equals(learnerId) && !session.getLearner2().getId().equals(learnerId)) {
       throw new RuntimeException("You are not authorized to end this session");
     }
+    // Ending twice must not move endTime or evaluate the conversation again
+    if (session.getStatus() != PeerPracticeSession.SessionStatus.ACTIVE) {
+      throw new APIException("Peer practice session is already " + session.getStatus(), HttpStatus.CONFLICT);
+    }
 
     session.setEndTime(LocalDateTime.now());
     if (session.getStartTime() != null && session.getEndTime() != null) {
@@ -121,6 +164,9 @@ public class PeerPracticeService implements IPeerPracticeService {
     }
     session.setStatus(PeerPracticeSession.SessionStatus.COMPLETED);
     sessionRepository.save(session);
+    activePeerLearnerRepository.releaseSession(sessionId);
+    sessionAccess.invalidate(sessionId);
+    afterCommit(() -> sessionEvaluator.evaluateAsync(sessionId));
   }
 
   @Override
@@ -131,6 +177,67 @@ public class PeerPracticeService implements IPeerPracticeService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Insert the "one active session per learner" guard rows, lowest id first so two bookings
+   * touching the same learners always lock rows in the same order. A duplicate key means one
+   * of them was booked concurrently; the exception names that learner and rolls back the
+   * whole session.
+   */
+  private void bookLearners(Long sessionId, Long learner1Id, Long learner2Id) {
+    book(Math.min(learner1Id, learner2Id), sessionId);
+    book(Math.max(learner1Id, learner2Id), sessionId);
+  }
+
+  private void book(Long learnerId, Long sessionId) {
+    try {
+      activePeerLearnerRepository.book(learnerId, sessionId);
+    } catch (DataIntegrityViolationException e) {
+      log.warn("[PeerMatch] Double booking prevented for learner {} in session {}", learnerId, sessionId);
+      throw new LearnerAlreadyBookedException(learnerId);
+    }
+  }
+
+  private EnglishLevel resolveLevel(LearnerProfile learner, String preferredLevel) {
+    if (preferredLevel != null && !preferredLevel.isBlank()) {
+      try {
+        return EnglishLevel.valueOf(preferredLevel.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new APIException("Invalid preferredLevel: " + preferredLevel, HttpStatus.BAD_REQUEST);
+      }
+    }
+    // Learners without a placement start in the middle bucket, which neighbours both others
+    return learner.getEnglishLevel() != null ? learner.getEnglishLevel() : EnglishLevel.INTERMEDIATE;
+  }
+
+  private PeerPracticeResponse waitingResponse(LearnerProfile learner, PeerPracticeRequest request) {
+    PeerPracticeResponse response = new PeerPracticeResponse();
+    response.setLearner1Id(learner.getId());
+    response.setLearner1Name(learner.getUser() != null ? learner.getUser().getName() : learner.getName());
+    response.setTopic(request.getTopic());
+    response.setScenario(request.getScenario());
+    response.setStatus(WAITING);
+    response.setWebsocketUrl(MATCH_TOPIC + learner.getId());
+    return response;
+  }
+
+  // Sent once the surrounding transaction commits so the client never sees an uncommitted session
+  private void notifyMatched(Long learnerId, PeerPracticeResponse response) {
+    afterCommit(() -> messagingTemplate.convertAndSend(MATCH_TOPIC + learnerId, response));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
   private PeerPracticeResponse toResponse(PeerPracticeSession session) {
     PeerPracticeResponse response = new PeerPracticeResponse();
     response.setId(session.getId());
@@ -0,0 +1,71 @@
+package ut.aesp.service.Impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import ut.aesp.dto.tts.TtsRequest;
+import ut.aesp.dto.tts.TtsResponse;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.service.ITtsService;
+import ut.aesp.service.tts.TtsAudioCache;
+import ut.aesp.service.tts.TtsClip;
+
+@Slf4j
+@Service
+public class TtsService implements ITtsService {
+
+  public static final String AUDIO_PATH = "/api/v1/tts/audio/";
+
+  private final TtsAudioCache audioCache;
+  private final int maxChars;
+  private final boolean feedbackEnabled;
+  private final String feedbackVoice;
+
+  public TtsService(TtsAudioCache audioCache,
+      @Value("${app.tts.max-chars:2000}") int maxChars,
+      @Value("${app.tts.feedback.enabled:false}") boolean feedbackEnabled,
+      @Value("${app.tts.feedback.voice:}") String feedbackVoice) {
+    this.audioCache = audioCache;
+    this.maxChars = maxChars;
+    this.feedbackEnabled = feedbackEnabled;
+    this.feedbackVoice = feedbackVoice.isBlank() ? null : feedbackVoice;
+  }
+
+  @Override
+  public TtsResponse speak(TtsRequest request) {
+    if (request.getText() == null || request.getText().isBlank()) {
+      throw new APIException("text is required", HttpStatus.BAD_REQUEST);
+    }
+    if (request.getText().length() > maxChars) {
+      throw new APIException("text exceeds " + maxChars + " characters", HttpStatus.BAD_REQUEST);
+    }
+    return toResponse(audioCache.getOrSynthesize(request.getText(), request.getVoice()));
+  }
+
+  @Override
+  public String feedbackAudioUrl(String feedback) {
+    if (!feedbackEnabled || feedback == null || feedback.isBlank()) {
+      return null;
+    }
+    try {
+      String text = feedback.length() > maxChars ? feedback.substring(0, maxChars) : feedback;
+      return AUDIO_PATH + audioCache.getOrSynthesize(text, feedbackVoice).key();
+    } catch (RuntimeException e) {
+      // Spoken feedback is an extra; the evaluation is returned without it
+      log.warn("[TTS] Could not synthesize feedback: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public TtsClip audio(String key) {
+    return audioCache.find(key)
+        .orElseThrow(() -> new ResourceNotFoundException("TtsAudio", "key", key));
+  }
+
+  private static TtsResponse toResponse(TtsClip clip) {
+    return new TtsResponse(clip.key(), AUDIO_PATH + clip.key(), clip.mimeType(), clip.sizeBytes());
+  }
+}
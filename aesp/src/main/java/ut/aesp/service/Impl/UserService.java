@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 
 import java.time.LocalDateTime;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -17,10 +18,13 @@ import ut.aesp.dto.user.CreateUserRequest;
 import ut.aesp.dto.user.UserResponse;
 import ut.aesp.dto.user.UserUpdate;
 import ut.aesp.enums.UserStatus;
+import ut.aesp.event.LearnerProfileChangedEvent;
+import ut.aesp.event.UserAccessChangedEvent;
 import ut.aesp.exception.APIException;
 import ut.aesp.exception.ResourceNotFoundException;
 import ut.aesp.mapper.UserMapper;
 import ut.aesp.model.User;
+import ut.aesp.repository.LearnerProfileRepository;
 import ut.aesp.repository.UserRepository;
 import ut.aesp.service.IUserService;
 import ut.aesp.enums.UserRole;
@@ -34,7 +38,9 @@ public class UserService implements IUserService {
 
   private final UserMapper userMapper;
   private final UserRepository userRepository;
+  private final LearnerProfileRepository learnerProfileRepository;
   private final PasswordEncoder passwordEncoder;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Override
   public UserResponse createUser(CreateUserRequest payload) {
@@ -96,21 +102,36 @@ public class UserService implements IUserService {
     User u = userRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
 
+    boolean nameChanged = payload.getName() != null && !payload.getName().equals(u.getName());
     if (payload.getName() != null)
       u.setName(payload.getName());
     if (payload.getAvatarUrl() != null)
       u.setAvatarUrl(payload.getAvatarUrl());
 
+    boolean accessChanged = false;
     if (payload.getPassword() != null && !payload.getPassword().isEmpty()) {
       u.setPassword(passwordEncoder.encode(payload.getPassword()));
+      accessChanged = true;
     }
     u.setUpdatedAt(LocalDateTime.now());
-    if (payload.getRole() != null)
+    if (payload.getRole() != null && payload.getRole() != u.getRole()) {
       u.setRole(payload.getRole());
+      accessChanged = true;
+    }
     // Only update status if provided, preserve existing status
-    if (payload.getStatus() != null)
+    if (payload.getStatus() != null && payload.getStatus() != u.getStatus()) {
       u.setStatus(payload.getStatus());
+      accessChanged = true;
+    }
     User updated = userRepository.save(u);
+    if (accessChanged) {
+      eventPublisher.publishEvent(new UserAccessChangedEvent(id));
+    }
+    if (nameChanged) {
+      // The leaderboard shows the account name of learners
+      learnerProfileRepository.findByUserId(id).ifPresent(profile -> eventPublisher.publishEvent(
+          new LearnerProfileChangedEvent(profile.getId(), updated.getName(), profile.getAiScore(), false)));
+    }
     return userMapper.toResponse(updated);
   }
 
@@ -123,6 +144,7 @@ public class UserService implements IUserService {
     u.setStatus(UserStatus.DISABLED);
 
     userRepository.save(u);
+    eventPublisher.publishEvent(new UserAccessChangedEvent(id));
   }
 
   @Override
@@ -0,0 +1,141 @@
+package ut.aesp.service.ai;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared outbound HTTP transport for AI providers: one HTTP/2 client (requests to the same
+ * host are multiplexed over a pooled, kept-alive TLS connection), a bounded executor,
+ * connect/request timeouts, an idle deadline on response bodies, gzip responses, and an
+ * ai.http.client.requests latency histogram per operation and status.
+ * The pool's keep-alive is the JVM-wide jdk.httpclient.keepalive.timeout system property,
+ * set at startup (see application.properties), not here.
+ */
+@Slf4j
+@Component
+public class AiHttpTransport {
+
+  private final HttpClient httpClient;
+  private final ExecutorService executor;
+  private final ScheduledExecutorService watchdog;
+  private final Duration requestTimeout;
+  private final long readIdleTimeoutMs;
+  private final MeterRegistry meterRegistry;
+
+  public AiHttpTransport(MeterRegistry meterRegistry,
+      @Value("${ai.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+      @Value("${ai.http.request-timeout-ms:60000}") long requestTimeoutMs,
+      @Value("${ai.http.read-idle-timeout-ms:30000}") long readIdleTimeoutMs,
+      @Value("${ai.http.executor-threads:8}") int executorThreads) {
+    this.meterRegistry = meterRegistry;
+    this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    this.readIdleTimeoutMs = Math.max(1, readIdleTimeoutMs);
+    ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread t = new Thread(r, "ai-http-watchdog");
+      t.setDaemon(true);
+      return t;
+    });
+    // One timeout is armed per read; cancelled ones must not pile up in the queue
+    watchdog.setRemoveOnCancelPolicy(true);
+    this.watchdog = watchdog;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(Math.max(1, executorThreads), r -> {
+      Thread t = new Thread(r, "ai-http-" + threadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .executor(executor)
+        .build();
+    log.info("[AiHttp] HTTP/2 client ready (connect {} ms, request {} ms, read idle {} ms, {} threads)",
+        connectTimeoutMs, requestTimeoutMs, this.readIdleTimeoutMs, executorThreads);
+  }
+
+  /**
+   * Request builder with the default timeout and gzip negotiation already set
+   */
+  public HttpRequest.Builder newRequest(URI uri) {
+    return HttpRequest.newBuilder()
+        .uri(uri)
+        .timeout(requestTimeout)
+        .header("Accept-Encoding", "gzip");
+  }
+
+  /**
+   * Send and return the raw response; read it through {@link #body}. The request timeout
+   * covers the time until response headers arrive, as does the latency sample; after that a
+   * read that sees no data for ai.http.read-idle-timeout-ms fails, so a stalled body or
+   * stream cannot hold the calling thread.
+   */
+  public HttpResponse<InputStream> send(String operation, HttpRequest request)
+      throws IOException, InterruptedException {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String status = "IO_ERROR";
+    try {
+      HttpResponse<InputStream> response = httpClient.send(request, info -> HttpResponse.BodySubscribers.mapping(
+          HttpResponse.BodySubscribers.ofInputStream(),
+          in -> new IdleTimeoutInputStream(in, watchdog, readIdleTimeoutMs)));
+      status = String.valueOf(response.statusCode());
+      return response;
+    } finally {
+      sample.stop(Timer.builder("ai.http.client.requests")
+          .tag("operation", operation)
+          .tag("status", status)
+          .publishPercentileHistogram()
+          .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Response body, gunzipped when the server compressed it. The caller must close it.
+   * Unwrapped here on the caller's thread, since building a GZIPInputStream blocks
+   * on the header bytes and body subscribers must not block.
+   */
+  public static InputStream body(HttpResponse<InputStream> response) throws IOException {
+    boolean gzip = response.headers().firstValue("Content-Encoding")
+        .map(value -> value.toLowerCase(Locale.ROOT).contains("gzip"))
+        .orElse(false);
+    return gzip ? new GZIPInputStream(response.body()) : response.body();
+  }
+
+  public static String readString(HttpResponse<InputStream> response) throws IOException {
+    try (InputStream in = body(response)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    watchdog.shutdownNow();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
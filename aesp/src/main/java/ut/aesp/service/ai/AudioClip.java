@@ -0,0 +1,9 @@
+package ut.aesp.service.ai;
+
+import java.nio.file.Path;
+
+/**
+ * A finished recording on local disk, addressed by the SHA-256 of its bytes
+ */
+public record AudioClip(String contentHash, String mimeType, long sizeBytes, Integer durationSeconds, Path path) {
+}
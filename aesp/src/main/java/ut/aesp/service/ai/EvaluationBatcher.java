@@ -0,0 +1,210 @@
+package ut.aesp.service.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import ut.aesp.exception.APIException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent evaluation requests for up to {@code windowMs} or {@code maxBatchSize}
+ * items, sends them as one multi-item Gemini call and completes each caller's future with
+ * its own result. A batch of one is sent as a single call. When a batch fails, or its
+ * response has no result for some items, those items get one single attempt each without
+ * retries, and only while {@code fallbackAllowed} holds (the circuit is closed); otherwise
+ * they fail with the batch's error, so a rejected batch never multiplies into retries.
+ * At most {@code maxQueued} requests wait; beyond that callers are refused with a 503.
+ * A prompt has one feedback language, so a window holding several languages is sent as one
+ * call per language.
+ */
+@Slf4j
+class EvaluationBatcher implements AutoCloseable {
+
+  record Item(String speechText, String topic, String scenario, String targetLevel, String language,
+      CompletableFuture<SpeechEvaluation> result) {
+  }
+
+  /**
+   * Evaluates one item on its own; {@code retryable} is false for the fallback of a batch
+   */
+  @FunctionalInterface
+  interface SingleCall {
+    SpeechEvaluation evaluate(Item item, boolean retryable);
+  }
+
+  private final BlockingQueue<Item> queue;
+  private final int maxBatchSize;
+  private final long windowNanos;
+  private final Function<List<Item>, List<SpeechEvaluation>> batchCall;
+  private final SingleCall singleCall;
+  private final BooleanSupplier fallbackAllowed;
+  private final ExecutorService sender;
+  private final Semaphore senders;
+  private final Thread dispatcher;
+  private volatile boolean running = true;
+
+  EvaluationBatcher(int maxBatchSize, long windowMs, int maxInFlight, int maxQueued,
+      Function<List<Item>, List<SpeechEvaluation>> batchCall, SingleCall singleCall,
+      BooleanSupplier fallbackAllowed) {
+    this.queue = new LinkedBlockingQueue<>(Math.max(1, maxQueued));
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, windowMs));
+    this.batchCall = batchCall;
+    this.singleCall = singleCall;
+    this.fallbackAllowed = fallbackAllowed;
+    this.senders = new Semaphore(Math.max(1, maxInFlight));
+    AtomicInteger threadCount = new AtomicInteger();
+    this.sender = Executors.newFixedThreadPool(Math.max(1, maxInFlight), r -> {
+      Thread t = new Thread(r, "gemini-batch-" + threadCount.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.dispatcher = new Thread(this::dispatchLoop, "gemini-batch-dispatcher");
+    this.dispatcher.setDaemon(true);
+    this.dispatcher.start();
+  }
+
+  CompletableFuture<SpeechEvaluation> submit(String speechText, String topic, String scenario, String targetLevel,
+      String language) {
+    CompletableFuture<SpeechEvaluation> future = new CompletableFuture<>();
+    if (!running) {
+      future.completeExceptionally(new IllegalStateException("Evaluation batcher is shut down"));
+      return future;
+    }
+    if (!queue.offer(new Item(speechText, topic, scenario, targetLevel, language, future))) {
+      future.completeExceptionally(new APIException("Too many evaluations waiting, please retry shortly",
+          HttpStatus.SERVICE_UNAVAILABLE));
+    }
+    return future;
+  }
+
+  // A batch is only assembled once a sender is free, so a slow upstream backs up into the bounded queue
+  private void dispatchLoop() {
+    while (running) {
+      List<Item> batch = new ArrayList<>(maxBatchSize);
+      try {
+        senders.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          Item next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        senders.release();
+        batch.forEach(item -> item.result().completeExceptionally(
+            new IllegalStateException("Evaluation batcher is shut down")));
+        Thread.currentThread().interrupt();
+        return;
+      }
+      dispatch(batch);
+    }
+  }
+
+  private void dispatch(List<Item> batch) {
+    try {
+      sender.execute(() -> {
+        try {
+          for (List<Item> group : byLanguage(batch)) {
+            send(group);
+          }
+        } finally {
+          senders.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      senders.release();
+      batch.forEach(item -> item.result().completeExceptionally(e));
+    }
+  }
+
+  private static Collection<List<Item>> byLanguage(List<Item> batch) {
+    Map<String, List<Item>> groups = new LinkedHashMap<>();
+    for (Item item : batch) {
+      groups.computeIfAbsent(Objects.toString(item.language(), ""), language -> new ArrayList<>()).add(item);
+    }
+    return groups.values();
+  }
+
+  private void send(List<Item> batch) {
+    if (batch.size() == 1) {
+      sendSingle(batch.get(0), true);
+      return;
+    }
+
+    List<SpeechEvaluation> results;
+    try {
+      results = batchCall.apply(batch);
+    } catch (Exception e) {
+      log.warn("[GeminiBatch] Batch of {} failed: {}", batch.size(), e.getMessage());
+      batch.forEach(item -> fallBack(item, e));
+      return;
+    }
+
+    log.debug("[GeminiBatch] Sent batch of {}", batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      SpeechEvaluation result = i < results.size() ? results.get(i) : null;
+      if (result != null) {
+        batch.get(i).result().complete(result);
+      } else {
+        fallBack(batch.get(i), new IllegalStateException("Batch response has no result for this item"));
+      }
+    }
+  }
+
+  // Checked per item: once the circuit opens, the rest of the batch fails fast
+  private void fallBack(Item item, Exception cause) {
+    if (fallbackAllowed.getAsBoolean()) {
+      sendSingle(item, false);
+    } else {
+      item.result().completeExceptionally(cause);
+    }
+  }
+
+  private void sendSingle(Item item, boolean retryable) {
+    try {
+      item.result().complete(singleCall.evaluate(item, retryable));
+    } catch (Exception e) {
+      item.result().completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    dispatcher.interrupt();
+    sender.shutdown();
+    Item pending;
+    while ((pending = queue.poll()) != null) {
+      pending.result().completeExceptionally(new IllegalStateException("Evaluation batcher is shut down"));
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package ut.aesp.service.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ut.aesp.model.AiEvaluationCacheEntry;
+import ut.aesp.repository.AiEvaluationCacheRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed cache of Gemini evaluation results.
+ * L1 is an in-process Caffeine cache of decoded {@link SpeechEvaluation}s, L2 (optional) is
+ * the ai_evaluation_cache table, holding their JSON form, so warm entries survive a restart.
+ */
+@Slf4j
+@Component
+public class EvaluationCache {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final char SEPARATOR = '\u001F';
+
+  private final Cache<String, SpeechEvaluation> cache;
+  private final AiEvaluationCacheRepository repository;
+  private final boolean persistentEnabled;
+  private final long persistentTtlHours;
+  private final Counter persistentHits;
+  private final Counter persistentMisses;
+
+  public EvaluationCache(
+      AiEvaluationCacheRepository repository,
+      MeterRegistry meterRegistry,
+      @Value("${ai.evaluation.cache.spec:maximumSize=500,expireAfterWrite=10m}") String spec,
+      @Value("${ai.evaluation.cache.persistent.enabled:false}") boolean persistentEnabled,
+      @Value("${ai.evaluation.cache.persistent.ttl-hours:168}") long persistentTtlHours) {
+    this.repository = repository;
+    this.persistentEnabled = persistentEnabled;
+    this.persistentTtlHours = persistentTtlHours;
+    this.cache = Caffeine.from(CaffeineSpec.parse(spec)).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "aiEvaluation");
+    this.persistentHits = Counter.builder("ai.evaluation.cache.persistent")
+        .tag("result", "hit").register(meterRegistry);
+    this.persistentMisses = Counter.builder("ai.evaluation.cache.persistent")
+        .tag("result", "miss").register(meterRegistry);
+    log.info("[EvalCache] spec={}, persistent={}", spec, persistentEnabled);
+  }
+
+  /**
+   * Hash of the normalized inputs. Only case and whitespace are ignored: punctuation is
+   * kept, since "it's" and "its" or "don't" and "dont" are graded differently. {@code language} is the
+   * feedback language, resolved to a configured one.
+   */
+  public String key(String speechText, String topic, String scenario, String targetLevel, String language,
+      String model) {
+    StringBuilder sb = new StringBuilder(speechText != null ? speechText.length() + 64 : 64);
+    sb.append(normalize(speechText))
+        .append(SEPARATOR)
+        .append(normalize(topic)).append(SEPARATOR)
+        .append(normalize(scenario)).append(SEPARATOR)
+        .append(normalize(targetLevel)).append(SEPARATOR)
+        .append(normalize(language)).append(SEPARATOR)
+        .append(normalize(model));
+    return sha256(sb.toString());
+  }
+
+  /**
+   * Key for an evaluation that also heard the recording with the given content hash
+   */
+  public String key(String speechText, String topic, String scenario, String targetLevel, String language,
+      String model, String audioHash) {
+    String key = key(speechText, topic, scenario, targetLevel, language, model);
+    return audioHash == null ? key : sha256(key + SEPARATOR + audioHash);
+  }
+
+  /**
+   * Return the cached result for the key, or compute it, store it in both tiers and return it.
+   * The loader runs outside any cache lock so a slow Gemini call never blocks other keys;
+   * failures are not cached.
+   */
+  public SpeechEvaluation getOrCompute(String key, String model, Supplier<SpeechEvaluation> loader) {
+    SpeechEvaluation cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    if (persistentEnabled) {
+      Optional<SpeechEvaluation> stored = findPersistent(key).flatMap(this::decode);
+      if (stored.isPresent()) {
+        persistentHits.increment();
+        cache.put(key, stored.get());
+        return stored.get();
+      }
+      persistentMisses.increment();
+    }
+
+    SpeechEvaluation result = loader.get();
+    cache.put(key, result);
+    if (persistentEnabled) {
+      storePersistent(key, model, result);
+    }
+    return result;
+  }
+
+  /**
+   * Fallback lookup used while Gemini is unavailable: the in-process entry, or a persistent
+   * entry even if it has expired but has not been purged yet
+   */
+  public Optional<SpeechEvaluation> getStale(String key) {
+    SpeechEvaluation cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    if (!persistentEnabled) {
+      return Optional.empty();
+    }
+    try {
+      return repository.findById(key).flatMap(this::decode);
+    } catch (Exception e) {
+      log.warn("[EvalCache] Stale lookup failed", e);
+      return Optional.empty();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${ai.evaluation.cache.persistent.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    if (!persistentEnabled) {
+      return;
+    }
+    int removed = repository.deleteExpired(LocalDateTime.now());
+    if (removed > 0) {
+      log.info("[EvalCache] Purged {} expired persistent entries", removed);
+    }
+  }
+
+  private Optional<AiEvaluationCacheEntry> findPersistent(String key) {
+    try {
+      return repository.findByCacheKeyAndExpiresAtAfter(key, LocalDateTime.now());
+    } catch (Exception e) {
+      log.warn("[EvalCache] Persistent lookup failed, falling through to Gemini", e);
+      return Optional.empty();
+    }
+  }
+
+  private Optional<SpeechEvaluation> decode(AiEvaluationCacheEntry entry) {
+    try {
+      return Optional.of(GeminiResponseReader.readEvaluation(entry.getResult()));
+    } catch (Exception e) {
+      log.warn("[EvalCache] Ignoring undecodable persistent entry {}", entry.getCacheKey());
+      return Optional.empty();
+    }
+  }
+
+  private void storePersistent(String key, String model, SpeechEvaluation result) {
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      repository.save(new AiEvaluationCacheEntry(key, model, GeminiResponseReader.write(result), now,
+          now.plusHours(persistentTtlHours)));
+    } catch (Exception e) {
+      log.warn("[EvalCache] Failed to store persistent entry", e);
+    }
+  }
+
+  private static String normalize(String value) {
+    if (value == null) {
+      return "";
+    }
+    String folded = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+  }
+
+  private static String sha256(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
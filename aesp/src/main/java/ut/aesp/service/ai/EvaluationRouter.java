@@ -0,0 +1,203 @@
+package ut.aesp.service.ai;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ut.aesp.exception.APIException;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the evaluator for each call. {@code ai.evaluator.mode}:
+ * <ul>
+ * <li>local: always the in-process heuristics.</li>
+ * <li>remote: always Gemini.</li>
+ * <li>hybrid: Gemini, but if it has not answered within the latency budget the local result is
+ * returned instead. The remote call keeps running and fills the evaluation cache.</li>
+ * <li>auto (default): local while the circuit is open or when remote calls in flight reach
+ * {@code max-remote-in-flight}; hybrid while Gemini's recent latency (EWMA) exceeds the
+ * budget; remote otherwise.</li>
+ * </ul>
+ * A failed remote call always falls back to the local evaluator, so a session is never stored
+ * with zero scores because Gemini was unavailable. The exception is a bare recording with no
+ * transcript: the local heuristics cannot score it, so it always goes to Gemini and fails with
+ * 503 when Gemini cannot take it. {@link #stream} routes the same way, except that there is
+ * no hybrid race: a stream that is already emitting output is left to finish.
+ */
+@Slf4j
+@Component
+public class EvaluationRouter {
+
+  public enum Mode { LOCAL, REMOTE, HYBRID, AUTO }
+
+  /**
+   * The evaluation, the version of the engine that produced it and the route taken
+   */
+  public record Routed(SpeechEvaluation evaluation, String version, String route) {
+  }
+
+  private static final double EWMA_ALPHA = 0.2;
+
+  private final GeminiHttpClient remote;
+  private final SpeechEvaluator local;
+  private final GeminiGuard guard;
+  private final ThreadPoolTaskExecutor hybridExecutor;
+  private final MeterRegistry meterRegistry;
+  private final Mode mode;
+  private final long latencyBudgetMs;
+  private final int maxRemoteInFlight;
+  private final AtomicInteger remoteInFlight = new AtomicInteger();
+  private volatile double remoteLatencyMs;
+
+  public EvaluationRouter(GeminiHttpClient remote,
+      LocalSpeechEvaluator local,
+      GeminiGuard guard,
+      @Qualifier("aiHybridExecutor") ThreadPoolTaskExecutor hybridExecutor,
+      MeterRegistry meterRegistry,
+      @Value("${ai.evaluator.mode:auto}") String mode,
+      @Value("${ai.evaluator.latency-budget-ms:8000}") long latencyBudgetMs,
+      @Value("${ai.evaluator.max-remote-in-flight:32}") int maxRemoteInFlight) {
+    this.remote = remote;
+    this.local = local;
+    this.guard = guard;
+    this.hybridExecutor = hybridExecutor;
+    this.meterRegistry = meterRegistry;
+    this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    this.latencyBudgetMs = Math.max(1, latencyBudgetMs);
+    this.maxRemoteInFlight = Math.max(1, maxRemoteInFlight);
+    Gauge.builder("ai.evaluator.remote.in-flight", remoteInFlight, AtomicInteger::get).register(meterRegistry);
+    Gauge.builder("ai.evaluator.remote.latency.ewma", this, r -> r.remoteLatencyMs)
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+    log.info("[EvalRouter] mode={}, latency budget {} ms, max remote in flight {}", this.mode,
+        this.latencyBudgetMs, this.maxRemoteInFlight);
+  }
+
+  public Routed evaluate(SpeechInput input) {
+    if (audioOnly(input)) {
+      if (mode == Mode.LOCAL) {
+        throw new APIException("Audio-only evaluation needs Gemini, which is disabled", HttpStatus.SERVICE_UNAVAILABLE);
+      }
+      return remote(input);
+    }
+    return switch (choose(input)) {
+      case LOCAL -> local(input, "local");
+      case HYBRID -> hybrid(input);
+      default -> remote(input);
+    };
+  }
+
+  /**
+   * Like {@link #evaluate}, feeding Gemini's partial output to {@code onChunk} while it is
+   * generated. Recordings and local evaluations are not streamed: the result arrives whole.
+   */
+  public Routed stream(SpeechInput input, Consumer<String> onChunk) {
+    if (input.audio() != null) {
+      return evaluate(input);
+    }
+    if (choose(input) == Mode.LOCAL) {
+      return local(input, "local");
+    }
+    try {
+      SpeechEvaluation evaluation = timedRemote(() -> remote.streamEvaluateSpeech(input.speechText(),
+          input.topic(), input.scenario(), input.targetLevel(), input.language(), onChunk));
+      return routed(evaluation, remote.version(), "remote");
+    } catch (RuntimeException e) {
+      log.warn("[EvalRouter] Remote stream failed, using local evaluator: {}", e.getMessage());
+      return local(input, "fallback");
+    }
+  }
+
+  private Mode choose(SpeechInput input) {
+    if (mode != Mode.AUTO) {
+      return mode;
+    }
+    if (guard.state() == GeminiGuard.State.OPEN || remoteInFlight.get() >= maxRemoteInFlight) {
+      return Mode.LOCAL;
+    }
+    return remoteLatencyMs > latencyBudgetMs ? Mode.HYBRID : Mode.REMOTE;
+  }
+
+  private Routed remote(SpeechInput input) {
+    try {
+      return routed(timedRemote(input), remote.version(), "remote");
+    } catch (RuntimeException e) {
+      if (audioOnly(input)) {
+        if (e instanceof APIException api && api.getStatus().is4xxClientError()) {
+          throw api;
+        }
+        log.warn("[EvalRouter] Remote evaluation of an audio-only input failed: {}", e.getMessage());
+        throw new APIException("Speech evaluation is temporarily unavailable, please retry shortly",
+            HttpStatus.SERVICE_UNAVAILABLE);
+      }
+      log.warn("[EvalRouter] Remote evaluation failed, using local evaluator: {}", e.getMessage());
+      return local(input, "fallback");
+    }
+  }
+
+  private Routed hybrid(SpeechInput input) {
+    CompletableFuture<SpeechEvaluation> future;
+    try {
+      future = CompletableFuture.supplyAsync(() -> timedRemote(input), hybridExecutor);
+    } catch (RejectedExecutionException e) {
+      return local(input, "fallback");
+    }
+    try {
+      return routed(future.get(latencyBudgetMs, TimeUnit.MILLISECONDS), remote.version(), "remote");
+    } catch (TimeoutException e) {
+      log.debug("[EvalRouter] Remote evaluation exceeded {} ms, answering locally", latencyBudgetMs);
+      return local(input, "hybrid");
+    } catch (ExecutionException e) {
+      log.warn("[EvalRouter] Remote evaluation failed, using local evaluator: {}", e.getCause().getMessage());
+      return local(input, "fallback");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return local(input, "fallback");
+    }
+  }
+
+  private SpeechEvaluation timedRemote(SpeechInput input) {
+    return timedRemote(() -> remote.evaluate(input));
+  }
+
+  private SpeechEvaluation timedRemote(Supplier<SpeechEvaluation> call) {
+    remoteInFlight.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      SpeechEvaluation evaluation = call.get();
+      double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+      double previous = remoteLatencyMs;
+      remoteLatencyMs = previous == 0 ? elapsedMs : previous + EWMA_ALPHA * (elapsedMs - previous);
+      return evaluation;
+    } finally {
+      remoteInFlight.decrementAndGet();
+    }
+  }
+
+  // The local heuristics read transcripts only; a bare recording needs the model
+  private static boolean audioOnly(SpeechInput input) {
+    return input.audio() != null && (input.speechText() == null || input.speechText().isBlank());
+  }
+
+  private Routed local(SpeechInput input, String route) {
+    return routed(local.evaluate(input), local.version(), route);
+  }
+
+  private Routed routed(SpeechEvaluation evaluation, String version, String route) {
+    meterRegistry.counter("ai.evaluator.routed", "route", route).increment();
+    return new Routed(evaluation, version, route);
+  }
+}
@@ -0,0 +1,31 @@
+package ut.aesp.service.ai;
+
+/**
+ * Non-200 answer from the Gemini API. Carries the status (and Retry-After, when sent)
+ * so {@link GeminiGuard} can tell retryable failures from bad requests.
+ */
+public class GeminiApiException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  private final int statusCode;
+  private final long retryAfterMs;
+
+  public GeminiApiException(int statusCode, String message, long retryAfterMs) {
+    super("Gemini API error (" + statusCode + "): " + message);
+    this.statusCode = statusCode;
+    this.retryAfterMs = retryAfterMs;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public long getRetryAfterMs() {
+    return retryAfterMs;
+  }
+
+  public boolean isRetryable() {
+    return statusCode == 429 || statusCode == 500 || statusCode == 502
+        || statusCode == 503 || statusCode == 504;
+  }
+}
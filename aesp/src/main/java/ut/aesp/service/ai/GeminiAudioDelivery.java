@@ -0,0 +1,220 @@
+package ut.aesp.service.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attaches a learner recording to a generateContent request, in one of two ways:
+ * <ul>
+ * <li>inline: base64 {@code inlineData} inside the JSON body. The JSON is serialized with a
+ * placeholder and the file is base64-encoded from disk while the request body is sent, so
+ * the encoded audio is never held in memory.</li>
+ * <li>file: the recording is uploaded once to the Files API (streamed from disk) and
+ * referenced by {@code fileData.fileUri}. URIs are cached per content hash until shortly
+ * before Gemini deletes the file.</li>
+ * </ul>
+ * In auto mode recordings up to {@code inlineMaxBytes} go inline, larger ones by file.
+ */
+@Slf4j
+class GeminiAudioDelivery {
+
+  enum Mode { AUTO, INLINE, FILE }
+
+  // Never a valid base64 string, so it cannot collide with real content
+  static final String INLINE_PLACEHOLDER = "@@inline-audio@@";
+
+  private record UploadedFile(String uri, long expiresAt) {
+  }
+
+  // Gemini keeps uploaded files for 48 hours
+  private static final long FILE_TTL_MS = 47L * 3600 * 1000;
+  // Multiple of 3 so every chunk but the last encodes without padding
+  private static final int ENCODE_CHUNK_BYTES = 48 * 1024;
+
+  private final Map<String, UploadedFile> files = new ConcurrentHashMap<>();
+  private final AiHttpTransport transport;
+  private final ObjectMapper objectMapper;
+  private final GeminiGuard guard;
+  private final String uploadUrl;
+  private final String apiKey;
+  private final Mode mode;
+  private final long inlineMaxBytes;
+
+  GeminiAudioDelivery(AiHttpTransport transport, ObjectMapper objectMapper, GeminiGuard guard, String baseUrl,
+      String apiKey, Mode mode, long inlineMaxBytes) {
+    this.transport = transport;
+    this.objectMapper = objectMapper;
+    this.guard = guard;
+    // https://host/v1beta -> https://host/upload/v1beta/files
+    URI base = URI.create(baseUrl);
+    this.uploadUrl = base.getScheme() + "://" + base.getRawAuthority() + "/upload" + base.getRawPath() + "/files";
+    this.apiKey = apiKey;
+    this.mode = mode;
+    this.inlineMaxBytes = inlineMaxBytes;
+  }
+
+  /**
+   * The content part for the clip: fileData with an uploaded file's URI, or inlineData
+   * whose data is {@link #INLINE_PLACEHOLDER} until {@link #publisher} streams the bytes in
+   */
+  Map<String, Object> part(AudioClip clip) {
+    boolean inline = mode == Mode.INLINE || (mode == Mode.AUTO && clip.sizeBytes() <= inlineMaxBytes);
+    if (inline) {
+      return Map.of("inlineData", Map.of("mimeType", clip.mimeType(), "data", INLINE_PLACEHOLDER));
+    }
+    return Map.of("fileData", Map.of("mimeType", clip.mimeType(), "fileUri", fileUri(clip)));
+  }
+
+  /**
+   * Request body for JSON built with {@link #part}; an inline placeholder is replaced by the
+   * base64 of the clip, encoded from disk as the body is written
+   */
+  static HttpRequest.BodyPublisher publisher(String json, AudioClip clip) {
+    int at = clip != null ? json.indexOf(INLINE_PLACEHOLDER) : -1;
+    if (at < 0) {
+      return HttpRequest.BodyPublishers.ofString(json);
+    }
+    long encodedLength = 4 * ((clip.sizeBytes() + 2) / 3);
+    return HttpRequest.BodyPublishers.concat(
+        HttpRequest.BodyPublishers.ofString(json.substring(0, at)),
+        HttpRequest.BodyPublishers.fromPublisher(
+            HttpRequest.BodyPublishers.ofInputStream(() -> new Base64FileStream(clip.path())), encodedLength),
+        HttpRequest.BodyPublishers.ofString(json.substring(at + INLINE_PLACEHOLDER.length())));
+  }
+
+  /**
+   * Forget an uploaded file, e.g. after Gemini refused a request referencing it
+   */
+  void invalidate(AudioClip clip) {
+    files.remove(clip.contentHash());
+  }
+
+  private String fileUri(AudioClip clip) {
+    UploadedFile cached = files.get(clip.contentHash());
+    if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+      return cached.uri();
+    }
+    // Two first requests for the same recording may both upload it; the copies are harmless
+    String uri = guard.execute("uploadFile", true, () -> upload(clip));
+    files.put(clip.contentHash(), new UploadedFile(uri, System.currentTimeMillis() + FILE_TTL_MS));
+    return uri;
+  }
+
+  // Resumable upload protocol: start, then upload+finalize the whole file in one request
+  private String upload(AudioClip clip) throws Exception {
+    HttpRequest start = transport.newRequest(URI.create(uploadUrl + "?key=" + apiKey))
+        .header("X-Goog-Upload-Protocol", "resumable")
+        .header("X-Goog-Upload-Command", "start")
+        .header("X-Goog-Upload-Header-Content-Length", String.valueOf(clip.sizeBytes()))
+        .header("X-Goog-Upload-Header-Content-Type", clip.mimeType())
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+            Map.of("file", Map.of("displayName", clip.contentHash())))))
+        .build();
+    HttpResponse<InputStream> started = transport.send("uploadFile", start);
+    String sessionUrl = started.headers().firstValue("X-Goog-Upload-URL").orElse(null);
+    String startError = AiHttpTransport.readString(started);
+    if (started.statusCode() != 200 || sessionUrl == null) {
+      throw new GeminiApiException(started.statusCode(), "File upload refused: " + startError, 0);
+    }
+
+    HttpRequest finish = transport.newRequest(URI.create(sessionUrl))
+        .header("X-Goog-Upload-Offset", "0")
+        .header("X-Goog-Upload-Command", "upload, finalize")
+        .POST(HttpRequest.BodyPublishers.ofFile(clip.path()))
+        .build();
+    HttpResponse<InputStream> uploaded = transport.send("uploadFile", finish);
+    if (uploaded.statusCode() != 200) {
+      throw new GeminiApiException(uploaded.statusCode(), "File upload failed: " + AiHttpTransport.readString(uploaded), 0);
+    }
+    String uri;
+    try (InputStream in = AiHttpTransport.body(uploaded)) {
+      uri = GeminiResponseReader.readFileUri(in);
+    }
+    if (uri == null) {
+      throw new IllegalStateException("No file uri in Gemini upload response");
+    }
+    log.info("[Gemini] Uploaded recording {} ({} bytes) as {}", clip.contentHash(), clip.sizeBytes(), uri);
+    return uri;
+  }
+
+  /**
+   * Base64 of a file, encoded one fixed-size chunk at a time
+   */
+  private static final class Base64FileStream extends InputStream {
+
+    private final FileChannel channel;
+    private final ByteBuffer raw = ByteBuffer.allocate(ENCODE_CHUNK_BYTES);
+    private byte[] encoded = new byte[0];
+    private int position;
+
+    Base64FileStream(Path path) {
+      try {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot read recording " + path, e);
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!fill()) {
+        return -1;
+      }
+      return encoded[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int n = Math.min(len, encoded.length - position);
+      System.arraycopy(encoded, position, b, off, n);
+      position += n;
+      return n;
+    }
+
+    private boolean fill() throws IOException {
+      if (position < encoded.length) {
+        return true;
+      }
+      raw.clear();
+      // Fill the chunk completely so only the final one can need padding
+      while (raw.hasRemaining() && channel.read(raw) > 0) {
+        // keep reading
+      }
+      raw.flip();
+      if (!raw.hasRemaining()) {
+        return false;
+      }
+      encoded = Base64.getEncoder().encode(
+          raw.remaining() == raw.capacity() ? raw.array() : Arrays.copyOf(raw.array(), raw.remaining()));
+      position = 0;
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
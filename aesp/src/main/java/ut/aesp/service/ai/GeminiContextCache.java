@@ -0,0 +1,119 @@
+package ut.aesp.service.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Explicit Gemini context caching of the static system instruction, one cachedContents
+ * resource per feedback language. The resource is created on first use and re-created
+ * shortly before its TTL runs out; only one caller creates it while the others keep
+ * sending the instruction inline, so no request ever waits on the cache. When creation is
+ * refused (e.g. the prefix is below the model's minimum cacheable size) the language falls
+ * back to inline instructions for one TTL before trying again.
+ */
+@Slf4j
+class GeminiContextCache {
+
+  private record Entry(String name, long expiresAt) {
+  }
+
+  private static final long REFRESH_MARGIN_MS = 60_000;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String, Long> retryAt = new ConcurrentHashMap<>();
+  private final ReentrantLock createLock = new ReentrantLock();
+  private final AiHttpTransport transport;
+  private final ObjectMapper objectMapper;
+  private final String baseUrl;
+  private final String model;
+  private final String apiKey;
+  private final long ttlSeconds;
+
+  GeminiContextCache(AiHttpTransport transport, ObjectMapper objectMapper, String baseUrl, String model,
+      String apiKey, long ttlSeconds) {
+    this.transport = transport;
+    this.objectMapper = objectMapper;
+    this.baseUrl = baseUrl;
+    this.model = model;
+    this.apiKey = apiKey;
+    this.ttlSeconds = Math.max(120, ttlSeconds);
+  }
+
+  /**
+   * Name of a live cachedContent holding {@code systemInstruction}, or null to send it inline
+   */
+  String nameFor(String language, String systemInstruction) {
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(language);
+    if (entry != null && entry.expiresAt() - REFRESH_MARGIN_MS > now) {
+      return entry.name();
+    }
+    String current = entry != null && entry.expiresAt() > now ? entry.name() : null;
+    if (retryAt.getOrDefault(language, 0L) > now || !createLock.tryLock()) {
+      return current;
+    }
+    try {
+      Entry fresh = entries.get(language);
+      if (fresh != null && fresh.expiresAt() - REFRESH_MARGIN_MS > now) {
+        return fresh.name();
+      }
+      return create(language, systemInstruction, now);
+    } finally {
+      createLock.unlock();
+    }
+  }
+
+  /**
+   * Forget the resource, e.g. after Gemini rejected a request referencing it
+   */
+  void invalidate(String language) {
+    entries.remove(language);
+  }
+
+  private String create(String language, String systemInstruction, long now) {
+    try {
+      String body = objectMapper.writeValueAsString(Map.of(
+          "model", "models/" + model,
+          "systemInstruction", Map.of("parts", List.of(Map.of("text", systemInstruction))),
+          "ttl", ttlSeconds + "s"));
+      HttpRequest request = transport.newRequest(URI.create(baseUrl + "/cachedContents?key=" + apiKey))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(body))
+          .build();
+      HttpResponse<InputStream> response = transport.send("createCachedContent", request);
+      if (response.statusCode() != 200) {
+        String error = AiHttpTransport.readString(response);
+        throw new IllegalStateException("status " + response.statusCode() + ": " + error);
+      }
+      String name;
+      try (InputStream in = AiHttpTransport.body(response)) {
+        name = GeminiResponseReader.readName(in);
+      }
+      if (name == null) {
+        throw new IllegalStateException("no resource name in response");
+      }
+      entries.put(language, new Entry(name, now + ttlSeconds * 1000));
+      retryAt.remove(language);
+      log.info("[Gemini] Cached system instruction for {} as {} ({} s)", language, name, ttlSeconds);
+      return name;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (Exception e) {
+      retryAt.put(language, now + ttlSeconds * 1000);
+      entries.remove(language);
+      log.warn("[Gemini] Context cache unavailable for {}, sending instructions inline: {}", language,
+          e.getMessage());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package ut.aesp.service.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import ut.aesp.exception.APIException;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resilience layer in front of every Gemini call: circuit breaker, concurrency bulkhead,
+ * token-bucket rate limiter and jittered retries, in that order. Rejections fail fast
+ * with a 503 {@link APIException} so callers (and the cache fallback in GeminiHttpClient)
+ * never queue behind a slow or throttling upstream.
+ * Exposes ai.gemini.circuit.state, ai.gemini.circuit.transitions, ai.gemini.rejected
+ * and ai.gemini.retries.
+ */
+@Slf4j
+@Component
+public class GeminiGuard {
+
+  enum State { CLOSED, OPEN, HALF_OPEN }
+
+  private final CircuitBreaker breaker;
+  private final Semaphore bulkhead;
+  private final TokenBucket rateLimiter;
+  private final long bulkheadWaitMs;
+  private final long rateLimitWaitMs;
+  private final int maxAttempts;
+  private final long backoffBaseMs;
+  private final long backoffMaxMs;
+  private final MeterRegistry meterRegistry;
+  private final Counter retries;
+
+  public GeminiGuard(MeterRegistry meterRegistry,
+      @Value("${ai.gemini.rate-limit.permits-per-second:5}") double permitsPerSecond,
+      @Value("${ai.gemini.rate-limit.burst:10}") int burst,
+      @Value("${ai.gemini.rate-limit.max-wait-ms:2000}") long rateLimitWaitMs,
+      @Value("${ai.gemini.bulkhead.max-concurrent:16}") int maxConcurrent,
+      @Value("${ai.gemini.bulkhead.max-wait-ms:500}") long bulkheadWaitMs,
+      @Value("${ai.gemini.retry.max-attempts:3}") int maxAttempts,
+      @Value("${ai.gemini.retry.backoff-base-ms:300}") long backoffBaseMs,
+      @Value("${ai.gemini.retry.backoff-max-ms:5000}") long backoffMaxMs,
+      @Value("${ai.gemini.circuit.window-size:20}") int windowSize,
+      @Value("${ai.gemini.circuit.min-calls:10}") int minCalls,
+      @Value("${ai.gemini.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+      @Value("${ai.gemini.circuit.open-duration-ms:30000}") long openDurationMs,
+      @Value("${ai.gemini.circuit.half-open-calls:3}") int halfOpenCalls) {
+    this.meterRegistry = meterRegistry;
+    this.breaker = new CircuitBreaker(windowSize, minCalls, failureRateThreshold, openDurationMs, halfOpenCalls);
+    this.bulkhead = new Semaphore(Math.max(1, maxConcurrent));
+    this.rateLimiter = new TokenBucket(permitsPerSecond, burst);
+    this.bulkheadWaitMs = bulkheadWaitMs;
+    this.rateLimitWaitMs = rateLimitWaitMs;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffBaseMs = Math.max(1, backoffBaseMs);
+    this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+    this.retries = Counter.builder("ai.gemini.retries").register(meterRegistry);
+    Gauge.builder("ai.gemini.circuit.state", breaker, b -> b.state().ordinal())
+        .description("0 = closed, 1 = open, 2 = half-open")
+        .register(meterRegistry);
+    Gauge.builder("ai.gemini.bulkhead.available", bulkhead, Semaphore::availablePermits)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Run {@code call} under the guard. With {@code retryable} false (e.g. a stream that may
+   * already have emitted output) a failed attempt is never repeated.
+   */
+  public <T> T execute(String operation, boolean retryable, Callable<T> call) {
+    if (!breaker.tryAcquire()) {
+      throw reject("circuit_open", "AI evaluation is temporarily unavailable, please retry shortly");
+    }
+    boolean permitted = false;
+    try {
+      permitted = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!permitted) {
+      breaker.onIgnored();
+      throw reject("bulkhead", "Too many AI evaluations in progress, please retry shortly");
+    }
+
+    try {
+      for (int attempt = 1; ; attempt++) {
+        if (!rateLimiter.acquire(rateLimitWaitMs)) {
+          breaker.onIgnored();
+          throw reject("rate_limit", "AI evaluation rate limit reached, please retry shortly");
+        }
+        try {
+          T result = call.call();
+          breaker.onSuccess();
+          return result;
+        } catch (Exception e) {
+          boolean transientFailure = isTransient(e);
+          if (retryable && transientFailure && attempt < maxAttempts) {
+            retries.increment();
+            long delay = backoff(attempt, e);
+            log.warn("[GeminiGuard] {} attempt {} failed ({}), retrying in {} ms",
+                operation, attempt, e.getMessage(), delay);
+            sleep(delay);
+            continue;
+          }
+          // Bad requests say nothing about upstream health
+          if (transientFailure) {
+            breaker.onFailure();
+          } else {
+            breaker.onIgnored();
+          }
+          throw e instanceof RuntimeException re ? re : new RuntimeException(e.getMessage(), e);
+        }
+      }
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  State state() {
+    return breaker.state();
+  }
+
+  private APIException reject(String reason, String message) {
+    meterRegistry.counter("ai.gemini.rejected", "reason", reason).increment();
+    log.warn("[GeminiGuard] Rejected call: {}", reason);
+    return new APIException(message, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  private static boolean isTransient(Exception e) {
+    if (e instanceof GeminiApiException api) {
+      return api.isRetryable();
+    }
+    return e instanceof HttpTimeoutException || e instanceof IOException;
+  }
+
+  // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))], never below Retry-After
+  private long backoff(int attempt, Exception e) {
+    long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+    long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+    if (e instanceof GeminiApiException api && api.getRetryAfterMs() > 0) {
+      delay = Math.max(delay, Math.min(api.getRetryAfterMs(), backoffMaxMs));
+    }
+    return delay;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting to retry Gemini call", e);
+    }
+  }
+
+  /**
+   * Reservation-style token bucket: a caller that would need to wait takes a token on credit
+   * and sleeps outside the lock, unless the wait exceeds {@code maxWaitMs}.
+   */
+  private static final class TokenBucket {
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    TokenBucket(double permitsPerSecond, int burst) {
+      this.permitsPerNano = Math.max(permitsPerSecond, 0.001) / TimeUnit.SECONDS.toNanos(1);
+      this.capacity = Math.max(1, burst);
+      this.tokens = capacity;
+    }
+
+    boolean acquire(long maxWaitMs) {
+      long waitNanos;
+      synchronized (this) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / permitsPerNano);
+        if (waitNanos > TimeUnit.MILLISECONDS.toNanos(maxWaitMs)) {
+          return false;
+        }
+        tokens -= 1;
+      }
+      if (waitNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Count-based breaker over the last {@code windowSize} outcomes. Opens when at least
+   * {@code minCalls} were recorded and the failure rate reaches the threshold; after
+   * {@code openDurationMs} lets {@code halfOpenCalls} trial calls through and closes only
+   * if all of them succeed.
+   */
+  private final class CircuitBreaker {
+    private final boolean[] outcomes;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+
+    CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, long openDurationMs,
+        int halfOpenCalls) {
+      this.outcomes = new boolean[Math.max(1, windowSize)];
+      this.minCalls = Math.max(1, Math.min(minCalls, outcomes.length));
+      this.failureRateThreshold = failureRateThreshold;
+      this.openDurationMs = openDurationMs;
+      this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    synchronized State state() {
+      return state;
+    }
+
+    synchronized boolean tryAcquire() {
+      if (state == State.OPEN) {
+        if (System.currentTimeMillis() - openedAt < openDurationMs) {
+          return false;
+        }
+        transition(State.HALF_OPEN);
+      }
+      if (state == State.HALF_OPEN) {
+        if (halfOpenStarted >= halfOpenCalls) {
+          return false;
+        }
+        halfOpenStarted++;
+      }
+      return true;
+    }
+
+    synchronized void onSuccess() {
+      if (state == State.HALF_OPEN) {
+        if (++halfOpenSucceeded >= halfOpenCalls) {
+          transition(State.CLOSED);
+        }
+        return;
+      }
+      record(false);
+    }
+
+    synchronized void onFailure() {
+      if (state == State.HALF_OPEN) {
+        transition(State.OPEN);
+        return;
+      }
+      record(true);
+      if (recorded >= minCalls && (double) failures / recorded >= failureRateThreshold) {
+        transition(State.OPEN);
+      }
+    }
+
+    // The call never reached Gemini (or failed for a non-upstream reason): hand back a trial slot
+    synchronized void onIgnored() {
+      if (state == State.HALF_OPEN && halfOpenStarted > 0) {
+        halfOpenStarted--;
+      }
+    }
+
+    private void record(boolean failure) {
+      if (recorded == outcomes.length) {
+        if (outcomes[next]) {
+          failures--;
+        }
+      } else {
+        recorded++;
+      }
+      outcomes[next] = failure;
+      if (failure) {
+        failures++;
+      }
+      next = (next + 1) % outcomes.length;
+    }
+
+    private void transition(State to) {
+      State from = state;
+      state = to;
+      if (to == State.OPEN) {
+        openedAt = System.currentTimeMillis();
+      }
+      if (to == State.HALF_OPEN) {
+        halfOpenStarted = 0;
+        halfOpenSucceeded = 0;
+      }
+      if (to == State.CLOSED) {
+        recorded = 0;
+        failures = 0;
+        next = 0;
+      }
+      meterRegistry.counter("ai.gemini.circuit.transitions", "from", from.name(), "to", to.name()).increment();
+      log.warn("[GeminiGuard] Circuit {} -> {}", from, to);
+    }
+  }
+}
@@ -2,70 +2,128 @@ package ut.aesp.service.ai;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import ut.aesp.dto.session.AiEvaluationResponse;
+import ut.aesp.exception.APIException;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
-public class GeminiHttpClient {
+public class GeminiHttpClient implements SpeechEvaluator {
 
-  private final HttpClient httpClient;
+  private final AiHttpTransport transport;
   private final String apiKey;
   private final String model;
+  private final String baseUrl;
   private final ObjectMapper objectMapper;
+  private final EvaluationCache evaluationCache;
+  private final EvaluationBatcher batcher;
+  private final GeminiGuard guard;
+  private final PromptEngine promptEngine;
+  private final GeminiContextCache contextCache;
+  private final GeminiAudioDelivery audioDelivery;
+  private final int thinkingBudget;
+  private final MeterRegistry meterRegistry;
 
   public GeminiHttpClient(
       @Value("${gemini.api.key}") String apiKey,
-      @Value("${gemini.model:gemini-1.5-flash}") String model) {
+      @Value("${gemini.model:gemini-1.5-flash}") String model,
+      @Value("${gemini.base-url:https://generativelanguage.googleapis.com/v1beta}") String baseUrl,
+      @Value("${ai.evaluation.batch.enabled:false}") boolean batchEnabled,
+      @Value("${ai.evaluation.batch.window-ms:30}") long batchWindowMs,
+      @Value("${ai.evaluation.batch.max-size:8}") int batchMaxSize,
+      @Value("${ai.evaluation.batch.max-in-flight:4}") int batchMaxInFlight,
+      @Value("${ai.evaluation.batch.max-queued:1000}") int batchMaxQueued,
+      @Value("${ai.prompt.context-cache.enabled:false}") boolean contextCacheEnabled,
+      @Value("${ai.prompt.context-cache.ttl-seconds:3600}") long contextCacheTtlSeconds,
+      @Value("${ai.prompt.thinking-budget:-1}") int thinkingBudget,
+      @Value("${ai.audio.delivery:auto}") String audioDelivery,
+      @Value("${ai.audio.inline-max-bytes:10485760}") long audioInlineMaxBytes,
+      AiHttpTransport transport,
+      EvaluationCache evaluationCache,
+      GeminiGuard guard,
+      PromptEngine promptEngine,
+      MeterRegistry meterRegistry) {
     if (apiKey == null || apiKey.isEmpty() || apiKey.equals("${GEMINI_API_KEY}")) {
       log.error("[Gemini] API key is not set! Please set GEMINI_API_KEY environment variable.");
       throw new IllegalStateException("Gemini API key is not configured");
     }
     this.apiKey = apiKey;
     this.model = model;
-    this.httpClient = HttpClient.newHttpClient();
+    this.transport = transport;
+    this.guard = guard;
     this.objectMapper = new ObjectMapper();
-    log.info("[Gemini] Initialized with model: {}", model);
+    this.baseUrl = baseUrl;
+    this.evaluationCache = evaluationCache;
+    this.promptEngine = promptEngine;
+    this.thinkingBudget = thinkingBudget;
+    this.meterRegistry = meterRegistry;
+    this.contextCache = contextCacheEnabled
+        ? new GeminiContextCache(transport, objectMapper, baseUrl, model, apiKey, contextCacheTtlSeconds)
+        : null;
+    this.audioDelivery = new GeminiAudioDelivery(transport, objectMapper, guard, baseUrl, apiKey,
+        GeminiAudioDelivery.Mode.valueOf(audioDelivery.trim().toUpperCase(Locale.ROOT)), audioInlineMaxBytes);
+    this.batcher = batchEnabled
+        ? new EvaluationBatcher(batchMaxSize, batchWindowMs, batchMaxInFlight, batchMaxQueued,
+            this::requestBatchEvaluation,
+            (item, retryable) -> requestEvaluation(item.speechText(), item.topic(), item.scenario(),
+                item.targetLevel(), item.language(), null, retryable),
+            () -> guard.state() == GeminiGuard.State.CLOSED)
+        : null;
+    log.info("[Gemini] Initialized with model: {}, batching: {}, context cache: {}", model,
+        batchEnabled ? batchMaxSize + " items / " + batchWindowMs + " ms" : "off",
+        contextCacheEnabled ? "on" : "off");
   }
 
-  public String generate(String prompt, String audioUrl, String model) {
-    try {
-      String body = """
-          {
-            "model": "%s",
-            "input": "%s",
-            "audioUrl": "%s"
-          }
-          """.formatted(model, prompt, audioUrl);
-
-      HttpRequest request = HttpRequest.newBuilder()
-          .uri(URI.create(
-              "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey))
-          .header("Content-Type", "application/json")
-          .POST(HttpRequest.BodyPublishers.ofString(body))
-          .build();
-
-      log.info("[Gemini] Sending prompt: {}", prompt);
-
-      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-      log.info("[Gemini] Response: {}", response.body());
+  @PreDestroy
+  public void shutdown() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
 
-      return response.body();
+  @Override
+  public String version() {
+    return model;
+  }
 
-    } catch (Exception e) {
-      log.error("[Gemini] Error generating content", e);
-      throw new RuntimeException(e);
+  @Override
+  public SpeechEvaluation evaluate(SpeechInput input) {
+    if (input.audio() == null) {
+      return evaluateSpeech(input.speechText(), input.topic(), input.scenario(), input.targetLevel(),
+          input.language());
+    }
+    // Audio requests are not batched: the batch prompt carries transcripts only
+    String language = promptEngine.language(input.language());
+    String key = evaluationCache.key(input.speechText(), input.topic(), input.scenario(), input.targetLevel(),
+        language, model, input.audio().contentHash());
+    try {
+      return evaluationCache.getOrCompute(key, model, () -> requestEvaluation(input.speechText(), input.topic(),
+          input.scenario(), input.targetLevel(), language, input.audio(), true));
+    } catch (APIException e) {
+      return staleOrThrow(key, e);
     }
   }
 
@@ -76,151 +134,313 @@ public class GeminiHttpClient {
    * @param topic       The topic of conversation
    * @param scenario    The scenario/context
    * @param targetLevel Target CEFR level (A1-C2)
-   * @return JSON string with evaluation results
+   * @return the decoded evaluation
    */
-  public String evaluateSpeech(String speechText, String topic, String scenario, String targetLevel) {
+  public SpeechEvaluation evaluateSpeech(String speechText, String topic, String scenario, String targetLevel) {
+    return evaluateSpeech(speechText, topic, scenario, targetLevel, null);
+  }
+
+  /**
+   * Same, with feedback in {@code requestedLanguage} (the default language when null or not configured)
+   */
+  public SpeechEvaluation evaluateSpeech(String speechText, String topic, String scenario, String targetLevel,
+      String requestedLanguage) {
+    String language = promptEngine.language(requestedLanguage);
+    String key = evaluationCache.key(speechText, topic, scenario, targetLevel, language, model);
     try {
-      // Build evaluation prompt
-      String prompt = buildEvaluationPrompt(speechText, topic, scenario, targetLevel);
-
-      // Build request body for Gemini API
-      Map<String, Object> requestBody = new HashMap<>();
-      Map<String, Object> contents = new HashMap<>();
-      Map<String, Object> part = new HashMap<>();
-      part.put("text", prompt);
-      contents.put("parts", new Object[] { part });
-      requestBody.put("contents", new Object[] { contents });
-
-      // Generation config
-      Map<String, Object> generationConfig = new HashMap<>();
-      generationConfig.put("temperature", 0.7);
-      generationConfig.put("topK", 40);
-      generationConfig.put("topP", 0.95);
-      generationConfig.put("maxOutputTokens", 3000);
-      requestBody.put("generationConfig", generationConfig);
-
-      String bodyJson = objectMapper.writeValueAsString(requestBody);
-
-      String url = String.format(
-          "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s",
-          model, apiKey);
-
-      HttpRequest request = HttpRequest.newBuilder()
-          .uri(URI.create(url))
-          .header("Content-Type", "application/json")
-          .POST(HttpRequest.BodyPublishers.ofString(bodyJson))
-          .build();
+      return evaluationCache.getOrCompute(key, model, () -> batcher != null
+          ? awaitBatched(batcher.submit(speechText, topic, scenario, targetLevel, language))
+          : requestEvaluation(speechText, topic, scenario, targetLevel, language, null, true));
+    } catch (APIException e) {
+      return staleOrThrow(key, e);
+    }
+  }
 
-      log.info("[Gemini] Evaluating speech for topic: {}, level: {}", topic, targetLevel);
-      log.debug("[Gemini] Request URL: {}", url);
-      log.debug("[Gemini] Request body: {}", bodyJson);
+  /**
+   * When the guard fails fast, an expired cached evaluation of the same input is
+   * a better answer than an error
+   */
+  private SpeechEvaluation staleOrThrow(String key, APIException e) {
+    if (e.getStatus() != HttpStatus.SERVICE_UNAVAILABLE) {
+      throw e;
+    }
+    return evaluationCache.getStale(key)
+        .map(stale -> {
+          log.info("[Gemini] Serving stale cached evaluation while Gemini is unavailable");
+          return stale;
+        })
+        .orElseThrow(() -> e);
+  }
 
-      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+  private SpeechEvaluation awaitBatched(CompletableFuture<SpeechEvaluation> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new RuntimeException("Failed to evaluate speech with Gemini", e.getCause());
+    }
+  }
 
-      log.info("[Gemini] Response status: {}", response.statusCode());
+  private SpeechEvaluation requestEvaluation(String speechText, String topic, String scenario, String targetLevel,
+      String language, AudioClip audio, boolean retryable) {
+    try {
+      log.info("[Gemini] Evaluating speech for topic: {}, level: {}{}", topic, targetLevel,
+          audio != null ? ", with " + audio.sizeBytes() + " bytes of audio" : "");
+      PromptEngine.Prompt prompt = promptEngine.evaluation(speechText, topic, scenario, targetLevel, language,
+          audio != null);
+      GeminiResponseReader.Reply reply = guard.execute("evaluate", retryable,
+          () -> generateContent("evaluate", prompt, prompt.maxOutputTokens(), audio));
+      if (reply.truncated() && prompt.maxOutputTokens() < promptEngine.maxOutputTokens()) {
+        // The input-sized budget was too tight (e.g. model thinking); one retry at the ceiling
+        log.warn("[Gemini] Output hit the {} token budget, retrying with {}", prompt.maxOutputTokens(),
+            promptEngine.maxOutputTokens());
+        reply = guard.execute("evaluate", retryable,
+            () -> generateContent("evaluate", prompt, promptEngine.maxOutputTokens(), audio));
+      }
 
-      if (response.statusCode() != 200) {
-        String errorBody = response.body();
-        log.error("[Gemini] Error response ({}): {}", response.statusCode(), errorBody);
+      SpeechEvaluation evaluation = GeminiResponseReader.readEvaluation(reply.text());
 
-        // Try to parse error message from response
-        try {
-          JsonNode errorNode = objectMapper.readTree(errorBody);
-          String errorMessage = errorNode.path("error").path("message").asText("Unknown error");
-          log.error("[Gemini] Error message: {}", errorMessage);
-          throw new RuntimeException("Gemini API error (" + response.statusCode() + "): " + errorMessage);
-        } catch (Exception e) {
-          throw new RuntimeException("Gemini API error (" + response.statusCode() + "): " + errorBody);
-        }
-      }
+      log.info("[Gemini] Evaluation completed");
+      return evaluation;
 
-      String responseBody = response.body();
-      log.debug("[Gemini] Raw response: {}", responseBody);
+    } catch (APIException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("[Gemini] Error evaluating speech", e);
+      throw new RuntimeException("Failed to evaluate speech with Gemini", e);
+    }
+  }
 
-      // Parse response and extract text
-      JsonNode jsonNode = objectMapper.readTree(responseBody);
+  /**
+   * Evaluate several transcripts in one generateContent call.
+   * Returns one result per item in input order; an entry is null when the model
+   * skipped that item so the caller can retry it on its own.
+   */
+  private List<SpeechEvaluation> requestBatchEvaluation(List<EvaluationBatcher.Item> items) {
+    try {
+      PromptEngine.Prompt prompt = promptEngine.batch(items);
+      GeminiResponseReader.Reply reply = guard.execute("batch", true,
+          () -> generateContent("batch", prompt, prompt.maxOutputTokens(), null));
 
-      // Check if response has candidates
-      if (!jsonNode.has("candidates") || jsonNode.get("candidates").size() == 0) {
-        log.error("[Gemini] No candidates in response: {}", responseBody);
-        throw new RuntimeException("Invalid Gemini response: no candidates");
-      }
+      return GeminiResponseReader.readBatch(reply.text(), items.size());
 
-      JsonNode candidate = jsonNode.get("candidates").get(0);
-      if (!candidate.has("content") || !candidate.get("content").has("parts")) {
-        log.error("[Gemini] Invalid candidate structure: {}", responseBody);
-        throw new RuntimeException("Invalid Gemini response: invalid candidate structure");
-      }
+    } catch (APIException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to evaluate speech batch with Gemini", e);
+    }
+  }
 
-      JsonNode parts = candidate.get("content").get("parts");
-      if (parts.size() == 0 || !parts.get(0).has("text")) {
-        log.error("[Gemini] No text in parts: {}", responseBody);
-        throw new RuntimeException("Invalid Gemini response: no text in parts");
-      }
+  /**
+   * POST a prompt, and the recording when there is one, to :generateContent and return the
+   * first candidate's reply, read straight off the response stream.
+   */
+  private GeminiResponseReader.Reply generateContent(String operation, PromptEngine.Prompt prompt,
+      int maxOutputTokens, AudioClip audio) throws Exception {
+    String cachedContent = cachedContentFor(prompt);
+    String bodyJson = buildRequestBody(prompt, maxOutputTokens, cachedContent, audio);
 
-      String rawText = parts.get(0).get("text").asText().trim();
+    String url = String.format("%s/models/%s:generateContent?key=%s", baseUrl, model, apiKey);
 
-      // Loại bỏ ```json ở đầu nếu có
-      if (rawText.startsWith("```json")) {
-        rawText = rawText.substring(7).trim();
-      }
+    HttpRequest request = transport.newRequest(URI.create(url))
+        .header("Content-Type", "application/json")
+        .POST(GeminiAudioDelivery.publisher(bodyJson, audio))
+        .build();
 
-      // Loại bỏ ``` ở cuối nếu có
-      if (rawText.endsWith("```")) {
-        rawText = rawText.substring(0, rawText.length() - 3).trim();
-      }
+    log.debug("[Gemini] Request body: {}", bodyJson);
 
-      // Parse vào AiEvaluationResponse
-      AiEvaluationResponse evaluationResponse = objectMapper.readValue(rawText, AiEvaluationResponse.class);
+    HttpResponse<InputStream> response = transport.send("generateContent", request);
 
-      log.info("[Gemini] Evaluation completed");
-      return rawText;
+    log.info("[Gemini] Response status: {}", response.statusCode());
 
-    } catch (Exception e) {
-      log.error("[Gemini] Error evaluating speech", e);
-      throw new RuntimeException("Failed to evaluate speech with Gemini", e);
+    if (response.statusCode() != 200) {
+      throw rejected(prompt, cachedContent, audio,
+          apiError(response.statusCode(), AiHttpTransport.readString(response), response.headers()));
+    }
+
+    GeminiResponseReader.Reply reply;
+    try (InputStream body = AiHttpTransport.body(response)) {
+      reply = GeminiResponseReader.readReply(body);
+    }
+    recordUsage(operation, reply);
+    return reply;
+  }
+
+  /**
+   * Evaluate speech via :streamGenerateContent (SSE), handing each text delta to
+   * {@code onChunk} as it arrives. Returns the decoded evaluation once the stream ends.
+   * A cache hit returns immediately without emitting chunks.
+   */
+  public SpeechEvaluation streamEvaluateSpeech(String speechText, String topic, String scenario, String targetLevel,
+      String requestedLanguage, Consumer<String> onChunk) {
+    String language = promptEngine.language(requestedLanguage);
+    String key = evaluationCache.key(speechText, topic, scenario, targetLevel, language, model);
+    try {
+      return evaluationCache.getOrCompute(key, model,
+          () -> requestStreamingEvaluation(speechText, topic, scenario, targetLevel, language, onChunk));
+    } catch (APIException e) {
+      return staleOrThrow(key, e);
     }
   }
 
-  private String buildEvaluationPrompt(String speechText, String topic, String scenario, String targetLevel) {
-    return String.format("""
-        You are a CEFR speaking examiner evaluating a learner's English speaking performance.
+  private SpeechEvaluation requestStreamingEvaluation(String speechText, String topic, String scenario, String targetLevel,
+      String language, Consumer<String> onChunk) {
+    try {
+      log.info("[Gemini] Streaming evaluation for topic: {}, level: {}", topic, targetLevel);
+      PromptEngine.Prompt prompt = promptEngine.evaluation(speechText, topic, scenario, targetLevel, language);
+      String cachedContent = cachedContentFor(prompt);
+      String bodyJson = buildRequestBody(prompt, prompt.maxOutputTokens(), cachedContent, null);
+      String url = String.format("%s/models/%s:streamGenerateContent?alt=sse&key=%s", baseUrl, model, apiKey);
 
-        Target Level: %s
-        Topic: %s
-        Scenario: %s
+      HttpRequest request = transport.newRequest(URI.create(url))
+          .header("Content-Type", "application/json")
+          .header("Accept", "text/event-stream")
+          .POST(HttpRequest.BodyPublishers.ofString(bodyJson))
+          .build();
 
-        Learner's transcript:
-        "%s"
+      // Not retried: a repeated stream would re-emit chunks the client already has
+      String streamed = guard.execute("stream", false, () -> {
+        HttpResponse<InputStream> response = transport.send("streamGenerateContent", request);
 
-        Please evaluate the learner's speech on the following criteria (0-10 scale):
-        1. Pronunciation: clarity, accuracy, and naturalness
-        2. Fluency: smoothness, pace, and flow
-        3. Grammar: correctness and complexity
-        4. Vocabulary: range, appropriateness, and accuracy
+        if (response.statusCode() != 200) {
+          throw rejected(prompt, cachedContent, null,
+              apiError(response.statusCode(), AiHttpTransport.readString(response), response.headers()));
+        }
 
-        Respond ONLY with valid JSON in this exact format:
-        {
-          "score": <overall score 0-100>,
-          "rubric": {
-            "pronunciation": <0-10>,
-            "fluency": <0-10>,
-            "grammar": <0-10>,
-            "vocabulary": <0-10>
-          },
-          "feedback": "<detailed feedback in Vietnamese, explaining strengths and areas for improvement>",
-          "suggestedFocus": ["<area 1>", "<area 2>"]
+        StringBuilder text = new StringBuilder();
+        // usageMetadata and finishReason arrive with the last event
+        GeminiResponseReader.Reply[] last = new GeminiResponseReader.Reply[1];
+        try (Stream<String> lines = new BufferedReader(
+            new InputStreamReader(AiHttpTransport.body(response), StandardCharsets.UTF_8)).lines()) {
+          lines.filter(line -> line.startsWith("data:"))
+              .forEach(line -> {
+                GeminiResponseReader.Reply event = readStreamEvent(line.substring(5).trim());
+                if (event == null) {
+                  return;
+                }
+                last[0] = event;
+                if (!event.text().isEmpty()) {
+                  text.append(event.text());
+                  onChunk.accept(event.text());
+                }
+              });
         }
+        if (last[0] != null) {
+          recordUsage("stream", last[0]);
+          if (last[0].truncated()) {
+            log.warn("[Gemini] Streamed evaluation hit the {} token budget", prompt.maxOutputTokens());
+          }
+        }
+        return text.toString();
+      });
+
+      SpeechEvaluation evaluation = GeminiResponseReader.readEvaluation(streamed);
+      log.info("[Gemini] Streaming evaluation completed");
+      return evaluation;
+
+    } catch (APIException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("[Gemini] Error streaming evaluation", e);
+      throw new RuntimeException("Failed to evaluate speech with Gemini", e);
+    }
+  }
+
+  private GeminiResponseReader.Reply readStreamEvent(String eventJson) {
+    try {
+      return GeminiResponseReader.readEvent(eventJson);
+    } catch (Exception e) {
+      log.warn("[Gemini] Skipping unparseable stream event: {}", eventJson);
+      return null;
+    }
+  }
+
+  private String cachedContentFor(PromptEngine.Prompt prompt) {
+    return contextCache != null ? contextCache.nameFor(prompt.language(), prompt.systemInstruction()) : null;
+  }
+
+  // A request referencing an expired or deleted cachedContent or uploaded file is refused;
+  // recreate it (or go inline) next time
+  private GeminiApiException rejected(PromptEngine.Prompt prompt, String cachedContent, AudioClip audio,
+      GeminiApiException error) {
+    if (error.getStatusCode() >= 400 && error.getStatusCode() < 500 && error.getStatusCode() != 429) {
+      if (cachedContent != null) {
+        contextCache.invalidate(prompt.language());
+      }
+      if (audio != null) {
+        audioDelivery.invalidate(audio);
+      }
+    }
+    return error;
+  }
 
-        Important: Respond ONLY with the JSON object, no additional text or explanation.
-        """, targetLevel, topic, scenario, speechText);
+  /**
+   * Token counts reported by Gemini, per operation: ai.gemini.tokens{type=prompt|cached|output|thoughts}
+   */
+  private void recordUsage(String operation, GeminiResponseReader.Reply reply) {
+    if (!reply.hasUsage()) {
+      return;
+    }
+    tokens(operation, "prompt").record(reply.promptTokens());
+    tokens(operation, "cached").record(reply.cachedTokens());
+    tokens(operation, "output").record(reply.outputTokens());
+    tokens(operation, "thoughts").record(reply.thoughtsTokens());
   }
 
-  public HttpClient getClient() {
-    return httpClient;
+  private DistributionSummary tokens(String operation, String type) {
+    return DistributionSummary.builder("ai.gemini.tokens")
+        .baseUnit("tokens")
+        .tag("operation", operation)
+        .tag("type", type)
+        .register(meterRegistry);
   }
 
-  public String getApiKey() {
-    return apiKey;
+  private String buildRequestBody(PromptEngine.Prompt prompt, int maxOutputTokens, String cachedContent,
+      AudioClip audio) throws Exception {
+    Map<String, Object> requestBody = new LinkedHashMap<>();
+    // The static prefix goes first, by reference when it is held in a context cache
+    if (cachedContent != null) {
+      requestBody.put("cachedContent", cachedContent);
+    } else {
+      requestBody.put("systemInstruction", Map.of("parts", List.of(Map.of("text", prompt.systemInstruction()))));
+    }
+    List<Map<String, Object>> parts = audio != null
+        ? List.of(Map.of("text", prompt.text()), audioDelivery.part(audio))
+        : List.of(Map.of("text", prompt.text()));
+    requestBody.put("contents", List.of(Map.of(
+        "role", "user",
+        "parts", parts)));
+
+    // Generation config
+    Map<String, Object> generationConfig = new LinkedHashMap<>();
+    generationConfig.put("temperature", 0.7);
+    generationConfig.put("topK", 40);
+    generationConfig.put("topP", 0.95);
+    generationConfig.put("maxOutputTokens", maxOutputTokens);
+    if (thinkingBudget >= 0) {
+      generationConfig.put("thinkingConfig", Map.of("thinkingBudget", thinkingBudget));
+    }
+    requestBody.put("generationConfig", generationConfig);
+
+    return objectMapper.writeValueAsString(requestBody);
+  }
+
+  private GeminiApiException apiError(int statusCode, String errorBody, HttpHeaders headers) {
+    log.error("[Gemini] Error response ({}): {}", statusCode, errorBody);
+
+    // Retry-After is sent in seconds on 429/503
+    long retryAfterMs = headers.firstValueAsLong("Retry-After").orElse(0L) * 1000;
+
+    // Try to parse error message from response
+    try {
+      JsonNode errorNode = objectMapper.readTree(errorBody);
+      String errorMessage = errorNode.path("error").path("message").asText("Unknown error");
+      log.error("[Gemini] Error message: {}", errorMessage);
+      return new GeminiApiException(statusCode, errorMessage, retryAfterMs);
+    } catch (Exception e) {
+      return new GeminiApiException(statusCode, errorBody, retryAfterMs);
+    }
   }
 }
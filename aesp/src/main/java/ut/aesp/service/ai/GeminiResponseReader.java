@@ -0,0 +1,371 @@
+package ut.aesp.service.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-pass streaming decoding of Gemini responses with Jackson's {@link JsonParser}:
+ * the generateContent envelope is read straight off the response stream down to the
+ * candidate text, and the evaluation JSON inside that text is decoded field by field into
+ * a {@link SpeechEvaluation}. No tree or intermediate DTO is built and unknown fields are
+ * skipped without being materialized. Numbers are read leniently (wrong types fall back
+ * to 0) so one odd field does not cost the whole evaluation.
+ */
+final class GeminiResponseReader {
+
+  /**
+   * First candidate's text, why generation stopped, and the usageMetadata token counts
+   * (0 when absent)
+   */
+  record Reply(String text, String finishReason, int promptTokens, int cachedTokens, int outputTokens,
+      int thoughtsTokens) {
+
+    boolean truncated() {
+      return "MAX_TOKENS".equals(finishReason);
+    }
+
+    boolean hasUsage() {
+      return promptTokens > 0 || outputTokens > 0;
+    }
+  }
+
+  private static final JsonFactory JSON = JsonFactory.builder().build();
+
+  private GeminiResponseReader() {
+  }
+
+  /**
+   * A generateContent response; the first candidate's parts are concatenated
+   */
+  static Reply readReply(InputStream body) throws IOException {
+    try (JsonParser p = JSON.createParser(body)) {
+      Reply reply = readReply(p);
+      if (reply.text() == null) {
+        throw new IllegalStateException("Invalid Gemini response: no candidate text"
+            + (reply.finishReason() != null ? " (finishReason " + reply.finishReason() + ")" : ""));
+      }
+      return reply;
+    }
+  }
+
+  /**
+   * One streamGenerateContent event; its text is the delta, empty when the event carries none
+   */
+  static Reply readEvent(String eventJson) throws IOException {
+    try (JsonParser p = JSON.createParser(eventJson)) {
+      Reply reply = readReply(p);
+      return reply.text() != null ? reply
+          : new Reply("", reply.finishReason(), reply.promptTokens(), reply.cachedTokens(), reply.outputTokens(),
+              reply.thoughtsTokens());
+    }
+  }
+
+  /**
+   * The "name" of a created cachedContents resource
+   */
+  static String readName(InputStream body) throws IOException {
+    try (JsonParser p = JSON.createParser(body)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Invalid Gemini response: expected a JSON object");
+      }
+      String name = null;
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String field = p.currentName();
+        p.nextToken();
+        if ("name".equals(field)) {
+          name = string(p);
+        } else {
+          p.skipChildren();
+        }
+      }
+      return name;
+    }
+  }
+
+  /**
+   * The "file.uri" of a Files API upload response
+   */
+  static String readFileUri(InputStream body) throws IOException {
+    try (JsonParser p = JSON.createParser(body)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Invalid Gemini response: expected a JSON object");
+      }
+      String uri = null;
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String field = p.currentName();
+        JsonToken value = p.nextToken();
+        if (!"file".equals(field) || value != JsonToken.START_OBJECT) {
+          p.skipChildren();
+          continue;
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+          String fileField = p.currentName();
+          p.nextToken();
+          if ("uri".equals(fileField)) {
+            uri = string(p);
+          } else {
+            p.skipChildren();
+          }
+        }
+      }
+      return uri;
+    }
+  }
+
+  /**
+   * Decode the evaluation object in the model's output; a Markdown code fence or other
+   * text around the object is ignored
+   */
+  static SpeechEvaluation readEvaluation(String text) throws IOException {
+    try (JsonParser p = parserAt(text, '{')) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Gemini evaluation is not a JSON object");
+      }
+      return readEvaluationObject(p, new int[1]);
+    }
+  }
+
+  /**
+   * Decode a batch answer: one evaluation per 1-based "index", placed at that position.
+   * Items that are missing or out of range stay null.
+   */
+  static List<SpeechEvaluation> readBatch(String text, int size) throws IOException {
+    List<SpeechEvaluation> results = new ArrayList<>(Collections.nCopies(size, null));
+    try (JsonParser p = parserAt(text, '[')) {
+      if (p.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Invalid Gemini batch response: expected a JSON array");
+      }
+      int[] index = new int[1];
+      JsonToken token;
+      while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+        if (token != JsonToken.START_OBJECT) {
+          p.skipChildren();
+          continue;
+        }
+        index[0] = 0;
+        SpeechEvaluation evaluation = readEvaluationObject(p, index);
+        if (index[0] >= 1 && index[0] <= size) {
+          results.set(index[0] - 1, evaluation);
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Canonical JSON form, the same shape the model is asked to produce
+   */
+  static String write(SpeechEvaluation evaluation) {
+    StringWriter out = new StringWriter(256);
+    try (JsonGenerator g = JSON.createGenerator(out)) {
+      g.writeStartObject();
+      if (evaluation.score() != null) {
+        g.writeNumberField("score", evaluation.score());
+      }
+      g.writeObjectFieldStart("rubric");
+      g.writeNumberField("pronunciation", evaluation.pronunciation());
+      g.writeNumberField("fluency", evaluation.fluency());
+      g.writeNumberField("grammar", evaluation.grammar());
+      g.writeNumberField("vocabulary", evaluation.vocabulary());
+      g.writeEndObject();
+      if (evaluation.feedback() != null) {
+        g.writeStringField("feedback", evaluation.feedback());
+      }
+      g.writeArrayFieldStart("suggestedFocus");
+      for (String focus : evaluation.suggestedFocus()) {
+        g.writeString(focus);
+      }
+      g.writeEndArray();
+      g.writeEndObject();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write evaluation JSON", e);
+    }
+    return out.toString();
+  }
+
+  // {"candidates":[{"content":{"parts":[{"text":...},...]},"finishReason":...},...],"usageMetadata":{...}}
+  private static Reply readReply(JsonParser p) throws IOException {
+    if (p.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Invalid Gemini response: expected a JSON object");
+    }
+    String[] candidate = null;
+    int[] usage = new int[4];
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String field = p.currentName();
+      JsonToken value = p.nextToken();
+      if ("candidates".equals(field) && value == JsonToken.START_ARRAY) {
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+          if (candidate == null && token == JsonToken.START_OBJECT) {
+            candidate = readCandidate(p);
+          } else {
+            p.skipChildren();
+          }
+        }
+      } else if ("usageMetadata".equals(field) && value == JsonToken.START_OBJECT) {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+          String counter = p.currentName();
+          p.nextToken();
+          switch (counter) {
+            case "promptTokenCount" -> usage[0] = (int) number(p, 0);
+            case "cachedContentTokenCount" -> usage[1] = (int) number(p, 0);
+            case "candidatesTokenCount" -> usage[2] = (int) number(p, 0);
+            case "thoughtsTokenCount" -> usage[3] = (int) number(p, 0);
+            default -> p.skipChildren();
+          }
+        }
+      } else {
+        p.skipChildren();
+      }
+    }
+    return new Reply(candidate != null ? candidate[0] : null, candidate != null ? candidate[1] : null,
+        usage[0], usage[1], usage[2], usage[3]);
+  }
+
+  // { text, finishReason }
+  private static String[] readCandidate(JsonParser p) throws IOException {
+    StringBuilder text = null;
+    String finishReason = null;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String field = p.currentName();
+      JsonToken value = p.nextToken();
+      if ("finishReason".equals(field)) {
+        finishReason = string(p);
+        continue;
+      }
+      if (!"content".equals(field) || value != JsonToken.START_OBJECT) {
+        p.skipChildren();
+        continue;
+      }
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String contentField = p.currentName();
+        JsonToken contentValue = p.nextToken();
+        if (!"parts".equals(contentField) || contentValue != JsonToken.START_ARRAY) {
+          p.skipChildren();
+          continue;
+        }
+        JsonToken part;
+        while ((part = p.nextToken()) != JsonToken.END_ARRAY && part != null) {
+          if (part != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            continue;
+          }
+          while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String partField = p.currentName();
+            JsonToken partValue = p.nextToken();
+            if ("text".equals(partField) && partValue == JsonToken.VALUE_STRING) {
+              if (text == null) {
+                text = new StringBuilder();
+              }
+              text.append(p.getText());
+            } else {
+              p.skipChildren();
+            }
+          }
+        }
+      }
+    }
+    return new String[] { text != null ? text.toString() : null, finishReason };
+  }
+
+  // Parser positioned at the object; index[0] receives the batch "index" field when present
+  private static SpeechEvaluation readEvaluationObject(JsonParser p, int[] index) throws IOException {
+    Integer score = null;
+    double pronunciation = 0;
+    double fluency = 0;
+    double grammar = 0;
+    double vocabulary = 0;
+    String feedback = null;
+    List<String> suggestedFocus = null;
+
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String field = p.currentName();
+      JsonToken value = p.nextToken();
+      switch (field) {
+        case "score" -> {
+          double number = number(p, Double.NaN);
+          score = Double.isNaN(number) ? null : (int) Math.round(number);
+        }
+        case "index" -> index[0] = (int) number(p, 0);
+        case "feedback" -> feedback = value == JsonToken.VALUE_NULL ? null : string(p);
+        case "suggestedFocus" -> {
+          if (value == JsonToken.START_ARRAY) {
+            suggestedFocus = new ArrayList<>();
+            JsonToken item;
+            while ((item = p.nextToken()) != JsonToken.END_ARRAY && item != null) {
+              if (item == JsonToken.VALUE_STRING) {
+                suggestedFocus.add(p.getText());
+              } else {
+                p.skipChildren();
+              }
+            }
+          } else {
+            p.skipChildren();
+          }
+        }
+        case "rubric" -> {
+          if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            break;
+          }
+          while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String criterion = p.currentName();
+            p.nextToken();
+            switch (criterion) {
+              case "pronunciation" -> pronunciation = number(p, 0);
+              case "fluency" -> fluency = number(p, 0);
+              case "grammar" -> grammar = number(p, 0);
+              case "vocabulary" -> vocabulary = number(p, 0);
+              default -> p.skipChildren();
+            }
+          }
+        }
+        default -> p.skipChildren();
+      }
+    }
+    return new SpeechEvaluation(score, pronunciation, fluency, grammar, vocabulary, feedback, suggestedFocus);
+  }
+
+  // Current token is the value; containers are skipped and yield the default
+  private static double number(JsonParser p, double defaultValue) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+      p.skipChildren();
+      return defaultValue;
+    }
+    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return p.getDoubleValue();
+    }
+    return token == JsonToken.VALUE_STRING ? p.getValueAsDouble(defaultValue) : defaultValue;
+  }
+
+  private static String string(JsonParser p) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+      p.skipChildren();
+      return null;
+    }
+    return p.getValueAsString();
+  }
+
+  // Reads from the first opening bracket on, without copying the text
+  private static JsonParser parserAt(String text, char open) throws IOException {
+    int start = text != null ? text.indexOf(open) : -1;
+    if (start < 0) {
+      throw new IOException("Gemini output contains no JSON");
+    }
+    StringReader reader = new StringReader(text);
+    reader.skip(start);
+    return JSON.createParser(reader);
+  }
+}
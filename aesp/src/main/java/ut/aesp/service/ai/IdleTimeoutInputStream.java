@@ -0,0 +1,79 @@
+package ut.aesp.service.ai;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body that gives up when no data arrives for {@code idleMs}. Each read arms a
+ * watchdog that closes the underlying stream, which releases a reader blocked on a stalled
+ * connection; the reader then gets an {@link HttpTimeoutException} instead of waiting forever.
+ */
+class IdleTimeoutInputStream extends FilterInputStream {
+
+  private final ScheduledExecutorService watchdog;
+  private final long idleMs;
+  private volatile boolean timedOut;
+
+  IdleTimeoutInputStream(InputStream in, ScheduledExecutorService watchdog, long idleMs) {
+    super(in);
+    this.watchdog = watchdog;
+    this.idleMs = idleMs;
+  }
+
+  @Override
+  public int read() throws IOException {
+    ScheduledFuture<?> timeout = arm();
+    try {
+      return checked(super.read());
+    } catch (IOException e) {
+      throw timedOut ? timeoutException() : e;
+    } finally {
+      timeout.cancel(false);
+    }
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    ScheduledFuture<?> timeout = arm();
+    try {
+      return checked(super.read(b, off, len));
+    } catch (IOException e) {
+      throw timedOut ? timeoutException() : e;
+    } finally {
+      timeout.cancel(false);
+    }
+  }
+
+  private ScheduledFuture<?> arm() throws IOException {
+    if (timedOut) {
+      throw timeoutException();
+    }
+    return watchdog.schedule(this::expire, idleMs, TimeUnit.MILLISECONDS);
+  }
+
+  private void expire() {
+    timedOut = true;
+    try {
+      in.close();
+    } catch (IOException ignored) {
+      // the reader sees the timeout either way
+    }
+  }
+
+  // A body closed by the watchdog ends early; that is a timeout, not the end of the response
+  private int checked(int result) throws IOException {
+    if (result < 0 && timedOut) {
+      throw timeoutException();
+    }
+    return result;
+  }
+
+  private HttpTimeoutException timeoutException() {
+    return new HttpTimeoutException("No response data received for " + idleMs + " ms");
+  }
+}
@@ -0,0 +1,248 @@
+package ut.aesp.service.ai;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process heuristic evaluator: no network, linear in the transcript length (well under
+ * 5 ms for a spoken answer). Used when Gemini is unavailable, overloaded or too slow for
+ * the caller's latency budget.
+ * <ul>
+ * <li>Vocabulary: root type-token ratio (types / sqrt(tokens), less length-biased than plain
+ * TTR) plus the share of long words, damped for very short answers.</li>
+ * <li>Grammar: errors per 100 words from rules for frequent learner mistakes (articles,
+ * agreement, verb forms after auxiliaries, uncountable nouns, double comparatives).</li>
+ * <li>Fluency: speaking rate against a comfortable 100-160 words per minute when the duration
+ * is known, and fillers and immediate repetitions.</li>
+ * <li>Pronunciation cannot be judged from text; it is reported as a proxy derived from the
+ * other three.</li>
+ * </ul>
+ */
+@Component
+public class LocalSpeechEvaluator implements SpeechEvaluator {
+
+  public static final String VERSION = "local-heuristic-1";
+
+  private record Rule(Pattern pattern, String label) {
+  }
+
+  private static final String MODALS = "did|didn't|does|doesn't|do|don't|can|can't|cannot|will|won't|would|"
+      + "could|should|must|might|may";
+
+  private static final List<Rule> GRAMMAR_RULES = List.of(
+      rule("\\ba (?!uni|use|usu|one|once|eu|u\\b)[aeiou][a-z']*", "\"a\" before a vowel sound"),
+      rule("\\ban (?![aeiouh])[a-z][a-z']*", "\"an\" before a consonant sound"),
+      rule("(?<!\\b(?:" + MODALS + "|let|make|made|help|to) )\\b(?:he|she|it) "
+          + "(?:go|want|like|make|think|know|need|say|live|work|have|do|don't)\\b", "third person -s"),
+      rule("\\b(?:he|she|it) (?:are|were)\\b", "subject-verb agreement"),
+      rule("\\bi (?:is|are|has|does|doesn't)\\b", "subject-verb agreement"),
+      rule("\\b(?:you|we|they|people|children) (?:is|was|has|does|doesn't)\\b", "subject-verb agreement"),
+      rule("\\b(?:am|is|are) agree\\b", "\"agree\" is a verb"),
+      rule("\\b(?:am|is|are) (?:go|want|like|need|think|know|have|live|work|play|study)\\b", "be + base verb"),
+      rule("\\b(?:" + MODALS + ") (?!\\w*eed\\b)\\w+ed\\b", "past form after an auxiliary"),
+      rule("\\b(?:more|most) (?:better|best|worse|worst|bigger|biggest|easier|easiest|happier|happiest)\\b",
+          "double comparative"),
+      rule("\\bmuch (?:people|friends|things|books|students|times)\\b", "\"much\" with a countable noun"),
+      rule("\\bmany (?:money|information|time|water|advice|homework|furniture)\\b",
+          "\"many\" with an uncountable noun"),
+      rule("\\b(?:informations|advices|furnitures|homeworks|equipments|knowledges)\\b",
+          "uncountable noun in plural"));
+
+  private static final Set<String> FILLERS = Set.of("um", "umm", "uh", "uhm", "er", "erm", "ah", "hmm");
+
+  // Repeating these is usually grammatical ("that that", "had had")
+  private static final Set<String> REPEATABLE = Set.of("that", "had");
+
+  private static final Map<String, String> FOCUS_TIPS = Map.of(
+      "Fluency", "Luyện nói liền mạch, hạn chế ngập ngừng (um, uh) và lặp từ.",
+      "Grammar", "Chú ý sự hòa hợp chủ ngữ - động từ, mạo từ a/an và dạng động từ sau trợ động từ.",
+      "Vocabulary", "Mở rộng vốn từ: dùng từ đồng nghĩa và tránh lặp lại cùng một từ.");
+
+  private final Timer latency;
+
+  public LocalSpeechEvaluator(MeterRegistry meterRegistry) {
+    this.latency = Timer.builder("ai.evaluator.latency")
+        .tag("evaluator", "local")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String version() {
+    return VERSION;
+  }
+
+  @Override
+  public SpeechEvaluation evaluate(SpeechInput input) {
+    long start = System.nanoTime();
+    try {
+      return score(input.speechText(), input.durationSeconds());
+    } finally {
+      latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private SpeechEvaluation score(String speechText, Integer durationSeconds) {
+    List<String> words = tokenize(speechText);
+    int n = words.size();
+    if (n == 0) {
+      return new SpeechEvaluation(0, 0, 0, 0, 0,
+          "Đánh giá nhanh: không nhận được nội dung bài nói để đánh giá.", List.of("Fluency"));
+    }
+    // Short answers give little evidence either way; pull them towards the middle
+    double lengthFactor = Math.min(1.0, 0.5 + n / 60.0);
+
+    // Vocabulary
+    Set<String> types = new HashSet<>(words);
+    int longWords = 0;
+    for (String word : words) {
+      if (word.length() >= 7) {
+        longWords++;
+      }
+    }
+    double rootTtr = types.size() / Math.sqrt(n);
+    double vocabulary = clamp((10 * (rootTtr - 2) / 6 + Math.min(1.5, 10.0 * longWords / n)) * lengthFactor);
+
+    // Grammar
+    String normalized = String.join(" ", words);
+    List<String> examples = new ArrayList<>(3);
+    int errors = 0;
+    for (Rule rule : GRAMMAR_RULES) {
+      Matcher m = rule.pattern().matcher(normalized);
+      while (m.find()) {
+        errors++;
+        if (examples.size() < 3) {
+          examples.add("\"" + m.group() + "\" (" + rule.label() + ")");
+        }
+      }
+    }
+    double errorsPer100 = 100.0 * errors / n;
+    double grammar = clamp(10 - 0.8 * errorsPer100);
+    if (n < 20) {
+      grammar = Math.min(grammar, 7);
+    }
+
+    // Fluency
+    int disfluencies = 0;
+    for (int i = 0; i < n; i++) {
+      String word = words.get(i);
+      if (FILLERS.contains(word)
+          || (i > 0 && word.equals(words.get(i - 1)) && !REPEATABLE.contains(word))) {
+        disfluencies++;
+      }
+    }
+    double disfluencyScore = clamp(10 - 0.5 * (100.0 * disfluencies / n));
+    Double wordsPerMinute = durationSeconds != null && durationSeconds > 0 ? n * 60.0 / durationSeconds : null;
+    double fluency = wordsPerMinute != null
+        ? 0.6 * rateScore(wordsPerMinute) + 0.4 * disfluencyScore
+        : disfluencyScore * lengthFactor;
+
+    double pronunciation = clamp(0.6 * fluency + 0.2 * grammar + 0.2 * vocabulary);
+
+    pronunciation = round1(pronunciation);
+    fluency = round1(fluency);
+    grammar = round1(grammar);
+    vocabulary = round1(vocabulary);
+    int score = (int) Math.round((pronunciation + fluency + grammar + vocabulary) * 2.5);
+
+    List<String> focus = weakest(fluency, grammar, vocabulary);
+    return new SpeechEvaluation(score, pronunciation, fluency, grammar, vocabulary,
+        feedback(n, types.size(), errors, examples, wordsPerMinute, disfluencies, focus), focus);
+  }
+
+  private static String feedback(int words, int types, int errors, List<String> examples, Double wordsPerMinute,
+      int disfluencies, List<String> focus) {
+    StringBuilder sb = new StringBuilder("Đánh giá nhanh (tự động, không dùng AI): ");
+    sb.append("bài nói có ").append(words).append(" từ, trong đó ").append(types).append(" từ khác nhau. ");
+    if (errors > 0) {
+      sb.append("Phát hiện ").append(errors).append(" lỗi ngữ pháp thường gặp, ví dụ: ")
+          .append(String.join(", ", examples)).append(". ");
+    } else {
+      sb.append("Không phát hiện lỗi ngữ pháp thường gặp. ");
+    }
+    if (wordsPerMinute != null) {
+      sb.append("Tốc độ nói khoảng ").append(Math.round(wordsPerMinute)).append(" từ/phút");
+      sb.append(wordsPerMinute < 100 ? " (hơi chậm). " : wordsPerMinute > 160 ? " (hơi nhanh). " : " (phù hợp). ");
+    }
+    if (disfluencies > 0) {
+      sb.append("Có ").append(disfluencies).append(" lần ngập ngừng hoặc lặp từ. ");
+    }
+    for (String area : focus) {
+      sb.append(FOCUS_TIPS.get(area)).append(' ');
+    }
+    return sb.toString().trim();
+  }
+
+  // Lower-case words; letters, digits and inner apostrophes
+  private static List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) {
+      return words;
+    }
+    StringBuilder word = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (Character.isLetterOrDigit(c) || ((c == '\'' || c == '’') && !word.isEmpty())) {
+        word.append(c == '’' ? '\'' : Character.toLowerCase(c));
+      } else if (!word.isEmpty()) {
+        words.add(trimApostrophe(word));
+        word.setLength(0);
+      }
+    }
+    if (!word.isEmpty()) {
+      words.add(trimApostrophe(word));
+    }
+    return words;
+  }
+
+  private static String trimApostrophe(StringBuilder word) {
+    int end = word.length();
+    while (end > 1 && word.charAt(end - 1) == '\'') {
+      end--;
+    }
+    return word.substring(0, end);
+  }
+
+  // 10 between 100 and 160 wpm, falling to 0 at 40 and at 240
+  private static double rateScore(double wordsPerMinute) {
+    if (wordsPerMinute < 100) {
+      return clamp(10 * (wordsPerMinute - 40) / 60);
+    }
+    if (wordsPerMinute > 160) {
+      return clamp(10 * (240 - wordsPerMinute) / 80);
+    }
+    return 10;
+  }
+
+  // Pronunciation is only a proxy here, so it is never suggested
+  private static List<String> weakest(double fluency, double grammar, double vocabulary) {
+    List<Map.Entry<String, Double>> criteria = new ArrayList<>(List.of(
+        Map.entry("Fluency", fluency),
+        Map.entry("Grammar", grammar),
+        Map.entry("Vocabulary", vocabulary)));
+    criteria.sort(Comparator.comparingDouble(Map.Entry::getValue));
+    return List.of(criteria.get(0).getKey(), criteria.get(1).getKey());
+  }
+
+  private static Rule rule(String regex, String label) {
+    return new Rule(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), label);
+  }
+
+  private static double clamp(double value) {
+    return Math.max(0, Math.min(10, value));
+  }
+
+  private static double round1(double value) {
+    return Math.round(value * 10) / 10.0;
+  }
+}
@@ -0,0 +1,27 @@
+package ut.aesp.service.ai;
+
+import ut.aesp.dto.session.AiEvaluationResponse;
+
+import java.util.List;
+
+/**
+ * Decoded evaluation of one transcript: overall score, the four rubric criteria (0-10),
+ * feedback text and suggested focus areas. Immutable, so it is cached and shared as is.
+ */
+public record SpeechEvaluation(
+    Integer score,
+    double pronunciation,
+    double fluency,
+    double grammar,
+    double vocabulary,
+    String feedback,
+    List<String> suggestedFocus) {
+
+  public SpeechEvaluation {
+    suggestedFocus = suggestedFocus == null ? List.of() : List.copyOf(suggestedFocus);
+  }
+
+  public AiEvaluationResponse.Rubric toRubric() {
+    return new AiEvaluationResponse.Rubric(pronunciation, fluency, grammar, vocabulary);
+  }
+}
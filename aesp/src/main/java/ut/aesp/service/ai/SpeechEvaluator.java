@@ -0,0 +1,16 @@
+package ut.aesp.service.ai;
+
+/**
+ * Scores one transcript. Implemented by {@link GeminiHttpClient} (remote model) and
+ * {@link LocalSpeechEvaluator} (in-process heuristics); {@link EvaluationRouter} picks
+ * one per call.
+ */
+public interface SpeechEvaluator {
+
+  /**
+   * Identifies the engine and its version; stored as the session's aiVersion
+   */
+  String version();
+
+  SpeechEvaluation evaluate(SpeechInput input);
+}
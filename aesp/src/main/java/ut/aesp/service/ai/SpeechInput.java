@@ -0,0 +1,14 @@
+package ut.aesp.service.ai;
+
+/**
+ * What an evaluator scores: the transcript, its context, when known how long the learner
+ * spoke (used for speaking rate), optionally the recording itself and the language feedback
+ * should be written in (null for the default one)
+ */
+public record SpeechInput(String speechText, String topic, String scenario, String targetLevel,
+    Integer durationSeconds, AudioClip audio, String language) {
+
+  public SpeechInput(String speechText, String topic, String scenario, String targetLevel, Integer durationSeconds) {
+    this(speechText, topic, scenario, targetLevel, durationSeconds, null, null);
+  }
+}
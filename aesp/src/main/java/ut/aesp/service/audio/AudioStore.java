@@ -0,0 +1,265 @@
+package ut.aesp.service.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import ut.aesp.exception.APIException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * Local-disk stand-in for an object store. Uploads grow in {@code partial/<uploadId>}; a
+ * finished recording moves to {@code blobs/<aa>/<sha256>}, so identical recordings are
+ * stored once. Request bodies go to disk through {@link FileChannel#transferFrom}, which
+ * copies via a small per-thread buffer: memory use does not grow with file size or with the
+ * number of concurrent uploads.
+ */
+@Slf4j
+@Component
+public class AudioStore {
+
+  private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+  private final Path partialDir;
+  private final Path blobDir;
+
+  public AudioStore(@Value("${app.audio.storage-dir:${java.io.tmpdir}/aesp-audio}") String storageDir)
+      throws IOException {
+    Path root = Path.of(storageDir).toAbsolutePath();
+    this.partialDir = Files.createDirectories(root.resolve("partial"));
+    this.blobDir = Files.createDirectories(root.resolve("blobs"));
+    log.info("[Audio] Storing recordings under {}", root);
+  }
+
+  /**
+   * Open an upload's partial file for appending. The returned handle holds an exclusive
+   * lock on the file, so two chunks of one upload are never written at the same time;
+   * a second writer is refused with 409 rather than made to wait.
+   */
+  public PartialFile openPartial(String uploadId) {
+    Path path = partialPath(uploadId);
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.READ);
+      FileLock lock = channel.tryLock();
+      if (lock == null) {
+        throw new OverlappingFileLockException();
+      }
+      return new PartialFile(channel, lock);
+    } catch (OverlappingFileLockException e) {
+      closeQuietly(channel);
+      throw new APIException("Another chunk of this upload is being written", HttpStatus.CONFLICT);
+    } catch (IOException e) {
+      closeQuietly(channel);
+      throw new UncheckedIOException("Failed to open upload " + uploadId, e);
+    }
+  }
+
+  /**
+   * SHA-256 of the partial file, read sequentially through a fixed buffer
+   */
+  public String sha256(String uploadId) {
+    try (FileChannel channel = FileChannel.open(partialPath(uploadId), StandardOpenOption.READ)) {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to hash upload " + uploadId, e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Length in seconds of a PCM WAV partial file from its RIFF header, or null when the
+   * header cannot be read
+   */
+  public Integer wavDurationSeconds(String uploadId) {
+    try (FileChannel channel = FileChannel.open(partialPath(uploadId), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+      header.flip();
+      if (header.remaining() < 12 || header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) {
+        return null; // not "RIFF....WAVE"
+      }
+      long byteRate = 0;
+      int position = 12;
+      while (position + 8 <= header.limit()) {
+        int id = header.getInt(position);
+        long size = Integer.toUnsignedLong(header.getInt(position + 4));
+        if (id == 0x20746d66 && position + 20 <= header.limit()) { // "fmt "
+          byteRate = Integer.toUnsignedLong(header.getInt(position + 16));
+        } else if (id == 0x61746164) { // "data"
+          // Streaming writers leave the size at 0 or -1; the rest of the file is then the data
+          long available = channel.size() - position - 8;
+          long dataBytes = size == 0 || size == 0xFFFFFFFFL ? available : Math.min(size, available);
+          return byteRate > 0 ? (int) Math.ceil((double) dataBytes / byteRate) : null;
+        } else if (size > header.limit()) {
+          return null;
+        }
+        position += 8 + (int) (size + (size & 1));
+      }
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read upload " + uploadId, e);
+    }
+  }
+
+  /**
+   * Move a finished upload to its content-addressed blob. When the blob already exists the
+   * partial copy is simply dropped and the blob's modification time renewed, which keeps
+   * {@link #deleteBlob} from removing it under the new upload.
+   *
+   * @return true if this call stored new bytes, false if they were a duplicate
+   */
+  public boolean commit(String uploadId, String contentHash) {
+    Path blob = blobPath(contentHash);
+    Path partial = partialPath(uploadId);
+    try {
+      if (Files.exists(blob)) {
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+        Files.deleteIfExists(partial);
+        return false;
+      }
+      Files.createDirectories(blob.getParent());
+      Files.move(partial, blob, StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    } catch (FileAlreadyExistsException e) {
+      discard(uploadId);
+      return false;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to store upload " + uploadId, e);
+    }
+  }
+
+  public Path blobPath(String contentHash) {
+    return blobDir.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+  }
+
+  /**
+   * Delete a blob no upload refers to any more, unless it was stored or reused after
+   * {@code unusedSince}
+   *
+   * @return true if the blob was deleted
+   */
+  public boolean deleteBlob(String contentHash, LocalDateTime unusedSince) {
+    Path blob = blobPath(contentHash);
+    try {
+      Instant cutoff = unusedSince.atZone(ZoneId.systemDefault()).toInstant();
+      if (!Files.exists(blob) || Files.getLastModifiedTime(blob).toInstant().isAfter(cutoff)) {
+        return false;
+      }
+      return Files.deleteIfExists(blob);
+    } catch (IOException e) {
+      log.warn("[Audio] Could not delete blob {}: {}", contentHash, e.getMessage());
+      return false;
+    }
+  }
+
+  public void discard(String uploadId) {
+    try {
+      Files.deleteIfExists(partialPath(uploadId));
+    } catch (IOException e) {
+      log.warn("[Audio] Could not delete partial upload {}: {}", uploadId, e.getMessage());
+    }
+  }
+
+  private Path partialPath(String uploadId) {
+    return partialDir.resolve(uploadId);
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // nothing to do
+      }
+    }
+  }
+
+  /**
+   * A locked partial file; closing it releases the lock
+   */
+  public static final class PartialFile implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private PartialFile(FileChannel channel, FileLock lock) {
+      this.channel = channel;
+      this.lock = lock;
+    }
+
+    /**
+     * Write the stream at {@code offset}, accepting at most {@code maxBytes}. Bytes past
+     * the offset left by an earlier, unacknowledged chunk are overwritten.
+     *
+     * @return the number of bytes written
+     */
+    public long append(long offset, InputStream body, long maxBytes) throws IOException {
+      long size = channel.size();
+      if (size < offset) {
+        throw new APIException("Upload data is missing before offset " + offset + ", resume from " + size,
+            HttpStatus.CONFLICT);
+      }
+      if (size > offset) {
+        channel.truncate(offset);
+      }
+      ReadableByteChannel source = Channels.newChannel(body);
+      long written = 0;
+      // One byte over the limit is enough to tell the client sent too much
+      while (written <= maxBytes) {
+        long n = channel.transferFrom(source, offset + written, maxBytes + 1 - written);
+        if (n <= 0) {
+          break;
+        }
+        written += n;
+      }
+      if (written > maxBytes) {
+        channel.truncate(offset);
+        throw new APIException("Chunk exceeds the declared upload size", HttpStatus.PAYLOAD_TOO_LARGE);
+      }
+      // The acknowledged offset must survive a crash, or the client would resume past missing bytes
+      channel.force(false);
+      return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        lock.release();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+}
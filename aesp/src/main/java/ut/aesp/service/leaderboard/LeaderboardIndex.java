@@ -0,0 +1,371 @@
+package ut.aesp.service.leaderboard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ut.aesp.dto.leaderboard.LeaderboardEntryResponse;
+import ut.aesp.dto.leaderboard.LearnerSeedRow;
+import ut.aesp.dto.leaderboard.LearnerSessionStatsRow;
+import ut.aesp.dto.leaderboard.SessionTimestampRow;
+import ut.aesp.event.LearnerProfileChangedEvent;
+import ut.aesp.event.PracticeSessionRecordedEvent;
+import ut.aesp.repository.AiPracticeSessionRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory leaderboard kept in step with session inserts and aiScore changes.
+ * Ranking is by aiScore for every filter, so one order-statistic tree serves all three;
+ * the weekly/monthly windows only differ in session counts and streaks, which are kept
+ * as per-learner timestamp deques in ascending order (late events are inserted in place)
+ * and trimmed by {@link #expireWindows()}. A learner first seen in a session event is
+ * loaded from the database so it enters with its name and score.
+ * Rebuilt from the database at startup and periodically to correct any drift. Events that
+ * arrive while a rebuild is reading are applied to the live index and also replayed onto the
+ * rebuilt one before it is swapped in, unless its snapshot already contains the session.
+ */
+@Slf4j
+@Component
+public class LeaderboardIndex {
+
+  private static final class LearnerState {
+    String name;
+    int totalSessions;
+    LocalDate lastDay;
+    int streak;
+    final ArrayDeque<LocalDateTime> weekly = new ArrayDeque<>();
+    final ArrayDeque<LocalDateTime> monthly = new ArrayDeque<>();
+  }
+
+  // A session event and, for a learner the index did not know, its profile
+  private record RecordedSession(PracticeSessionRecordedEvent event, LearnerSeedRow profile) {
+  }
+
+  private final LearnerProfileRepository learnerProfileRepository;
+  private final AiPracticeSessionRepository sessionRepository;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private RankedScoreIndex ranking = new RankedScoreIndex();
+  private Map<Long, LearnerState> learners = new HashMap<>();
+  // Events seen since the running rebuild started reading; null when none is running
+  private List<Object> pendingEvents;
+  private volatile boolean ready;
+
+  public LeaderboardIndex(LearnerProfileRepository learnerProfileRepository,
+      AiPracticeSessionRepository sessionRepository) {
+    this.learnerProfileRepository = learnerProfileRepository;
+    this.sessionRepository = sessionRepository;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    rebuild();
+  }
+
+  @Scheduled(initialDelayString = "${app.leaderboard.rebuild-interval-ms:3600000}",
+      fixedDelayString = "${app.leaderboard.rebuild-interval-ms:3600000}")
+  public synchronized void rebuild() {
+    lock.writeLock().lock();
+    try {
+      pendingEvents = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      LocalDateTime weekStart = LeaderboardWindow.WEEKLY.startFrom(now);
+      RankedScoreIndex freshRanking = new RankedScoreIndex();
+      Map<Long, LearnerState> freshLearners = new HashMap<>();
+      Set<Long> seenSessions = new HashSet<>();
+
+      for (LearnerSeedRow row : learnerProfileRepository.findLeaderboardSeeds()) {
+        long learnerId = row.getLearnerId().longValue();
+        LearnerState state = new LearnerState();
+        state.name = row.getLearnerName();
+        freshLearners.put(learnerId, state);
+        freshRanking.put(learnerId, row.getAiScore() != null ? row.getAiScore().floatValue() : 0f);
+      }
+      for (LearnerSessionStatsRow row : sessionRepository.findLearnerSessionStats()) {
+        LearnerState state = freshLearners.get(row.getLearnerId().longValue());
+        if (state != null) {
+          state.totalSessions = row.getTotalSessions().intValue();
+          state.lastDay = toLocalDate(row.getLastDay());
+          state.streak = row.getStreak() != null ? row.getStreak().intValue() : 0;
+        }
+      }
+      for (SessionTimestampRow row : sessionRepository.findSessionTimestampsAfter(
+          LeaderboardWindow.MONTHLY.startFrom(now))) {
+        LearnerState state = freshLearners.get(row.getLearnerId().longValue());
+        LocalDateTime createdAt = toLocalDateTime(row.getCreatedAt());
+        if (row.getSessionId() != null) {
+          seenSessions.add(row.getSessionId().longValue());
+        }
+        if (state != null && createdAt != null) {
+          state.monthly.addLast(createdAt);
+          if (createdAt.isAfter(weekStart)) {
+            state.weekly.addLast(createdAt);
+          }
+        }
+      }
+
+      lock.writeLock().lock();
+      try {
+        for (Object event : pendingEvents) {
+          if (event instanceof RecordedSession recorded) {
+            Long sessionId = recorded.event().sessionId();
+            if (sessionId == null || !seenSessions.contains(sessionId)) {
+              applySession(recorded, freshRanking, freshLearners, now);
+            }
+          } else {
+            applyLearner((LearnerProfileChangedEvent) event, freshRanking, freshLearners);
+          }
+        }
+        ranking = freshRanking;
+        learners = freshLearners;
+        ready = true;
+      } finally {
+        pendingEvents = null;
+        lock.writeLock().unlock();
+      }
+      log.info("[Leaderboard] Rebuilt in-memory index with {} learners", freshLearners.size());
+    } catch (Exception e) {
+      lock.writeLock().lock();
+      try {
+        pendingEvents = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      log.error("[Leaderboard] Failed to rebuild in-memory index, SQL mode stays in use", e);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionRecorded(PracticeSessionRecordedEvent event) {
+    if (event.learnerId() == null) {
+      return;
+    }
+    // Loaded before taking the lock; a concurrent rebuild may pick the learner up meanwhile, which is harmless
+    LearnerSeedRow profile = isKnown(event.learnerId())
+        ? null
+        : learnerProfileRepository.findLeaderboardSeed(event.learnerId()).orElse(null);
+    RecordedSession recorded = new RecordedSession(event, profile);
+    lock.writeLock().lock();
+    try {
+      applySession(recorded, ranking, learners, LocalDateTime.now());
+      if (pendingEvents != null) {
+        pendingEvents.add(recorded);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onLearnerChanged(LearnerProfileChangedEvent event) {
+    lock.writeLock().lock();
+    try {
+      applyLearner(event, ranking, learners);
+      if (pendingEvents != null) {
+        pendingEvents.add(event);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean isKnown(long learnerId) {
+    lock.readLock().lock();
+    try {
+      return learners.containsKey(learnerId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static void applySession(RecordedSession recorded, RankedScoreIndex ranking,
+      Map<Long, LearnerState> learners, LocalDateTime now) {
+    PracticeSessionRecordedEvent event = recorded.event();
+    LocalDateTime createdAt = event.createdAt() != null ? event.createdAt() : now;
+    LocalDate day = createdAt.toLocalDate();
+    LearnerState state = learners.computeIfAbsent(event.learnerId(), id -> {
+      LearnerSeedRow profile = recorded.profile();
+      LearnerState fresh = new LearnerState();
+      fresh.name = profile != null ? profile.getLearnerName() : null;
+      ranking.put(id, profile != null && profile.getAiScore() != null ? profile.getAiScore().floatValue() : 0f);
+      return fresh;
+    });
+    state.totalSessions++;
+    if (createdAt.isAfter(LeaderboardWindow.MONTHLY.startFrom(now))) {
+      insertSorted(state.monthly, createdAt);
+    }
+    if (createdAt.isAfter(LeaderboardWindow.WEEKLY.startFrom(now))) {
+      insertSorted(state.weekly, createdAt);
+    }
+    if (state.lastDay == null || day.isAfter(state.lastDay)) {
+      state.streak = state.lastDay != null && state.lastDay.plusDays(1).equals(day) ? state.streak + 1 : 1;
+      state.lastDay = day;
+    } else if (!day.equals(state.lastDay) && !state.monthly.isEmpty()
+        && state.monthly.peekLast().toLocalDate().equals(state.lastDay)) {
+      // A late session can close a gap in the current run. The month holds the run unless it
+      // started before the month, in which case the next rebuild corrects the count.
+      state.streak = Math.max(state.streak, latestRun(state.monthly));
+    }
+  }
+
+  // Appends in the usual case; a late timestamp is moved back to its place
+  private static void insertSorted(ArrayDeque<LocalDateTime> timestamps, LocalDateTime timestamp) {
+    if (timestamps.isEmpty() || !timestamp.isBefore(timestamps.peekLast())) {
+      timestamps.addLast(timestamp);
+      return;
+    }
+    ArrayDeque<LocalDateTime> later = new ArrayDeque<>();
+    while (!timestamps.isEmpty() && timestamp.isBefore(timestamps.peekLast())) {
+      later.push(timestamps.pollLast());
+    }
+    timestamps.addLast(timestamp);
+    while (!later.isEmpty()) {
+      timestamps.addLast(later.pop());
+    }
+  }
+
+  private static void applyLearner(LearnerProfileChangedEvent event, RankedScoreIndex ranking,
+      Map<Long, LearnerState> learners) {
+    if (event.deleted()) {
+      learners.remove(event.learnerId());
+      ranking.remove(event.learnerId());
+      return;
+    }
+    LearnerState state = learners.computeIfAbsent(event.learnerId(), id -> new LearnerState());
+    state.name = event.learnerName();
+    ranking.put(event.learnerId(), event.aiScore() != null ? event.aiScore() : 0f);
+  }
+
+  @Scheduled(fixedDelayString = "${app.leaderboard.expire-interval-ms:60000}")
+  public void expireWindows() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime weekStart = LeaderboardWindow.WEEKLY.startFrom(now);
+    LocalDateTime monthStart = LeaderboardWindow.MONTHLY.startFrom(now);
+
+    lock.writeLock().lock();
+    try {
+      for (LearnerState state : learners.values()) {
+        trim(state.weekly, weekStart);
+        trim(state.monthly, monthStart);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public List<LeaderboardEntryResponse> top(LeaderboardWindow window, int limit) {
+    lock.readLock().lock();
+    try {
+      List<Long> ids = ranking.top(limit);
+      List<LeaderboardEntryResponse> result = new ArrayList<>(ids.size());
+      for (int i = 0; i < ids.size(); i++) {
+        result.add(toEntry(ids.get(i), i + 1, window));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Optional<LeaderboardEntryResponse> entryFor(long learnerId, LeaderboardWindow window) {
+    lock.readLock().lock();
+    try {
+      int rank = ranking.rankOf(learnerId);
+      return rank < 0 ? Optional.empty() : Optional.of(toEntry(learnerId, rank, window));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private LeaderboardEntryResponse toEntry(long learnerId, int rank, LeaderboardWindow window) {
+    LearnerState state = learners.get(learnerId);
+    int totalSessions;
+    int streak;
+    switch (window) {
+      case WEEKLY:
+        totalSessions = state.weekly.size();
+        streak = latestRun(state.weekly);
+        break;
+      case MONTHLY:
+        totalSessions = state.monthly.size();
+        streak = latestRun(state.monthly);
+        break;
+      default:
+        totalSessions = state.totalSessions;
+        streak = state.streak;
+    }
+    return new LeaderboardEntryResponse(rank, learnerId, state.name, ranking.scoreOf(learnerId),
+        totalSessions, streak);
+  }
+
+  // Length of the most recent run of consecutive days in an ascending timestamp deque
+  private static int latestRun(ArrayDeque<LocalDateTime> timestamps) {
+    Iterator<LocalDateTime> it = timestamps.descendingIterator();
+    if (!it.hasNext()) {
+      return 0;
+    }
+    LocalDate current = it.next().toLocalDate();
+    int run = 1;
+    while (it.hasNext()) {
+      LocalDate day = it.next().toLocalDate();
+      if (day.equals(current)) {
+        continue;
+      }
+      if (!day.plusDays(1).equals(current)) {
+        break;
+      }
+      run++;
+      current = day;
+    }
+    return run;
+  }
+
+  private static void trim(ArrayDeque<LocalDateTime> timestamps, LocalDateTime cutoff) {
+    while (!timestamps.isEmpty() && !timestamps.peekFirst().isAfter(cutoff)) {
+      timestamps.pollFirst();
+    }
+  }
+
+  private static LocalDate toLocalDate(Object value) {
+    if (value instanceof LocalDate date) {
+      return date;
+    }
+    if (value instanceof java.sql.Date date) {
+      return date.toLocalDate();
+    }
+    return null;
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    if (value instanceof LocalDateTime dateTime) {
+      return dateTime;
+    }
+    if (value instanceof java.sql.Timestamp timestamp) {
+      return timestamp.toLocalDateTime();
+    }
+    return null;
+  }
+}
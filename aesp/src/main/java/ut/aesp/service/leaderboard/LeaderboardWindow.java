@@ -0,0 +1,37 @@
+package ut.aesp.service.leaderboard;
+
+import java.time.LocalDateTime;
+
+public enum LeaderboardWindow {
+  ALL,
+  WEEKLY,
+  MONTHLY;
+
+  public static LeaderboardWindow from(String filter) {
+    if (filter == null) {
+      return ALL;
+    }
+    switch (filter.toLowerCase()) {
+      case "weekly":
+        return WEEKLY;
+      case "monthly":
+        return MONTHLY;
+      default:
+        return ALL;
+    }
+  }
+
+  /**
+   * Sessions strictly after this instant count towards the window; null for all time
+   */
+  public LocalDateTime startFrom(LocalDateTime now) {
+    switch (this) {
+      case WEEKLY:
+        return now.minusWeeks(1);
+      case MONTHLY:
+        return now.minusMonths(1);
+      default:
+        return null;
+    }
+  }
+}
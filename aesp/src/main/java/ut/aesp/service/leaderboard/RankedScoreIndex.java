@@ -0,0 +1,171 @@
+package ut.aesp.service.leaderboard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic treap of learners ordered by score descending, then learner id ascending
+ * (the same order as the SQL leaderboard). Every node carries its subtree size, so insert,
+ * remove and rank are O(log n) and top-N is O(log n + N).
+ * Not thread-safe; {@link LeaderboardIndex} guards it with a read/write lock.
+ */
+class RankedScoreIndex {
+
+  private static final class Node {
+    final long learnerId;
+    final float score;
+    final int priority;
+    int size = 1;
+    Node left;
+    Node right;
+
+    Node(long learnerId, float score) {
+      this.learnerId = learnerId;
+      this.score = score;
+      this.priority = ThreadLocalRandom.current().nextInt();
+    }
+  }
+
+  private Node root;
+  private final Map<Long, Float> scores = new HashMap<>();
+
+  void put(long learnerId, float score) {
+    Float previous = scores.put(learnerId, score);
+    if (previous != null) {
+      if (previous == score) {
+        return;
+      }
+      root = delete(root, previous, learnerId);
+    }
+    Node[] parts = split(root, score, learnerId);
+    root = merge(merge(parts[0], new Node(learnerId, score)), parts[1]);
+  }
+
+  void remove(long learnerId) {
+    Float previous = scores.remove(learnerId);
+    if (previous != null) {
+      root = delete(root, previous, learnerId);
+    }
+  }
+
+  int size() {
+    return size(root);
+  }
+
+  float scoreOf(long learnerId) {
+    Float score = scores.get(learnerId);
+    return score != null ? score : 0f;
+  }
+
+  /**
+   * 1-based position of the learner, or -1 when not indexed
+   */
+  int rankOf(long learnerId) {
+    Float score = scores.get(learnerId);
+    if (score == null) {
+      return -1;
+    }
+    int rank = 1;
+    Node node = root;
+    while (node != null) {
+      int cmp = compare(score, learnerId, node.score, node.learnerId);
+      if (cmp < 0) {
+        node = node.left;
+      } else {
+        rank += size(node.left);
+        if (cmp == 0) {
+          return rank;
+        }
+        rank++;
+        node = node.right;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Learner ids of the first {@code limit} positions, best first
+   */
+  List<Long> top(int limit) {
+    List<Long> result = new ArrayList<>(Math.min(Math.max(limit, 0), size()));
+    collect(root, limit, result);
+    return result;
+  }
+
+  private void collect(Node node, int limit, List<Long> out) {
+    if (node == null || out.size() >= limit) {
+      return;
+    }
+    collect(node.left, limit, out);
+    if (out.size() < limit) {
+      out.add(node.learnerId);
+    }
+    collect(node.right, limit, out);
+  }
+
+  // Higher score first, then lower id first
+  private static int compare(float scoreA, long idA, float scoreB, long idB) {
+    int cmp = Float.compare(scoreB, scoreA);
+    return cmp != 0 ? cmp : Long.compare(idA, idB);
+  }
+
+  private static int size(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static Node update(Node node) {
+    node.size = 1 + size(node.left) + size(node.right);
+    return node;
+  }
+
+  /**
+   * Split into [keys ordered before (score, id)] and [the rest]
+   */
+  private static Node[] split(Node node, float score, long learnerId) {
+    if (node == null) {
+      return new Node[] { null, null };
+    }
+    if (compare(node.score, node.learnerId, score, learnerId) < 0) {
+      Node[] parts = split(node.right, score, learnerId);
+      node.right = parts[0];
+      return new Node[] { update(node), parts[1] };
+    }
+    Node[] parts = split(node.left, score, learnerId);
+    node.left = parts[1];
+    return new Node[] { parts[0], update(node) };
+  }
+
+  private static Node merge(Node left, Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      return update(left);
+    }
+    right.left = merge(left, right.left);
+    return update(right);
+  }
+
+  private static Node delete(Node node, float score, long learnerId) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(score, learnerId, node.score, node.learnerId);
+    if (cmp == 0) {
+      return merge(node.left, node.right);
+    }
+    if (cmp < 0) {
+      node.left = delete(node.left, score, learnerId);
+    } else {
+      node.right = delete(node.right, score, learnerId);
+    }
+    return update(node);
+  }
+}
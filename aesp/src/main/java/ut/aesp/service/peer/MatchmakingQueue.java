@@ -0,0 +1,308 @@
+package ut.aesp.service.peer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ut.aesp.enums.EnglishLevel;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Waiting pool for peer practice, bucketed by (English level, topic).
+ * Each bucket is an insertion-ordered map, so enqueue, dequeue of the oldest ticket and
+ * cancel by learner id are all O(1). A waiting ticket starts out matching its own level only
+ * and accepts one level further away for every {@code widenAfter} it has waited, up to
+ * {@code maxLevelDistance}.
+ * <p>
+ * Concurrency: matching never crosses topics, so buckets are lock-striped by topic hash and all
+ * levels of a topic share a stripe; requests for different topics never contend. The
+ * authoritative "who is waiting" view is the {@code waiting} map, and a ticket is claimed with
+ * {@code waiting.remove(learnerId, ticket)}. That compare-and-remove succeeds for exactly one
+ * caller, so a learner is handed to at most one partner even against a concurrent cancel or
+ * re-request. Bucket entries whose ticket is no longer in {@code waiting} are stale and are
+ * dropped lazily when they reach the head.
+ */
+@Component
+public class MatchmakingQueue {
+
+  public record Ticket(Long learnerId, EnglishLevel level, String topic, String scenario, Instant enqueuedAt) {
+  }
+
+  public record Pair(Ticket first, Ticket second) {
+  }
+
+  private record BucketKey(EnglishLevel level, String topic) {
+  }
+
+  private static final class Stripe {
+    final ReentrantLock lock = new ReentrantLock();
+    final Map<BucketKey, LinkedHashMap<Long, Ticket>> buckets = new HashMap<>();
+  }
+
+  private static final EnglishLevel[] LEVELS = EnglishLevel.values();
+
+  private final Stripe[] stripes;
+  private final Map<Long, Ticket> waiting = new ConcurrentHashMap<>();
+  private final Duration widenAfter;
+  private final int maxLevelDistance;
+
+  public MatchmakingQueue(
+      @Value("${app.peer.matchmaking.widen-after-seconds:30}") long widenAfterSeconds,
+      @Value("${app.peer.matchmaking.max-level-distance:1}") int maxLevelDistance,
+      @Value("${app.peer.matchmaking.stripes:16}") int stripeCount) {
+    this.widenAfter = Duration.ofSeconds(Math.max(1, widenAfterSeconds));
+    this.maxLevelDistance = Math.max(0, Math.min(maxLevelDistance, LEVELS.length - 1));
+    this.stripes = new Stripe[Math.max(1, stripeCount)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  // Topics differing only in case or surrounding whitespace share a bucket
+  static String normalizeTopic(String topic) {
+    return topic == null ? "" : topic.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Take the best waiting partner for the ticket, or queue the ticket when there is none.
+   * A learner who is already waiting is re-queued with the new ticket.
+   */
+  public Optional<Ticket> matchOrEnqueue(Ticket ticket) {
+    Ticket previous = waiting.remove(ticket.learnerId());
+    if (previous != null) {
+      unlink(previous);
+    }
+
+    Stripe stripe = stripeOf(ticket.topic());
+    String topic = normalizeTopic(ticket.topic());
+    Instant now = ticket.enqueuedAt();
+    stripe.lock.lock();
+    try {
+      for (int distance = 0; distance <= maxLevelDistance; distance++) {
+        for (EnglishLevel level : levelsAt(ticket.level(), distance)) {
+          Ticket head = liveHead(stripe, new BucketKey(level, topic), ticket.learnerId());
+          if (head != null && allowedDistance(head, now) >= distance && claim(stripe, head)) {
+            return Optional.of(head);
+          }
+        }
+      }
+      waiting.put(ticket.learnerId(), ticket);
+      stripe.buckets.computeIfAbsent(bucketOf(ticket), key -> new LinkedHashMap<>()).put(ticket.learnerId(), ticket);
+      return Optional.empty();
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /**
+   * Put a ticket back without matching it, e.g. after its partner's session could not be created.
+   * The original enqueue time is kept so its widening is not reset.
+   */
+  public void requeue(Ticket ticket) {
+    Stripe stripe = stripeOf(ticket.topic());
+    stripe.lock.lock();
+    try {
+      requeueLocked(stripe, ticket);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  public boolean cancel(Long learnerId) {
+    Ticket ticket = waiting.remove(learnerId);
+    if (ticket == null) {
+      return false;
+    }
+    unlink(ticket);
+    return true;
+  }
+
+  public boolean isWaiting(Long learnerId) {
+    return waiting.containsKey(learnerId);
+  }
+
+  public int size() {
+    return waiting.size();
+  }
+
+  /**
+   * Pair bucket heads that have waited long enough to accept a neighbouring level.
+   * Only heads need checking: they are the oldest, so the most widened, ticket of each bucket.
+   */
+  public List<Pair> pairWidened(Instant now) {
+    List<Pair> pairs = new ArrayList<>();
+    if (maxLevelDistance == 0) {
+      return pairs;
+    }
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        for (BucketKey key : new ArrayList<>(stripe.buckets.keySet())) {
+          Ticket head;
+          while ((head = liveHead(stripe, key, null)) != null) {
+            Ticket partner = widenedPartner(stripe, head, now);
+            if (partner == null || !claim(stripe, head)) {
+              break;
+            }
+            if (!claim(stripe, partner)) {
+              // Partner left between lookup and claim; give the head its place back
+              requeueLocked(stripe, head);
+              continue;
+            }
+            pairs.add(new Pair(head, partner));
+          }
+        }
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return pairs;
+  }
+
+  /**
+   * Drop tickets that have waited longer than {@code ttl} and return them
+   */
+  public List<Ticket> expire(Instant now, Duration ttl) {
+    List<Ticket> expired = new ArrayList<>();
+    Instant cutoff = now.minus(ttl);
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        for (LinkedHashMap<Long, Ticket> bucket : stripe.buckets.values()) {
+          Iterator<Ticket> it = bucket.values().iterator();
+          while (it.hasNext()) {
+            Ticket ticket = it.next();
+            boolean live = waiting.get(ticket.learnerId()) == ticket;
+            if (live && !ticket.enqueuedAt().isBefore(cutoff)) {
+              break;
+            }
+            it.remove();
+            if (live && waiting.remove(ticket.learnerId(), ticket)) {
+              expired.add(ticket);
+            }
+          }
+        }
+        stripe.buckets.values().removeIf(Map::isEmpty);
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return expired;
+  }
+
+  private Ticket widenedPartner(Stripe stripe, Ticket head, Instant now) {
+    int allowed = Math.min(allowedDistance(head, now), maxLevelDistance);
+    String topic = normalizeTopic(head.topic());
+    for (int distance = 1; distance <= allowed; distance++) {
+      for (EnglishLevel level : levelsAt(head.level(), distance)) {
+        Ticket candidate = liveHead(stripe, new BucketKey(level, topic), head.learnerId());
+        if (candidate != null) {
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+
+  // Caller holds the stripe lock
+  private boolean claim(Stripe stripe, Ticket ticket) {
+    if (!waiting.remove(ticket.learnerId(), ticket)) {
+      return false;
+    }
+    removeFromBucket(stripe, ticket);
+    return true;
+  }
+
+  // Caller holds the stripe lock
+  private void requeueLocked(Stripe stripe, Ticket ticket) {
+    if (waiting.putIfAbsent(ticket.learnerId(), ticket) == null) {
+      stripe.buckets.computeIfAbsent(bucketOf(ticket), key -> new LinkedHashMap<>()).put(ticket.learnerId(), ticket);
+    }
+  }
+
+  /**
+   * Oldest live ticket of the bucket, dropping stale entries on the way.
+   * A ticket of {@code excludeLearnerId} is never returned.
+   */
+  private Ticket liveHead(Stripe stripe, BucketKey key, Long excludeLearnerId) {
+    LinkedHashMap<Long, Ticket> bucket = stripe.buckets.get(key);
+    if (bucket == null) {
+      return null;
+    }
+    Iterator<Ticket> it = bucket.values().iterator();
+    while (it.hasNext()) {
+      Ticket ticket = it.next();
+      if (waiting.get(ticket.learnerId()) != ticket) {
+        it.remove();
+        continue;
+      }
+      if (!ticket.learnerId().equals(excludeLearnerId)) {
+        return ticket;
+      }
+    }
+    if (bucket.isEmpty()) {
+      stripe.buckets.remove(key);
+    }
+    return null;
+  }
+
+  private void unlink(Ticket ticket) {
+    Stripe stripe = stripeOf(ticket.topic());
+    stripe.lock.lock();
+    try {
+      removeFromBucket(stripe, ticket);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  private static void removeFromBucket(Stripe stripe, Ticket ticket) {
+    BucketKey key = bucketOf(ticket);
+    LinkedHashMap<Long, Ticket> bucket = stripe.buckets.get(key);
+    if (bucket != null) {
+      bucket.remove(ticket.learnerId(), ticket);
+      if (bucket.isEmpty()) {
+        stripe.buckets.remove(key);
+      }
+    }
+  }
+
+  private int allowedDistance(Ticket ticket, Instant now) {
+    long waited = Duration.between(ticket.enqueuedAt(), now).toMillis();
+    return (int) Math.min(maxLevelDistance, Math.max(0, waited / widenAfter.toMillis()));
+  }
+
+  private static List<EnglishLevel> levelsAt(EnglishLevel level, int distance) {
+    if (distance == 0) {
+      return List.of(level);
+    }
+    List<EnglishLevel> result = new ArrayList<>(2);
+    int below = level.ordinal() - distance;
+    int above = level.ordinal() + distance;
+    if (below >= 0) {
+      result.add(LEVELS[below]);
+    }
+    if (above < LEVELS.length) {
+      result.add(LEVELS[above]);
+    }
+    return result;
+  }
+
+  private Stripe stripeOf(String topic) {
+    return stripes[Math.floorMod(normalizeTopic(topic).hashCode(), stripes.length)];
+  }
+
+  private static BucketKey bucketOf(Ticket ticket) {
+    return new BucketKey(ticket.level(), normalizeTopic(ticket.topic()));
+  }
+}
@@ -0,0 +1,70 @@
+package ut.aesp.service.peer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ut.aesp.dto.peer.PeerPracticeResponse;
+import ut.aesp.exception.LearnerAlreadyBookedException;
+import ut.aesp.service.Impl.PeerPracticeService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Periodically pairs learners whose wait has widened their level range and drops
+ * tickets that waited past the TTL, telling the learner over STOMP.
+ */
+@Slf4j
+@Component
+public class MatchmakingSweeper {
+
+  private final MatchmakingQueue matchmakingQueue;
+  private final PeerPracticeService peerPracticeService;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final Duration ticketTtl;
+
+  public MatchmakingSweeper(MatchmakingQueue matchmakingQueue,
+      PeerPracticeService peerPracticeService,
+      SimpMessagingTemplate messagingTemplate,
+      @Value("${app.peer.matchmaking.ticket-ttl-seconds:300}") long ticketTtlSeconds) {
+    this.matchmakingQueue = matchmakingQueue;
+    this.peerPracticeService = peerPracticeService;
+    this.messagingTemplate = messagingTemplate;
+    this.ticketTtl = Duration.ofSeconds(ticketTtlSeconds);
+  }
+
+  @Scheduled(fixedDelayString = "${app.peer.matchmaking.sweep-interval-ms:5000}")
+  public void sweep() {
+    Instant now = Instant.now();
+    for (MatchmakingQueue.Pair pair : matchmakingQueue.pairWidened(now)) {
+      try {
+        peerPracticeService.startMatchedSession(pair);
+      } catch (LearnerAlreadyBookedException e) {
+        // Only the learner who is not already in a session goes back in the queue
+        log.info("[PeerMatch] Learner {} already booked, requeueing the other", e.getLearnerId());
+        for (MatchmakingQueue.Ticket ticket : List.of(pair.first(), pair.second())) {
+          if (!ticket.learnerId().equals(e.getLearnerId())) {
+            matchmakingQueue.requeue(ticket);
+          }
+        }
+      } catch (Exception e) {
+        log.error("[PeerMatch] Failed to start session for learners {} and {}",
+            pair.first().learnerId(), pair.second().learnerId(), e);
+        matchmakingQueue.requeue(pair.first());
+        matchmakingQueue.requeue(pair.second());
+      }
+    }
+
+    for (MatchmakingQueue.Ticket ticket : matchmakingQueue.expire(now, ticketTtl)) {
+      PeerPracticeResponse expired = new PeerPracticeResponse();
+      expired.setLearner1Id(ticket.learnerId());
+      expired.setTopic(ticket.topic());
+      expired.setScenario(ticket.scenario());
+      expired.setStatus("EXPIRED");
+      messagingTemplate.convertAndSend(PeerPracticeService.MATCH_TOPIC + ticket.learnerId(), expired);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package ut.aesp.service.peer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ut.aesp.dto.peer.PeerMessage;
+import ut.aesp.service.ai.EvaluationRouter;
+import ut.aesp.service.ai.SpeechEvaluation;
+import ut.aesp.service.ai.SpeechInput;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces "ai-feedback" requests of a peer session into one evaluation, routed through
+ * {@link EvaluationRouter} like every other evaluation.
+ * Each request restarts a sliding window of {@code windowMs} (capped at {@code maxWaitMs}
+ * after the first pending request); when it closes, everything received so far is evaluated
+ * as one text. Requests that arrive while an evaluation runs are merged into the next one,
+ * so a session never has more than one evaluation in flight and superseded requests are
+ * never evaluated on their own. Evaluations run on the bounded peerFeedbackExecutor and the
+ * result is pushed to /topic/peer-practice.{sessionId}.ai.
+ */
+@Slf4j
+@Component
+public class PeerFeedbackAggregator {
+
+  private static final String FEEDBACK_TOPIC = "/topic/peer-practice.%d.ai";
+
+  private static final class SessionBuffer {
+    final StringBuilder pending = new StringBuilder();
+    int coalesced;
+    long firstPendingAt;
+    ScheduledFuture<?> flush;
+    boolean running;
+    // Set once the buffer is removed from the map; submitters then start a fresh one
+    boolean closed;
+  }
+
+  private final Map<Long, SessionBuffer> sessions = new ConcurrentHashMap<>();
+  private final EvaluationRouter evaluationRouter;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final ThreadPoolTaskExecutor executor;
+  private final ScheduledExecutorService timer;
+  private final long windowMs;
+  private final long maxWaitMs;
+  private final int maxChars;
+
+  public PeerFeedbackAggregator(EvaluationRouter evaluationRouter,
+      SimpMessagingTemplate messagingTemplate,
+      @Qualifier("peerFeedbackExecutor") ThreadPoolTaskExecutor executor,
+      @Value("${app.peer.feedback.window-ms:1500}") long windowMs,
+      @Value("${app.peer.feedback.max-wait-ms:5000}") long maxWaitMs,
+      @Value("${app.peer.feedback.max-chars:4000}") int maxChars) {
+    this.evaluationRouter = evaluationRouter;
+    this.messagingTemplate = messagingTemplate;
+    this.executor = executor;
+    this.windowMs = Math.max(0, windowMs);
+    this.maxWaitMs = Math.max(this.windowMs, maxWaitMs);
+    this.maxChars = Math.max(1, maxChars);
+    this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "peer-feedback-timer");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Queue text for feedback; returns immediately
+   */
+  public void submit(Long sessionId, String content) {
+    if (sessionId == null || content == null || content.isBlank()) {
+      return;
+    }
+    while (true) {
+      SessionBuffer buffer = sessions.computeIfAbsent(sessionId, id -> new SessionBuffer());
+      synchronized (buffer) {
+        if (buffer.closed) {
+          continue;
+        }
+        long now = System.currentTimeMillis();
+        if (buffer.pending.isEmpty()) {
+          buffer.firstPendingAt = now;
+        } else {
+          buffer.pending.append('\n');
+        }
+        buffer.pending.append(content.trim());
+        buffer.coalesced++;
+        // Keep the most recent text when a session talks faster than we evaluate
+        if (buffer.pending.length() > maxChars) {
+          buffer.pending.delete(0, buffer.pending.length() - maxChars);
+        }
+        if (!buffer.running) {
+          long delay = Math.min(windowMs, buffer.firstPendingAt + maxWaitMs - now);
+          schedule(sessionId, buffer, Math.max(0, delay));
+        }
+        return;
+      }
+    }
+  }
+
+  // Caller holds the buffer monitor
+  private void schedule(Long sessionId, SessionBuffer buffer, long delayMs) {
+    if (buffer.flush != null) {
+      buffer.flush.cancel(false);
+    }
+    buffer.flush = timer.schedule(() -> flush(sessionId, buffer), delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  private void flush(Long sessionId, SessionBuffer buffer) {
+    String text;
+    int coalesced;
+    synchronized (buffer) {
+      if (buffer.running || buffer.closed || buffer.pending.isEmpty()) {
+        return;
+      }
+      text = buffer.pending.toString();
+      coalesced = buffer.coalesced;
+      buffer.pending.setLength(0);
+      buffer.coalesced = 0;
+      buffer.flush = null;
+      buffer.running = true;
+    }
+
+    try {
+      executor.execute(() -> evaluate(sessionId, buffer, text, coalesced));
+    } catch (RejectedExecutionException e) {
+      log.warn("[PeerFeedback] Executor saturated, dropping feedback for session {}", sessionId);
+      publish(sessionId, "AI feedback temporarily unavailable. Please try again.");
+      finish(sessionId, buffer);
+    }
+  }
+
+  private void evaluate(Long sessionId, SessionBuffer buffer, String text, int coalesced) {
+    try {
+      log.debug("[PeerFeedback] Evaluating {} coalesced request(s) for session {}", coalesced, sessionId);
+      SpeechEvaluation evaluation = evaluationRouter.evaluate(
+          new SpeechInput(text, "Peer Practice", "Real-time conversation", "B1", null)).evaluation();
+      publish(sessionId, evaluation.feedback() != null ? evaluation.feedback() : "");
+    } catch (Exception e) {
+      log.error("[PeerFeedback] Error getting AI feedback for session {}", sessionId, e);
+      publish(sessionId, "AI feedback temporarily unavailable. Please try again.");
+    } finally {
+      finish(sessionId, buffer);
+    }
+  }
+
+  // Start the next round if more text arrived meanwhile, otherwise retire the buffer
+  private void finish(Long sessionId, SessionBuffer buffer) {
+    synchronized (buffer) {
+      buffer.running = false;
+      if (!buffer.pending.isEmpty()) {
+        long elapsed = System.currentTimeMillis() - buffer.firstPendingAt;
+        schedule(sessionId, buffer, Math.max(0, Math.min(windowMs, maxWaitMs - elapsed)));
+        return;
+      }
+      buffer.closed = true;
+      sessions.remove(sessionId, buffer);
+    }
+  }
+
+  private void publish(Long sessionId, String content) {
+    PeerMessage feedback = new PeerMessage();
+    feedback.setSessionId(sessionId);
+    feedback.setSenderId(0L); // AI sender
+    feedback.setSenderName("AI Assistant");
+    feedback.setContent(content);
+    feedback.setType("ai-feedback");
+    messagingTemplate.convertAndSend(String.format(FEEDBACK_TOPIC, sessionId), feedback);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    timer.shutdownNow();
+  }
+}
@@ -0,0 +1,89 @@
+package ut.aesp.service.peer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.model.PeerPracticeSession;
+import ut.aesp.repository.PeerPracticeSessionRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Who may post to a peer session's STOMP destination: its two learners, while it is ACTIVE,
+ * identified by the authenticated user of the STOMP connection. Lookups are cached for a few seconds (negative ones too, so made-up session ids cost one
+ * query each per TTL); ending a session invalidates it on this node at once, on others within
+ * the TTL.
+ */
+@Component
+public class PeerSessionAccess {
+
+  /**
+   * The learner a session message is attributed to
+   */
+  public record Participant(Long userId, Long learnerId, String name) {
+  }
+
+  private record Members(Participant learner1, Participant learner2) {
+    static final Members NONE = new Members(null, null);
+
+    Optional<Participant> find(Long userId) {
+      if (learner1 != null && userId.equals(learner1.userId())) {
+        return Optional.of(learner1);
+      }
+      if (learner2 != null && userId.equals(learner2.userId())) {
+        return Optional.of(learner2);
+      }
+      return Optional.empty();
+    }
+  }
+
+  private final PeerPracticeSessionRepository sessionRepository;
+  private final Cache<Long, Members> activeSessions;
+
+  public PeerSessionAccess(PeerPracticeSessionRepository sessionRepository, MeterRegistry meterRegistry,
+      @Value("${app.peer.access.ttl-seconds:30}") long ttlSeconds,
+      @Value("${app.peer.access.max-size:10000}") long maxSize) {
+    this.sessionRepository = sessionRepository;
+    this.activeSessions = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, activeSessions, "peerSessionAccess");
+  }
+
+  /**
+   * The learner profile of {@code userId}, when the session exists, is ACTIVE and has it as
+   * one of its learners
+   */
+  public Optional<Participant> participant(Long sessionId, Long userId) {
+    if (sessionId == null || userId == null) {
+      return Optional.empty();
+    }
+    return activeSessions.get(sessionId, this::load).find(userId);
+  }
+
+  public void invalidate(Long sessionId) {
+    activeSessions.invalidate(sessionId);
+  }
+
+  private Members load(Long sessionId) {
+    return sessionRepository.findByIdAndStatus(sessionId, PeerPracticeSession.SessionStatus.ACTIVE)
+        .map(session -> new Members(participant(session.getLearner1()), participant(session.getLearner2())))
+        .orElse(Members.NONE);
+  }
+
+  private static Participant participant(LearnerProfile learner) {
+    if (learner == null || learner.getUser() == null) {
+      return null;
+    }
+    // Named as in the session's response: the account name, else the profile's
+    String name = learner.getUser().getName() != null ? learner.getUser().getName() : learner.getName();
+    return new Participant(learner.getUser().getId(), learner.getId(), name);
+  }
+}
@@ -0,0 +1,103 @@
+package ut.aesp.service.peer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ut.aesp.dto.peer.PeerMessage;
+import ut.aesp.enums.EnglishLevel;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.model.PeerPracticeSession;
+import ut.aesp.repository.PeerPracticeSessionRepository;
+import ut.aesp.service.ai.EvaluationRouter;
+import ut.aesp.service.ai.SpeechEvaluation;
+import ut.aesp.service.ai.SpeechInput;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One evaluation of the whole conversation when a peer session ends, through
+ * {@link EvaluationRouter} so it falls back to the local evaluator when Gemini is unavailable;
+ * the feedback text is stored in PeerPracticeSession.aiFeedback.
+ */
+@Slf4j
+@Component
+public class PeerSessionEvaluator {
+
+  private final PeerTranscriptBuffer transcriptBuffer;
+  private final PeerPracticeSessionRepository sessionRepository;
+  private final EvaluationRouter evaluationRouter;
+  private final ThreadPoolTaskExecutor executor;
+
+  public PeerSessionEvaluator(PeerTranscriptBuffer transcriptBuffer,
+      PeerPracticeSessionRepository sessionRepository,
+      EvaluationRouter evaluationRouter,
+      @Qualifier("peerFeedbackExecutor") ThreadPoolTaskExecutor executor) {
+    this.transcriptBuffer = transcriptBuffer;
+    this.sessionRepository = sessionRepository;
+    this.evaluationRouter = evaluationRouter;
+    this.executor = executor;
+  }
+
+  /**
+   * Evaluate in the background; call after the session's COMPLETED status is committed
+   */
+  public void evaluateAsync(Long sessionId) {
+    try {
+      executor.execute(() -> evaluate(sessionId));
+    } catch (RejectedExecutionException e) {
+      log.warn("[PeerEval] Executor saturated, skipping end-of-session evaluation for session {}", sessionId);
+      transcriptBuffer.discard(sessionId);
+    }
+  }
+
+  private void evaluate(Long sessionId) {
+    try {
+      String transcript = toText(transcriptBuffer.transcript(sessionId));
+      if (transcript.isBlank()) {
+        return;
+      }
+      PeerPracticeSession session = sessionRepository.findById(sessionId).orElse(null);
+      if (session == null) {
+        return;
+      }
+      SpeechEvaluation evaluation = evaluationRouter.evaluate(new SpeechInput(
+          transcript, session.getTopic(), session.getScenario(), targetLevel(session.getLearner1()), null))
+          .evaluation();
+      session.setAiFeedback(evaluation.feedback());
+      sessionRepository.save(session);
+      log.info("[PeerEval] Stored end-of-session feedback for session {}", sessionId);
+    } catch (Exception e) {
+      log.error("[PeerEval] End-of-session evaluation failed for session {}", sessionId, e);
+    } finally {
+      transcriptBuffer.discard(sessionId);
+    }
+  }
+
+  // Learner turns only, one "name: text" line each
+  private static String toText(List<PeerMessage> messages) {
+    StringBuilder sb = new StringBuilder();
+    for (PeerMessage message : messages) {
+      if (message.getContent() == null || "ai-feedback".equals(message.getType())
+          || "system".equals(message.getType())) {
+        continue;
+      }
+      sb.append(message.getSenderName() != null ? message.getSenderName() : "Learner")
+          .append(": ").append(message.getContent().trim()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String targetLevel(LearnerProfile learner) {
+    EnglishLevel level = learner != null ? learner.getEnglishLevel() : null;
+    if (level == null) {
+      return "B1";
+    }
+    return switch (level) {
+      case BEGINNER -> "A2";
+      case INTERMEDIATE -> "B1";
+      case ADVANCED -> "C1";
+    };
+  }
+}
@@ -0,0 +1,219 @@
+package ut.aesp.service.peer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ut.aesp.dto.peer.PeerMessage;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session transcript of relayed peer chat messages.
+ * The relay path only stores the message reference in a fixed-size ring (oldest entries are
+ * overwritten past {@code maxMessages}) and offers it to a bounded write-behind queue; it never
+ * touches the database. A scheduled flusher drains the queue into peer_practice_messages with
+ * batched JDBC inserts. If the queue is full the message is kept in memory only.
+ * Rings are bounded in number and expire when a session goes quiet, so sessions that never
+ * end here cannot pin memory. With the relay broker a session's messages arrive on several
+ * nodes, so no ring is kept: each message is inserted before it is relayed and the transcript
+ * is read back from the table, which then holds every message any node has relayed.
+ */
+@Slf4j
+@Component
+public class PeerTranscriptBuffer {
+
+  private static final String INSERT_SQL = "INSERT INTO peer_practice_messages "
+      + "(session_id, sender_id, sender_name, content, type, sent_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+  private static final String SELECT_SQL = "SELECT sender_id, sender_name, content, type, sent_at "
+      + "FROM (SELECT * FROM peer_practice_messages WHERE session_id = ? ORDER BY id DESC LIMIT ?) recent "
+      + "ORDER BY id";
+
+  // Column sizes of peer_practice_messages
+  private static final int MAX_TYPE = 20;
+  private static final int MAX_SENDER_NAME = 255;
+
+  private static final class Ring {
+    final PeerMessage[] slots;
+    int next;
+    int size;
+
+    Ring(int capacity) {
+      slots = new PeerMessage[capacity];
+    }
+
+    synchronized void add(PeerMessage message) {
+      slots[next] = message;
+      next = (next + 1) % slots.length;
+      if (size < slots.length) {
+        size++;
+      }
+    }
+
+    synchronized List<PeerMessage> snapshot() {
+      List<PeerMessage> result = new ArrayList<>(size);
+      int start = (next - size + slots.length) % slots.length;
+      for (int i = 0; i < size; i++) {
+        result.add(slots[(start + i) % slots.length]);
+      }
+      return result;
+    }
+  }
+
+  private final Cache<Long, Ring> rings;
+  private final BlockingQueue<PeerMessage> writeQueue;
+  private final JdbcTemplate jdbcTemplate;
+  private final int maxMessages;
+  private final int batchSize;
+  private final boolean distributed;
+  private final AtomicLong dropped = new AtomicLong();
+
+  public PeerTranscriptBuffer(JdbcTemplate jdbcTemplate,
+      @Value("${app.peer.transcript.max-messages:200}") int maxMessages,
+      @Value("${app.peer.transcript.write-queue-capacity:10000}") int writeQueueCapacity,
+      @Value("${app.peer.transcript.batch-size:500}") int batchSize,
+      @Value("${app.peer.transcript.max-sessions:10000}") long maxSessions,
+      @Value("${app.peer.transcript.idle-minutes:120}") long idleMinutes,
+      @Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.maxMessages = Math.max(1, maxMessages);
+    this.writeQueue = new ArrayBlockingQueue<>(Math.max(1, writeQueueCapacity));
+    this.batchSize = Math.max(1, batchSize);
+    this.distributed = "relay".equalsIgnoreCase(brokerMode);
+    this.rings = Caffeine.newBuilder()
+        .maximumSize(maxSessions)
+        .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+        .build();
+  }
+
+  /**
+   * Record a relayed message; O(1) and never blocks, except under the relay broker where the
+   * row is written through so that any node can read the complete transcript
+   */
+  public void append(PeerMessage message) {
+    if (message.getSessionId() == null) {
+      return;
+    }
+    // Fit the columns so one oversized field cannot fail a whole batch insert
+    message.setType(truncate(message.getType(), MAX_TYPE));
+    message.setSenderName(truncate(message.getSenderName(), MAX_SENDER_NAME));
+    if (distributed) {
+      try {
+        insert(List.of(message));
+      } catch (Exception e) {
+        log.warn("[PeerTranscript] Message for session {} was not persisted: {}", message.getSessionId(),
+            e.getMessage());
+      }
+      return;
+    }
+    rings.get(message.getSessionId(), id -> new Ring(maxMessages)).add(message);
+    if (!writeQueue.offer(message)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  /**
+   * Most recent messages of the session, oldest first. Read from the table when this node
+   * holds no ring for the session (restart, eviction) or under the relay broker, where
+   * every node holds only the messages of its own clients.
+   */
+  public List<PeerMessage> transcript(Long sessionId) {
+    Ring ring = distributed ? null : rings.getIfPresent(sessionId);
+    if (ring != null) {
+      return ring.snapshot();
+    }
+    flush();
+    return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+      PeerMessage message = new PeerMessage();
+      message.setSessionId(sessionId);
+      long senderId = rs.getLong("sender_id");
+      message.setSenderId(rs.wasNull() ? null : senderId);
+      message.setSenderName(rs.getString("sender_name"));
+      message.setContent(rs.getString("content"));
+      message.setType(rs.getString("type"));
+      Timestamp sentAt = rs.getTimestamp("sent_at");
+      message.setTimestamp(sentAt != null ? sentAt.toLocalDateTime() : null);
+      return message;
+    }, sessionId, maxMessages);
+  }
+
+  /**
+   * Forget the in-memory ring once the session is over; persisted rows stay
+   */
+  public void discard(Long sessionId) {
+    rings.invalidate(sessionId);
+  }
+
+  @Scheduled(fixedDelayString = "${app.peer.transcript.flush-interval-ms:1000}")
+  public void flush() {
+    long lost = dropped.getAndSet(0);
+    if (lost > 0) {
+      log.warn("[PeerTranscript] Write queue full, {} message(s) were not persisted", lost);
+    }
+    List<PeerMessage> batch = new ArrayList<>(batchSize);
+    while (writeQueue.drainTo(batch, batchSize) > 0) {
+      try {
+        insert(batch);
+      } catch (Exception e) {
+        log.warn("[PeerTranscript] Batch of {} message(s) failed, retrying one by one: {}",
+            batch.size(), e.getMessage());
+        insertOneByOne(batch);
+      }
+      batch.clear();
+    }
+  }
+
+  // Only the rows that fail on their own (e.g. a session deleted meanwhile) are lost
+  private void insertOneByOne(List<PeerMessage> batch) {
+    int failed = 0;
+    for (PeerMessage message : batch) {
+      try {
+        insert(List.of(message));
+      } catch (Exception e) {
+        failed++;
+        log.debug("[PeerTranscript] Dropped message for session {}: {}", message.getSessionId(), e.getMessage());
+      }
+    }
+    if (failed > 0) {
+      log.error("[PeerTranscript] {} of {} message(s) could not be persisted", failed, batch.size());
+    }
+  }
+
+  private void insert(List<PeerMessage> messages) {
+    jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+      ps.setLong(1, message.getSessionId());
+      if (message.getSenderId() != null) {
+        ps.setLong(2, message.getSenderId());
+      } else {
+        ps.setNull(2, Types.BIGINT);
+      }
+      ps.setString(3, message.getSenderName());
+      ps.setString(4, message.getContent());
+      ps.setString(5, message.getType());
+      LocalDateTime sentAt = message.getTimestamp() != null ? message.getTimestamp() : LocalDateTime.now();
+      ps.setTimestamp(6, Timestamp.valueOf(sentAt));
+    });
+  }
+
+  private static String truncate(String value, int maxLength) {
+    return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+}
@@ -0,0 +1,75 @@
+package ut.aesp.service.tts;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * Stand-in engine for development and tests: no network, deterministic output. Each word
+ * becomes a short tone whose pitch is derived from the word, followed by a pause, written
+ * as 8 kHz 16-bit mono PCM WAV. Sounds nothing like speech, but exercises the whole
+ * pipeline with realistic sizes and durations.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tts.engine", havingValue = "local", matchIfMissing = true)
+public class LocalToneTtsEngine implements TtsEngine {
+
+  private static final int SAMPLE_RATE = 8000;
+  private static final int SAMPLES_PER_CHAR = SAMPLE_RATE * 60 / 1000;
+  private static final int PAUSE_SAMPLES = SAMPLE_RATE * 80 / 1000;
+  private static final int MAX_WORD_SAMPLES = SAMPLE_RATE * 600 / 1000;
+  private static final byte[] PAUSE = new byte[PAUSE_SAMPLES * 2];
+
+  @Override
+  public String name() {
+    return "local-tone-1";
+  }
+
+  @Override
+  public String mimeType() {
+    return "audio/wav";
+  }
+
+  @Override
+  public void synthesize(String text, String voice, OutputStream out) throws IOException {
+    String[] words = text.trim().isEmpty() ? new String[0] : text.trim().split("\\s+");
+    long samples = 0;
+    for (String word : words) {
+      samples += wordSamples(word) + PAUSE_SAMPLES;
+    }
+    int dataBytes = (int) (samples * 2);
+
+    ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(new byte[] { 'R', 'I', 'F', 'F' }).putInt(36 + dataBytes)
+        .put(new byte[] { 'W', 'A', 'V', 'E', 'f', 'm', 't', ' ' }).putInt(16)
+        .putShort((short) 1).putShort((short) 1).putInt(SAMPLE_RATE).putInt(SAMPLE_RATE * 2)
+        .putShort((short) 2).putShort((short) 16)
+        .put(new byte[] { 'd', 'a', 't', 'a' }).putInt(dataBytes);
+    out.write(header.array());
+
+    // Voices only shift the pitch
+    double voiceShift = voice != null ? 1 + (Math.floorMod(voice.hashCode(), 5) - 2) * 0.1 : 1;
+    ByteBuffer block = ByteBuffer.allocate(MAX_WORD_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+    for (String word : words) {
+      int n = wordSamples(word);
+      double frequency = (220 + Math.floorMod(word.toLowerCase(Locale.ROOT).hashCode(), 440)) * voiceShift;
+      block.clear();
+      for (int i = 0; i < n; i++) {
+        // Short fade in and out so the tones do not click
+        double envelope = Math.min(1, Math.min(i, n - i) / 80.0);
+        block.putShort((short) (Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE) * 8000 * envelope));
+      }
+      out.write(block.array(), 0, block.position());
+      out.write(PAUSE);
+    }
+  }
+
+  private static int wordSamples(String word) {
+    return Math.min(MAX_WORD_SAMPLES, Math.max(2, word.length()) * SAMPLES_PER_CHAR);
+  }
+}
@@ -0,0 +1,240 @@
+package ut.aesp.service.tts;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed on-disk cache of synthesized audio, {@code <dir>/<aa>/<sha256>.<ext>}.
+ * The index is a Caffeine cache weighed by file size and bounded by {@code maxBytes}; an
+ * evicted entry's file is deleted by the synchronous eviction listener, under the entry's lock,
+ * and a new file is moved into place under the same lock, so an eviction can never delete a
+ * clip that was just re-synthesized at the same path. Concurrent requests for the same phrase share one
+ * synthesis. On startup the files already on disk are re-indexed, oldest first, so a
+ * restart keeps the warm set.
+ */
+@Slf4j
+@Component
+public class TtsAudioCache {
+
+  private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final char SEPARATOR = '\u001F';
+  private static final Map<String, String> EXTENSIONS = Map.of(
+      "audio/wav", "wav", "audio/mpeg", "mp3", "audio/ogg", "ogg", "audio/webm", "webm");
+
+  private final Cache<String, TtsClip> index;
+  private final Map<String, CompletableFuture<TtsClip>> inFlight = new ConcurrentHashMap<>();
+  private final TtsEngine engine;
+  private final Path dir;
+  private final Timer synthesisTimer;
+
+  public TtsAudioCache(TtsEngine engine, MeterRegistry meterRegistry,
+      @Value("${app.tts.cache.dir:${java.io.tmpdir}/aesp-tts}") String dir,
+      @Value("${app.tts.cache.max-bytes:268435456}") long maxBytes) throws IOException {
+    this.engine = engine;
+    this.dir = Files.createDirectories(Path.of(dir).toAbsolutePath());
+    this.index = Caffeine.newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher((String key, TtsClip clip) -> (int) Math.min(Integer.MAX_VALUE, clip.sizeBytes()))
+        .evictionListener((String key, TtsClip clip, RemovalCause cause) -> {
+          if (cause.wasEvicted() && clip != null) {
+            delete(clip.path());
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, index, "ttsAudio");
+    this.synthesisTimer = Timer.builder("tts.synthesis")
+        .tag("engine", engine.name())
+        .register(meterRegistry);
+    reindex();
+  }
+
+  /**
+   * The cached clip for the phrase, synthesizing it on a miss
+   */
+  public TtsClip getOrSynthesize(String text, String voice) {
+    String key = key(text, voice);
+    TtsClip cached = index.getIfPresent(key);
+    if (cached != null && Files.exists(cached.path())) {
+      return cached;
+    }
+    CompletableFuture<TtsClip> mine = new CompletableFuture<>();
+    CompletableFuture<TtsClip> running = inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+    try {
+      Path temp = synthesize(key, text, voice);
+      TtsClip clip = install(key, temp);
+      mine.complete(clip);
+      return clip;
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  /**
+   * A cached clip by key; empty for unknown, malformed or evicted keys
+   */
+  public Optional<TtsClip> find(String key) {
+    if (key == null || !KEY.matcher(key).matches()) {
+      return Optional.empty();
+    }
+    TtsClip clip = index.getIfPresent(key);
+    if (clip != null && !Files.exists(clip.path())) {
+      index.invalidate(key);
+      return Optional.empty();
+    }
+    return Optional.ofNullable(clip);
+  }
+
+  // Synthesize into a temp file next to the clip's final path
+  private Path synthesize(String key, String text, String voice) {
+    Path target = pathFor(key, engine.mimeType());
+    long start = System.nanoTime();
+    Path temp = null;
+    try {
+      Files.createDirectories(target.getParent());
+      temp = Files.createTempFile(target.getParent(), key, ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+        engine.synthesize(text, voice, out);
+      }
+      return temp;
+    } catch (IOException e) {
+      if (temp != null) {
+        delete(temp);
+      }
+      throw new UncheckedIOException("Speech synthesis failed", e);
+    } finally {
+      synthesisTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // Move and index in one atomic step on the key, so an eviction of the old entry runs
+  // entirely before or after it
+  private TtsClip install(String key, Path temp) {
+    Path target = pathFor(key, engine.mimeType());
+    try {
+      return index.asMap().compute(key, (k, previous) -> {
+        try {
+          Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+          return new TtsClip(key, engine.mimeType(), Files.size(target), target);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Speech synthesis failed", e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      delete(temp);
+      throw e;
+    }
+  }
+
+  // Whitespace is collapsed so the same sentence re-wrapped hits the same entry
+  private String key(String text, String voice) {
+    String normalized = WHITESPACE.matcher(text.trim()).replaceAll(" ");
+    String material = engine.name() + SEPARATOR + (voice != null ? voice : "") + SEPARATOR + normalized;
+    try {
+      return HexFormat.of().formatHex(
+          MessageDigest.getInstance("SHA-256").digest(material.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Path pathFor(String key, String mimeType) {
+    return dir.resolve(key.substring(0, 2)).resolve(key + "." + EXTENSIONS.getOrDefault(mimeType, "bin"));
+  }
+
+  private void reindex() throws IOException {
+    record Found(Path path, String key, String mimeType, long size, long lastModified) {
+    }
+    List<Found> found;
+    try (Stream<Path> files = Files.walk(dir, 2)) {
+      found = files.filter(Files::isRegularFile)
+          .map(path -> {
+            String name = path.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            String key = dot > 0 ? name.substring(0, dot) : name;
+            String mimeType = mimeTypeOf(name.substring(dot + 1));
+            if (name.endsWith(".tmp")) {
+              delete(path); // left behind by an interrupted synthesis
+              return null;
+            }
+            if (!KEY.matcher(key).matches() || mimeType == null) {
+              return null;
+            }
+            try {
+              BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+              return new Found(path, key, mimeType, attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+              return null;
+            }
+          })
+          .filter(Objects::nonNull)
+          .sorted(Comparator.comparingLong(Found::lastModified))
+          .toList();
+    }
+    for (Found f : found) {
+      index.put(f.key(), new TtsClip(f.key(), f.mimeType(), f.size(), f.path()));
+    }
+    index.cleanUp();
+    log.info("[TTS] Engine {}, cache at {} with {} clips", engine.name(), dir, index.estimatedSize());
+  }
+
+  private static String mimeTypeOf(String extension) {
+    String lower = extension.toLowerCase(Locale.ROOT);
+    return EXTENSIONS.entrySet().stream()
+        .filter(e -> e.getValue().equals(lower))
+        .map(Map.Entry::getKey)
+        .findFirst()
+        .orElse(null);
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("[TTS] Could not delete {}: {}", path, e.getMessage());
+    }
+  }
+}
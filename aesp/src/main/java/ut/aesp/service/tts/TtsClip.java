@@ -0,0 +1,9 @@
+package ut.aesp.service.tts;
+
+import java.nio.file.Path;
+
+/**
+ * Synthesized audio on disk; {@code key} is the SHA-256 of (engine, voice, text)
+ */
+public record TtsClip(String key, String mimeType, long sizeBytes, Path path) {
+}
@@ -0,0 +1,25 @@
+package ut.aesp.service.tts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Turns text into audio. Exactly one engine bean is active, chosen by {@code app.tts.engine};
+ * results are cached on disk by {@link TtsAudioCache}, so an engine is only called for text
+ * it has not spoken before.
+ */
+public interface TtsEngine {
+
+  /**
+   * Identifies the engine and its version; part of the cache key, so changing it
+   * invalidates earlier audio
+   */
+  String name();
+
+  /**
+   * Media type of what {@link #synthesize} writes, e.g. audio/wav
+   */
+  String mimeType();
+
+  void synthesize(String text, String voice, OutputStream out) throws IOException;
+}
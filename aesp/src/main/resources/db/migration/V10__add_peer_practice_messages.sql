@@ -0,0 +1,13 @@
+-- Peer chat transcript, written behind the live relay in batches
+CREATE TABLE peer_practice_messages (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    sender_id BIGINT,
+    sender_name VARCHAR(255),
+    content TEXT,
+    type VARCHAR(20),
+    sent_at DATETIME(3),
+    FOREIGN KEY (session_id) REFERENCES peer_practice_sessions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_peer_messages_session ON peer_practice_messages(session_id, id);
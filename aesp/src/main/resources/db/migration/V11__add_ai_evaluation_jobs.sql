@@ -0,0 +1,21 @@
+-- Durable AI evaluation jobs. Workers claim due rows with SELECT ... FOR UPDATE SKIP LOCKED;
+-- while RUNNING, next_attempt_at holds the lease expiry so a crashed worker's job is reclaimed
+CREATE TABLE ai_evaluation_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    learner_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    request_json TEXT NOT NULL,
+    result_json TEXT,
+    error VARCHAR(1000),
+    attempts INT NOT NULL DEFAULT 0,
+    max_attempts INT NOT NULL,
+    next_attempt_at DATETIME(3) NOT NULL,
+    locked_by VARCHAR(100),
+    submitted_at DATETIME(3) NOT NULL,
+    started_at DATETIME(3),
+    completed_at DATETIME(3),
+    FOREIGN KEY (learner_id) REFERENCES learner_profiles(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_ai_jobs_due ON ai_evaluation_jobs(status, next_attempt_at);
+CREATE INDEX idx_ai_jobs_completed ON ai_evaluation_jobs(status, completed_at);
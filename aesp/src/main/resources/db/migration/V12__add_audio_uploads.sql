@@ -0,0 +1,19 @@
+-- Resumable learner audio uploads. Bytes are appended to a partial file on disk; on completion
+-- the file is stored content-addressed by its SHA-256, so identical recordings share one blob
+CREATE TABLE audio_uploads (
+    id VARCHAR(36) PRIMARY KEY,
+    learner_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    mime_type VARCHAR(50) NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    duration_seconds INT,
+    content_hash VARCHAR(64),
+    created_at DATETIME(3) NOT NULL,
+    updated_at DATETIME(3) NOT NULL,
+    completed_at DATETIME(3),
+    FOREIGN KEY (learner_id) REFERENCES learner_profiles(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_audio_uploads_hash ON audio_uploads(content_hash);
+CREATE INDEX idx_audio_uploads_stale ON audio_uploads(status, updated_at);
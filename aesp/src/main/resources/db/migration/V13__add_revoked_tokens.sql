@@ -0,0 +1,11 @@
+-- Logged-out tokens, by SHA-256 of the token, until they would have expired anyway.
+-- Every node polls rows by revoked_at (set from the database clock) into its in-memory filter
+CREATE TABLE revoked_tokens (
+    token_hash CHAR(64) PRIMARY KEY,
+    user_id BIGINT,
+    expires_at DATETIME(3) NOT NULL,
+    revoked_at DATETIME(3) NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
@@ -0,0 +1,2 @@
+-- Lets the retention job find completed recordings past their retention without a scan
+CREATE INDEX idx_audio_uploads_completed ON audio_uploads(status, completed_at);
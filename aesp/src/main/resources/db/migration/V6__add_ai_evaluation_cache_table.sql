@@ -0,0 +1,10 @@
+-- Persistent tier of the AI evaluation result cache (keyed by normalized content hash)
+CREATE TABLE ai_evaluation_cache (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    model VARCHAR(100),
+    result TEXT,
+    created_at DATETIME,
+    expires_at DATETIME
+);
+
+CREATE INDEX idx_ai_evaluation_cache_expires ON ai_evaluation_cache(expires_at);
@@ -0,0 +1,3 @@
+-- Support the set-based leaderboard query: top-N by ai_score, then per-learner session days
+CREATE INDEX idx_learner_profiles_ai_score ON learner_profiles(ai_score);
+CREATE INDEX idx_ai_sessions_learner_created ON ai_practice_sessions(learner_id, created_at);
@@ -0,0 +1,52 @@
+-- Per-learner daily practice rollup, maintained on every ai_practice_sessions insert
+CREATE TABLE learner_daily_activity (
+    learner_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    session_count INT NOT NULL DEFAULT 0,
+    avg_pronunciation FLOAT,
+    avg_grammar FLOAT,
+    avg_vocabulary FLOAT,
+    PRIMARY KEY (learner_id, day),
+    FOREIGN KEY (learner_id) REFERENCES learner_profiles(id)
+);
+
+-- Streaks kept on the learner row so reads never scan session history
+ALTER TABLE learner_profiles
+    ADD COLUMN current_streak INT DEFAULT 0,
+    ADD COLUMN longest_streak INT DEFAULT 0,
+    ADD COLUMN last_practice_date DATE;
+
+-- Seed from existing history; later drift is repaired by the activity backfill job
+INSERT INTO learner_daily_activity
+    (learner_id, day, session_count, avg_pronunciation, avg_grammar, avg_vocabulary)
+SELECT s.learner_id, DATE(s.created_at), COUNT(*),
+       AVG(COALESCE(s.pronunciation_score, 0)),
+       AVG(COALESCE(s.grammar_score, 0)),
+       AVG(COALESCE(s.vocabulary_score, 0))
+FROM ai_practice_sessions s
+WHERE s.created_at IS NOT NULL AND s.learner_id IS NOT NULL
+GROUP BY s.learner_id, DATE(s.created_at);
+
+UPDATE learner_profiles lp
+JOIN (
+    WITH islands AS (
+        SELECT learner_id, day,
+               DATE_SUB(day, INTERVAL ROW_NUMBER() OVER (PARTITION BY learner_id ORDER BY day) DAY) AS grp
+        FROM learner_daily_activity
+    ),
+    runs AS (
+        SELECT learner_id, COUNT(*) AS run_length, MAX(day) AS last_day
+        FROM islands
+        GROUP BY learner_id, grp
+    ),
+    ranked AS (
+        SELECT learner_id, run_length, last_day,
+               ROW_NUMBER() OVER (PARTITION BY learner_id ORDER BY last_day DESC) AS recency,
+               MAX(run_length) OVER (PARTITION BY learner_id) AS longest
+        FROM runs
+    )
+    SELECT learner_id, run_length, longest, last_day FROM ranked WHERE recency = 1
+) s ON s.learner_id = lp.id
+SET lp.current_streak = s.run_length,
+    lp.longest_streak = s.longest,
+    lp.last_practice_date = s.last_day;
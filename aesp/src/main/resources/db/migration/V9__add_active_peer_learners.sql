@@ -0,0 +1,21 @@
+-- One row per learner currently in an ACTIVE peer session. The primary key is the
+-- "one active session per learner" guard: a second concurrent booking fails on insert.
+CREATE TABLE active_peer_learners (
+    learner_id BIGINT NOT NULL PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    created_at DATETIME,
+    FOREIGN KEY (learner_id) REFERENCES learner_profiles(id),
+    FOREIGN KEY (session_id) REFERENCES peer_practice_sessions(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_active_peer_learners_session ON active_peer_learners(session_id);
+
+-- Seed from sessions that are active today; if a learner is already double-booked the oldest session wins
+INSERT IGNORE INTO active_peer_learners (learner_id, session_id, created_at)
+SELECT learner_id, session_id, NOW()
+FROM (
+    SELECT learner1_id AS learner_id, id AS session_id FROM peer_practice_sessions WHERE status = 'ACTIVE'
+    UNION ALL
+    SELECT learner2_id, id FROM peer_practice_sessions WHERE status = 'ACTIVE' AND learner2_id IS NOT NULL
+) active
+ORDER BY session_id;
@@ -0,0 +1,72 @@
+package ut.aesp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentBloomFilterTest {
+
+  @Test
+  void neverForgetsAnInsertedKey() {
+    ConcurrentBloomFilter filter = new ConcurrentBloomFilter(10_000, 0.01);
+    SplittableRandom random = new SplittableRandom(1);
+    long[][] keys = new long[10_000][];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new long[] {random.nextLong(), random.nextLong()};
+      filter.put(keys[i][0], keys[i][1]);
+    }
+    for (long[] key : keys) {
+      assertThat(filter.mightContain(key[0], key[1])).isTrue();
+    }
+  }
+
+  @Test
+  void falsePositiveRateStaysNearTarget() {
+    ConcurrentBloomFilter filter = new ConcurrentBloomFilter(10_000, 0.01);
+    SplittableRandom random = new SplittableRandom(2);
+    for (int i = 0; i < 10_000; i++) {
+      filter.put(random.nextLong(), random.nextLong());
+    }
+    int falsePositives = 0;
+    int probes = 100_000;
+    for (int i = 0; i < probes; i++) {
+      if (filter.mightContain(random.nextLong(), random.nextLong())) {
+        falsePositives++;
+      }
+    }
+    // Target 1%; allow generous slack for the hash scheme
+    assertThat(falsePositives / (double) probes).isLessThan(0.02);
+  }
+
+  @Test
+  void concurrentPutsAreAllVisible() throws Exception {
+    ConcurrentBloomFilter filter = new ConcurrentBloomFilter(80_000, 0.001);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        long base = t * 10_000L;
+        futures.add(pool.submit(() -> {
+          for (long i = base; i < base + 10_000; i++) {
+            filter.put(i * 0x9E3779B97F4A7C15L, ~i);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    for (long i = 0; i < 80_000; i++) {
+      assertThat(filter.mightContain(i * 0x9E3779B97F4A7C15L, ~i)).isTrue();
+    }
+  }
+}
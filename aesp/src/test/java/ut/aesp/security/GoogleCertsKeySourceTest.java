@@ -0,0 +1,66 @@
+package ut.aesp.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GoogleCertsKeySourceTest {
+
+  private final GooglePublicKeysManager keysManager = mock(GooglePublicKeysManager.class);
+
+  private static PublicKey publicKey() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(1024);
+    return generator.generateKeyPair().getPublic();
+  }
+
+  @Test
+  void expiredKeysAreServedWithoutRefetchingWhileBackingOff() throws Exception {
+    PublicKey key = publicKey();
+    GoogleCertsKeySource source = new GoogleCertsKeySource(keysManager, 60_000, 3_600_000);
+    when(keysManager.getPublicKeys()).thenReturn(List.of(key));
+    // Fetched keys that have already expired
+    when(keysManager.getExpirationTimeMilliseconds()).thenReturn(System.currentTimeMillis() - 1);
+    source.refresh();
+
+    when(keysManager.refresh()).thenThrow(new IOException("unreachable"));
+    for (int i = 0; i < 5; i++) {
+      assertThat(source.publicKeys()).containsExactly(key);
+    }
+    // The first fetch, then one failed refetch; the other logins did not call out
+    verify(keysManager, times(2)).refresh();
+    assertThatThrownBy(source::refresh).isInstanceOf(IOException.class).hasMessageContaining("next attempt");
+    verify(keysManager, times(2)).refresh();
+  }
+
+  @Test
+  void keysPastTheGraceWindowAreNotServed() throws Exception {
+    GoogleCertsKeySource source = new GoogleCertsKeySource(keysManager, 0, 1_000);
+    when(keysManager.getPublicKeys()).thenReturn(List.of(publicKey()));
+    when(keysManager.getExpirationTimeMilliseconds()).thenReturn(System.currentTimeMillis() - 2_000);
+    source.refresh();
+
+    when(keysManager.refresh()).thenThrow(new IOException("unreachable"));
+    assertThatThrownBy(source::publicKeys).isInstanceOf(IOException.class).hasMessage("unreachable");
+  }
+
+  @Test
+  void withoutAnyKeysAFailedFetchFails() throws Exception {
+    GoogleCertsKeySource source = new GoogleCertsKeySource(keysManager, 60_000, 3_600_000);
+    when(keysManager.refresh()).thenThrow(new IOException("unreachable"));
+    assertThatThrownBy(source::publicKeys).isInstanceOf(IOException.class).hasMessage("unreachable");
+    // Backing off: the next login fails fast instead of waiting on another fetch
+    assertThatThrownBy(source::publicKeys).isInstanceOf(IOException.class).hasMessageContaining("next attempt");
+  }
+}
@@ -0,0 +1,76 @@
+package ut.aesp.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoogleTokenVerifierTest {
+
+  private static final String CLIENT_ID = "client-id.apps.googleusercontent.com";
+
+  private final KeyPair googleKeys = keyPair();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final GoogleTokenVerifier verifier = new GoogleTokenVerifier(
+      new LocalGoogleKeySource(List.of(googleKeys.getPublic())), registry, CLIENT_ID, 600_000, 300);
+
+  private static KeyPair keyPair() {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(2048);
+      return generator.generateKeyPair();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String idToken(PrivateKey signingKey, String audience, long expiresInSeconds) throws Exception {
+    long now = System.currentTimeMillis() / 1000;
+    GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+        .setIssuer("https://accounts.google.com")
+        .setAudience(audience)
+        .setSubject("1234567890")
+        .setIssuedAtTimeSeconds(now)
+        .setExpirationTimeSeconds(now + expiresInSeconds);
+    payload.setEmail("learner@example.com");
+    JsonWebSignature.Header header = new JsonWebSignature.Header().setAlgorithm("RS256").setType("JWT");
+    return JsonWebSignature.signUsingRsaSha256(signingKey, GsonFactory.getDefaultInstance(), header, payload);
+  }
+
+  @Test
+  void tokenSignedByGoogleForThisClientIsAccepted() throws Exception {
+    assertThat(verifier.verify(idToken(googleKeys.getPrivate(), CLIENT_ID, 3600)))
+        .hasValueSatisfying(payload -> assertThat(payload.getEmail()).isEqualTo("learner@example.com"));
+    assertThat(registry.timer("auth.google.verify", "outcome", "valid").count()).isEqualTo(1);
+  }
+
+  @Test
+  void tokenForAnotherClientIsRejected() throws Exception {
+    assertThat(verifier.verify(idToken(googleKeys.getPrivate(), "other-client", 3600))).isEmpty();
+  }
+
+  @Test
+  void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+    assertThat(verifier.verify(idToken(keyPair().getPrivate(), CLIENT_ID, 3600))).isEmpty();
+  }
+
+  @Test
+  void expiredTokenIsRejected() throws Exception {
+    // Beyond the 300 s clock skew allowance
+    assertThat(verifier.verify(idToken(googleKeys.getPrivate(), CLIENT_ID, -3600))).isEmpty();
+  }
+
+  @Test
+  void malformedTokenIsRejected() throws Exception {
+    assertThat(verifier.verify("not-a-token")).isEmpty();
+    assertThat(registry.timer("auth.google.verify", "outcome", "invalid").count()).isEqualTo(1);
+  }
+}
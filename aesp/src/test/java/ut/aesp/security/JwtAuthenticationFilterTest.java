@@ -0,0 +1,104 @@
+package ut.aesp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ut.aesp.enums.UserRole;
+import ut.aesp.model.User;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwtAuthenticationFilterTest {
+
+  private static final String SECRET = "test-secret-test-secret-test-secret-test-secret-test-secret-test-secret";
+
+  private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60_000, 600_000);
+  private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+  private final UserStatusCache userStatusCache = mock(UserStatusCache.class);
+  private final TokenRevocationStore revocationStore = mock(TokenRevocationStore.class);
+  private MockMvc mvc;
+  private User admin;
+
+  @BeforeEach
+  void setUp() {
+    JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+        new VerifiedTokenCache(tokenProvider, new SimpleMeterRegistry(), true, 100, 300),
+        userDetailsService, userStatusCache, revocationStore, true);
+    // Stands in for the authenticated() rule of the security chain
+    Filter requireAuthentication = (request, response, chain) -> {
+      if (SecurityContextHolder.getContext().getAuthentication() == null) {
+        ((HttpServletResponse) response).sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        return;
+      }
+      chain.doFilter(request, response);
+    };
+    mvc = MockMvcBuilders.standaloneSetup(new ProtectedController())
+        .addFilters(filter, requireAuthentication)
+        .build();
+
+    admin = new User();
+    admin.setId(7L);
+    admin.setEmail("admin@example.com");
+    admin.setName("Admin");
+    admin.setRole(UserRole.ADMIN);
+    when(revocationStore.isRevoked(anyString())).thenReturn(false);
+    when(userStatusCache.activeRole(anyLong())).thenReturn(Optional.of(UserRole.ADMIN));
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void accessTokenReachesProtectedEndpoint() throws Exception {
+    mvc.perform(get("/protected").header("Authorization", "Bearer " + tokenProvider.generateAccessToken(admin)))
+        .andExpect(status().isOk())
+        .andExpect(content().string("ROLE_ADMIN"));
+  }
+
+  @Test
+  void refreshTokenIsRefusedOnProtectedEndpoint() throws Exception {
+    mvc.perform(get("/protected").header("Authorization", "Bearer " + tokenProvider.generateRefreshToken(admin)))
+        .andExpect(status().isUnauthorized());
+    // No fallback to the database for a token without access claims
+    verifyNoInteractions(userDetailsService);
+  }
+
+  @Test
+  void tokenIssuedForAnotherRoleIsRefused() throws Exception {
+    when(userStatusCache.activeRole(anyLong())).thenReturn(Optional.of(UserRole.LEARNER));
+
+    mvc.perform(get("/protected").header("Authorization", "Bearer " + tokenProvider.generateAccessToken(admin)))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @RestController
+  static class ProtectedController {
+
+    @GetMapping("/protected")
+    String protectedResource() {
+      Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+      return authentication.getAuthorities().iterator().next().getAuthority();
+    }
+  }
+}
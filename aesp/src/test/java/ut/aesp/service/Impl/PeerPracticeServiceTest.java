@@ -0,0 +1,205 @@
+package ut.aesp.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import ut.aesp.dto.peer.PeerPracticeRequest;
+import ut.aesp.dto.peer.PeerPracticeResponse;
+import ut.aesp.enums.EnglishLevel;
+import ut.aesp.exception.APIException;
+import ut.aesp.exception.LearnerAlreadyBookedException;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.model.PeerPracticeSession;
+import ut.aesp.repository.ActivePeerLearnerRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.repository.PeerPracticeSessionRepository;
+import ut.aesp.service.peer.MatchmakingQueue;
+import ut.aesp.service.peer.PeerSessionAccess;
+import ut.aesp.service.peer.PeerSessionEvaluator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * findMatch together with the active_peer_learners guard. The repositories are in-memory
+ * stand-ins: book() fails with a duplicate key like the table's primary key does, and a
+ * failed booking rolls back the bookings of its session as the surrounding transaction would.
+ */
+class PeerPracticeServiceTest {
+
+  private static final EnglishLevel[] LEVELS = EnglishLevel.values();
+
+  private final Map<Long, Long> bookings = new ConcurrentHashMap<>();
+  private final Map<Long, LearnerProfile> learners = new ConcurrentHashMap<>();
+  private final AtomicLong sessionIds = new AtomicLong();
+  private final ThreadLocal<Long> currentSession = new ThreadLocal<>();
+  private MatchmakingQueue queue;
+  private PeerPracticeService service;
+
+  @BeforeEach
+  void setUp() {
+    PeerPracticeSessionRepository sessionRepository = mock(PeerPracticeSessionRepository.class);
+    LearnerProfileRepository learnerProfileRepository = mock(LearnerProfileRepository.class);
+    ActivePeerLearnerRepository activePeerLearnerRepository = mock(ActivePeerLearnerRepository.class);
+
+    when(learnerProfileRepository.findById(anyLong()))
+        .thenAnswer(call -> Optional.ofNullable(learners.get(call.<Long>getArgument(0))));
+    when(sessionRepository.save(any(PeerPracticeSession.class))).thenAnswer(call -> {
+      PeerPracticeSession session = call.getArgument(0);
+      session.setId(sessionIds.incrementAndGet());
+      currentSession.set(session.getId());
+      return session;
+    });
+    when(activePeerLearnerRepository.existsById(anyLong()))
+        .thenAnswer(call -> bookings.containsKey(call.<Long>getArgument(0)));
+    when(activePeerLearnerRepository.book(anyLong(), anyLong())).thenAnswer(call -> {
+      if (bookings.putIfAbsent(call.getArgument(0), call.getArgument(1)) != null) {
+        throw new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'");
+      }
+      return 1;
+    });
+
+    queue = new MatchmakingQueue(3600, 1, 4);
+    service = new PeerPracticeService(sessionRepository, learnerProfileRepository, queue,
+        mock(SimpMessagingTemplate.class), activePeerLearnerRepository, mock(PeerSessionEvaluator.class),
+        mock(PeerSessionAccess.class));
+  }
+
+  private void learner(long id, EnglishLevel level) {
+    LearnerProfile profile = new LearnerProfile();
+    profile.setId(id);
+    profile.setName("learner " + id);
+    profile.setEnglishLevel(level);
+    learners.put(id, profile);
+  }
+
+  private static PeerPracticeRequest request(String topic) {
+    return new PeerPracticeRequest(topic, "scenario", null, true);
+  }
+
+  // Runs findMatch like the transactional proxy: a failed booking leaves no rows of its session
+  private PeerPracticeResponse findMatch(long learnerId, String topic) {
+    currentSession.remove();
+    try {
+      return service.findMatch(learnerId, request(topic));
+    } catch (RuntimeException e) {
+      Long session = currentSession.get();
+      if (session != null) {
+        bookings.values().removeIf(session::equals);
+      }
+      throw e;
+    }
+  }
+
+  @Test
+  void matchedLearnerCannotRequestAgain() {
+    learner(1, EnglishLevel.BEGINNER);
+    learner(2, EnglishLevel.BEGINNER);
+
+    assertThat(findMatch(1, "travel").getStatus()).isEqualTo(PeerPracticeService.WAITING);
+    PeerPracticeResponse session = findMatch(2, "travel");
+
+    assertThat(session.getLearner1Id()).isEqualTo(1L);
+    assertThat(session.getLearner2Id()).isEqualTo(2L);
+    assertThatThrownBy(() -> findMatch(1, "travel")).isInstanceOf(APIException.class);
+    assertThat(queue.isWaiting(1L)).isFalse();
+  }
+
+  @Test
+  void partnerBookedElsewhereIsDroppedAndNothingIsBooked() {
+    learner(1, EnglishLevel.ADVANCED);
+    learner(2, EnglishLevel.ADVANCED);
+    findMatch(1, "work");
+    // Learner 1's stale ticket was claimed by another session that committed meanwhile
+    bookings.put(1L, 99L);
+
+    assertThatThrownBy(() -> findMatch(2, "work"))
+        .isInstanceOfSatisfying(LearnerAlreadyBookedException.class,
+            e -> assertThat(e.getLearnerId()).isEqualTo(1L));
+    assertThat(queue.isWaiting(1L)).isFalse();
+    assertThat(bookings).containsOnlyKeys(1L);
+  }
+
+  /**
+   * Many learners requesting at once, some requesting again while their first ticket is
+   * still claimable. The queue can then pair the same learner twice; the guard must let at
+   * most one of those sessions commit, so no learner ends up in two sessions.
+   */
+  @Test
+  void stressNoLearnerEndsUpInTwoSessions() throws Exception {
+    String[] topics = {"travel", "food", "work"};
+    int threads = 16;
+    int learnersPerThread = 500;
+    for (long id = 0; id < (long) threads * learnersPerThread; id++) {
+      learner(id, LEVELS[(int) (id % LEVELS.length)]);
+    }
+
+    ConcurrentLinkedQueue<PeerPracticeResponse> sessions = new ConcurrentLinkedQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        long base = (long) t * learnersPerThread;
+        futures.add(pool.submit(() -> {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (long id = base; id < base + learnersPerThread; id++) {
+            int requests = random.nextInt(3) == 0 ? 2 : 1;
+            for (int r = 0; r < requests; r++) {
+              try {
+                PeerPracticeResponse response = findMatch(id, topics[random.nextInt(topics.length)]);
+                if (!PeerPracticeService.WAITING.equals(response.getStatus())) {
+                  sessions.add(response);
+                }
+              } catch (APIException e) {
+                // Already booked: this learner's earlier ticket was matched
+              }
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertThat(sessions).isNotEmpty();
+    Set<Long> inSession = new HashSet<>();
+    for (PeerPracticeResponse session : sessions) {
+      assertThat(session.getLearner1Id()).isNotEqualTo(session.getLearner2Id());
+      assertThat(inSession.add(session.getLearner1Id())).as("learner %d in two sessions", session.getLearner1Id())
+          .isTrue();
+      assertThat(inSession.add(session.getLearner2Id())).as("learner %d in two sessions", session.getLearner2Id())
+          .isTrue();
+      assertThat(bookings.get(session.getLearner1Id())).isEqualTo(session.getId());
+      assertThat(bookings.get(session.getLearner2Id())).isEqualTo(session.getId());
+    }
+    // Every booking belongs to a committed session
+    assertThat(bookings).hasSize(inSession.size());
+  }
+}
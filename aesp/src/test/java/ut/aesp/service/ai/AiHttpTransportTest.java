@@ -0,0 +1,84 @@
+package ut.aesp.service.ai;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiHttpTransportTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private HttpServer server;
+  private AiHttpTransport transport;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    // Headers and a first event, then the stream stalls
+    server.createContext("/stall", exchange -> {
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream out = exchange.getResponseBody();
+      out.write("data: first\n".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+    server.createContext("/ok", exchange -> {
+      byte[] body = "complete".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    transport = new AiHttpTransport(new SimpleMeterRegistry(), 2000, 2000, 300, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    transport.shutdown();
+    server.stop(0);
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+  }
+
+  @Test
+  void stalledBodyFailsAfterIdleTimeout() throws Exception {
+    HttpResponse<InputStream> response = transport.send("test", transport.newRequest(uri("/stall")).GET().build());
+
+    long start = System.nanoTime();
+    try (InputStream body = AiHttpTransport.body(response)) {
+      assertThatThrownBy(body::readAllBytes).isInstanceOf(HttpTimeoutException.class);
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+  }
+
+  @Test
+  void bodyThatKeepsFlowingIsReadWhole() throws Exception {
+    HttpResponse<InputStream> response = transport.send("test", transport.newRequest(uri("/ok")).GET().build());
+
+    assertThat(AiHttpTransport.readString(response)).isEqualTo("complete");
+  }
+}
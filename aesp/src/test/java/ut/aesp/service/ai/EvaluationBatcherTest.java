@@ -0,0 +1,272 @@
+package ut.aesp.service.ai;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import ut.aesp.exception.APIException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EvaluationBatcherTest {
+
+  // The score echoes the transcript, so each caller can check it got its own result
+  private static SpeechEvaluation evaluationOf(EvaluationBatcher.Item item) {
+    return new SpeechEvaluation(Integer.parseInt(item.speechText()), 5, 5, 5, 5, "ok", List.of());
+  }
+
+  @Test
+  void groupsConcurrentRequestsAndRoutesEachResultBack() throws Exception {
+    ConcurrentLinkedQueue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+    AtomicInteger singles = new AtomicInteger();
+    try (EvaluationBatcher batcher = new EvaluationBatcher(4, 200, 2, 100,
+        items -> {
+          batchSizes.add(items.size());
+          return items.stream().map(EvaluationBatcherTest::evaluationOf).toList();
+        },
+        (item, retryable) -> {
+          singles.incrementAndGet();
+          return evaluationOf(item);
+        },
+        () -> true)) {
+      List<CompletableFuture<SpeechEvaluation>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(batcher.submit(String.valueOf(i), "topic", "scenario", "B1", null));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertThat(futures.get(i).get(5, TimeUnit.SECONDS).score()).isEqualTo(i);
+      }
+    }
+    assertThat(batchSizes).containsExactly(4, 4);
+    assertThat(singles).hasValue(0);
+  }
+
+  @Test
+  void windowWithSeveralLanguagesIsSentAsOneBatchPerLanguage() throws Exception {
+    ConcurrentLinkedQueue<List<String>> batchLanguages = new ConcurrentLinkedQueue<>();
+    try (EvaluationBatcher batcher = new EvaluationBatcher(8, 200, 1, 100,
+        items -> {
+          batchLanguages.add(items.stream().map(EvaluationBatcher.Item::language).toList());
+          return items.stream().map(EvaluationBatcherTest::evaluationOf).toList();
+        },
+        (item, retryable) -> evaluationOf(item),
+        () -> true)) {
+      List<CompletableFuture<SpeechEvaluation>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(batcher.submit(String.valueOf(i), "topic", null, "B1", i % 2 == 0 ? "Vietnamese" : "English"));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertThat(futures.get(i).get(5, TimeUnit.SECONDS).score()).isEqualTo(i);
+      }
+    }
+    assertThat(batchLanguages).containsExactly(
+        List.of("Vietnamese", "Vietnamese", "Vietnamese", "Vietnamese"),
+        List.of("English", "English", "English", "English"));
+  }
+
+  @Test
+  void loneRequestIsSentSingly() throws Exception {
+    AtomicInteger batches = new AtomicInteger();
+    AtomicBoolean retried = new AtomicBoolean();
+    try (EvaluationBatcher batcher = new EvaluationBatcher(8, 20, 1, 100,
+        items -> {
+          batches.incrementAndGet();
+          return List.of();
+        },
+        (item, retryable) -> {
+          retried.set(retryable);
+          return evaluationOf(item);
+        },
+        () -> true)) {
+      assertThat(batcher.submit("7", null, null, "A2", null).get(5, TimeUnit.SECONDS).score()).isEqualTo(7);
+    }
+    assertThat(batches).hasValue(0);
+    // An ordinary single call keeps the guard's retries
+    assertThat(retried).isTrue();
+  }
+
+  @Test
+  void failedOrShortBatchFallsBackToOneAttemptPerItemWhileCircuitIsClosed() throws Exception {
+    AtomicInteger singles = new AtomicInteger();
+    AtomicInteger retryableSingles = new AtomicInteger();
+    AtomicInteger batches = new AtomicInteger();
+    try (EvaluationBatcher batcher = new EvaluationBatcher(3, 200, 1, 100,
+        items -> {
+          if (batches.incrementAndGet() == 1) {
+            throw new IllegalStateException("unparseable batch");
+          }
+          // Second batch: only the first item could be split out of the response
+          return List.of(evaluationOf(items.get(0)));
+        },
+        (item, retryable) -> {
+          singles.incrementAndGet();
+          if (retryable) {
+            retryableSingles.incrementAndGet();
+          }
+          return evaluationOf(item);
+        },
+        () -> true)) {
+      List<CompletableFuture<SpeechEvaluation>> futures = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        futures.add(batcher.submit(String.valueOf(i), null, null, "B2", null));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertThat(futures.get(i).get(5, TimeUnit.SECONDS).score()).isEqualTo(i);
+      }
+    }
+    assertThat(singles).hasValue(3 + 2);
+    assertThat(retryableSingles).hasValue(0);
+  }
+
+  @Test
+  void failedBatchFailsItsCallersWhileCircuitIsNotClosed() throws Exception {
+    AtomicInteger singles = new AtomicInteger();
+    IllegalStateException rejected = new IllegalStateException("429 from upstream");
+    try (EvaluationBatcher batcher = new EvaluationBatcher(3, 200, 1, 100,
+        items -> {
+          throw rejected;
+        },
+        (item, retryable) -> {
+          singles.incrementAndGet();
+          return evaluationOf(item);
+        },
+        () -> false)) {
+      List<CompletableFuture<SpeechEvaluation>> futures = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        futures.add(batcher.submit(String.valueOf(i), null, null, "B1", null));
+      }
+      for (CompletableFuture<SpeechEvaluation> future : futures) {
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCause(rejected);
+      }
+    }
+    assertThat(singles).hasValue(0);
+  }
+
+  @Test
+  void fullQueueRefusesNewRequests() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (EvaluationBatcher batcher = new EvaluationBatcher(1, 1, 1, 2,
+        items -> List.of(),
+        (item, retryable) -> {
+          started.countDown();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return evaluationOf(item);
+        },
+        () -> true)) {
+      CompletableFuture<SpeechEvaluation> running = batcher.submit("0", null, null, "B1", null);
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      // The only sender is busy, so these wait in the queue and the next one is refused
+      CompletableFuture<SpeechEvaluation> first = batcher.submit("1", null, null, "B1", null);
+      CompletableFuture<SpeechEvaluation> second = batcher.submit("2", null, null, "B1", null);
+      CompletableFuture<SpeechEvaluation> refused = batcher.submit("3", null, null, "B1", null);
+
+      assertThatThrownBy(() -> refused.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .cause()
+          .isInstanceOfSatisfying(APIException.class,
+              e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+      release.countDown();
+      assertThat(running.get(5, TimeUnit.SECONDS).score()).isZero();
+      assertThat(first.get(5, TimeUnit.SECONDS).score()).isEqualTo(1);
+      assertThat(second.get(5, TimeUnit.SECONDS).score()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void singleCallFailureReachesOnlyThatCaller() throws Exception {
+    try (EvaluationBatcher batcher = new EvaluationBatcher(2, 200, 1, 100,
+        items -> {
+          throw new IllegalStateException("batch down");
+        },
+        (item, retryable) -> {
+          if (item.speechText().equals("1")) {
+            throw new IllegalArgumentException("bad item");
+          }
+          return evaluationOf(item);
+        },
+        () -> true)) {
+      CompletableFuture<SpeechEvaluation> good = batcher.submit("0", null, null, "B1", null);
+      CompletableFuture<SpeechEvaluation> bad = batcher.submit("1", null, null, "B1", null);
+      assertThat(good.get(5, TimeUnit.SECONDS).score()).isZero();
+      assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  void closeFailsPendingAndLaterRequests() {
+    CountDownLatch release = new CountDownLatch(1);
+    EvaluationBatcher batcher = new EvaluationBatcher(1, 1, 1, 100, items -> List.of(), (item, retryable) -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return evaluationOf(item);
+    }, () -> true);
+    try {
+      batcher.close();
+      assertThat(batcher.submit("1", null, null, "B1", null)).isCompletedExceptionally();
+    } finally {
+      release.countDown();
+    }
+  }
+
+  /**
+   * Load test: many callers at once. Every caller must get exactly its own result, no batch
+   * may exceed the size limit and batching must actually cut the number of upstream calls.
+   */
+  @Test
+  void loadManyConcurrentCallersEachGetTheirOwnResult() throws Exception {
+    int callers = 2_000;
+    int maxBatch = 16;
+    ConcurrentLinkedQueue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+    AtomicInteger singles = new AtomicInteger();
+    ExecutorService clients = Executors.newFixedThreadPool(32);
+    try (EvaluationBatcher batcher = new EvaluationBatcher(maxBatch, 5, 4, callers,
+        items -> {
+          batchSizes.add(items.size());
+          return items.stream().map(EvaluationBatcherTest::evaluationOf).toList();
+        },
+        (item, retryable) -> {
+          singles.incrementAndGet();
+          return evaluationOf(item);
+        },
+        () -> true)) {
+      List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        int n = i;
+        checks.add(CompletableFuture.supplyAsync(
+            () -> batcher.submit(String.valueOf(n), "topic", null, "B1", null).join().score() == n, clients));
+      }
+      for (CompletableFuture<Boolean> check : checks) {
+        assertThat(check.get(30, TimeUnit.SECONDS)).isTrue();
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+    int batched = batchSizes.stream().mapToInt(Integer::intValue).sum();
+    assertThat(batched + singles.get()).isEqualTo(callers);
+    assertThat(batchSizes).allSatisfy(size -> assertThat(size).isBetween(2, maxBatch));
+    assertThat(batchSizes.size() + singles.get()).isLessThan(callers / 2);
+  }
+}
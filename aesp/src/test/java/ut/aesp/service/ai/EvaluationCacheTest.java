@@ -0,0 +1,30 @@
+package ut.aesp.service.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ut.aesp.repository.AiEvaluationCacheRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EvaluationCacheTest {
+
+  private final EvaluationCache cache = new EvaluationCache(mock(AiEvaluationCacheRepository.class),
+      new SimpleMeterRegistry(), "maximumSize=10", false, 1);
+
+  private String key(String speechText) {
+    return cache.key(speechText, "travel", null, "B1", "Vietnamese", "gemini");
+  }
+
+  @Test
+  void caseAndWhitespaceDoNotChangeTheKey() {
+    assertThat(key("  I went to  Hanoi\nlast year. ")).isEqualTo(key("i went to hanoi last year."));
+  }
+
+  @Test
+  void punctuationChangesTheKey() {
+    assertThat(key("It's raining")).isNotEqualTo(key("Its raining"));
+    assertThat(key("I don't know")).isNotEqualTo(key("I dont know"));
+    assertThat(key("Let's eat, grandma")).isNotEqualTo(key("Let's eat grandma"));
+  }
+}
@@ -0,0 +1,150 @@
+package ut.aesp.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of micro-batching against a mock Gemini server that, like a rate-limited API key,
+ * serves a few requests at a time with fixed latency. The same burst of distinct evaluations
+ * is run with batching off and on; batching must return every caller its own result with far
+ * fewer upstream calls, as counted by the mock server.
+ */
+class GeminiBatchingLoadTest {
+
+  private static final int SERVER_THREADS = 4;
+  private static final long SERVER_LATENCY_MS = 40;
+  private static final int CALLERS = 200;
+  private static final Pattern SINGLE_TRANSCRIPT = Pattern.compile("Learner's transcript:\n\"(\\d+)\"");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+
+  @BeforeEach
+  void startMockGemini() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    serverExecutor = Executors.newFixedThreadPool(SERVER_THREADS);
+    server.setExecutor(serverExecutor);
+    server.createContext("/", exchange -> {
+      upstreamCalls.incrementAndGet();
+      JsonNode request = mapper.readTree(exchange.getRequestBody());
+      String prompt = request.path("contents").path(0).path("parts").path(0).path("text").asText();
+      byte[] body = mapper.writeValueAsBytes(Map.of(
+          "candidates", List.of(Map.of(
+              "content", Map.of("parts", List.of(Map.of("text", answer(prompt)))),
+              "finishReason", "STOP"))));
+      try {
+        Thread.sleep(SERVER_LATENCY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void stopMockGemini() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  // Each transcript is a number, echoed back as the score so callers can check they got their own
+  private String answer(String prompt) throws IOException {
+    int open = prompt.indexOf("\n<items>\n");
+    if (open < 0) {
+      Matcher m = SINGLE_TRANSCRIPT.matcher(prompt);
+      assertThat(m.find()).isTrue();
+      return GeminiResponseReader.write(evaluation(Integer.parseInt(m.group(1))));
+    }
+    String block = prompt.substring(open + 9, prompt.indexOf("\n</items>\n"));
+    StringBuilder answer = new StringBuilder("[");
+    for (String line : block.split("\n")) {
+      JsonNode item = mapper.readTree(line);
+      String json = GeminiResponseReader.write(evaluation(item.get("transcript").asInt()));
+      answer.append(answer.length() > 1 ? "," : "")
+          .append("{\"index\":").append(item.get("index").asInt()).append(',').append(json, 1, json.length());
+    }
+    return answer.append(']').toString();
+  }
+
+  private static SpeechEvaluation evaluation(int score) {
+    return new SpeechEvaluation(score, 6, 6, 6, 6, "ok", List.of());
+  }
+
+  private GeminiHttpClient client(SimpleMeterRegistry registry, AiHttpTransport transport, boolean batching) {
+    GeminiGuard guard = new GeminiGuard(registry, 100_000, 100_000, 0, 256, 1000, 1, 1, 1, 20, 10, 0.5, 30_000, 3);
+    EvaluationCache cache = new EvaluationCache(null, registry, "maximumSize=10000", false, 0);
+    PromptEngine prompts = new PromptEngine(registry, List.of("Vietnamese"), 6000, 512, 0.5, 3000, 8192);
+    return new GeminiHttpClient("test-key", "mock-model", "http://127.0.0.1:" + server.getAddress().getPort(),
+        batching, 20, 16, SERVER_THREADS, CALLERS, false, 0, -1, "inline", 1024, transport, cache, guard, prompts, registry);
+  }
+
+  private void runBurst(GeminiHttpClient client, int offset) throws Exception {
+    ExecutorService callers = Executors.newFixedThreadPool(64);
+    try {
+      List<CompletableFuture<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < CALLERS; i++) {
+        int n = offset + i;
+        results.add(CompletableFuture.supplyAsync(
+            () -> client.evaluateSpeech(String.valueOf(n), "travel", null, "B1").score() == n, callers));
+      }
+      for (CompletableFuture<Boolean> result : results) {
+        assertThat(result.get(60, TimeUnit.SECONDS)).isTrue();
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+  }
+
+  @Test
+  void batchingCutsUpstreamCallsUnderLoad() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AiHttpTransport transport = new AiHttpTransport(registry, 5000, 30_000, 10_000, 8);
+    try {
+      GeminiHttpClient unbatched = client(registry, transport, false);
+      runBurst(unbatched, 0);
+      int unbatchedCalls = upstreamCalls.getAndSet(0);
+
+      GeminiHttpClient batched = client(registry, transport, true);
+      try {
+        runBurst(batched, CALLERS);
+      } finally {
+        batched.shutdown();
+      }
+      int batchedCalls = upstreamCalls.get();
+
+      assertThat(unbatchedCalls).isEqualTo(CALLERS);
+      assertThat(batchedCalls).isLessThan(CALLERS / 4);
+    } finally {
+      transport.shutdown();
+    }
+  }
+}
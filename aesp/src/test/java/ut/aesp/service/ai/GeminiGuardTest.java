@@ -0,0 +1,120 @@
+package ut.aesp.service.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import ut.aesp.exception.APIException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeminiGuardTest {
+
+  private static final long OPEN_MS = 200;
+
+  // 4-call window opening at 50% failures, one half-open trial, no retries, generous rate limit
+  private static GeminiGuard breakerGuard() {
+    return new GeminiGuard(new SimpleMeterRegistry(), 1000, 1000, 0, 16, 0, 1, 1, 1,
+        4, 4, 0.5, OPEN_MS, 1);
+  }
+
+  private static Object fail(int status) {
+    throw new GeminiApiException(status, "failure", 0);
+  }
+
+  @Test
+  void opensAfterFailureRateAndFailsFast() {
+    GeminiGuard guard = breakerGuard();
+    guard.execute("test", true, () -> "ok");
+    guard.execute("test", true, () -> "ok");
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> guard.execute("test", true, () -> fail(503)))
+          .isInstanceOf(GeminiApiException.class);
+    }
+    assertThat(guard.state()).isEqualTo(GeminiGuard.State.OPEN);
+
+    AtomicInteger calls = new AtomicInteger();
+    assertThatThrownBy(() -> guard.execute("test", true, calls::incrementAndGet))
+        .isInstanceOfSatisfying(APIException.class,
+            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    assertThat(calls).hasValue(0);
+  }
+
+  @Test
+  void badRequestsDoNotOpenTheCircuit() {
+    GeminiGuard guard = breakerGuard();
+    for (int i = 0; i < 8; i++) {
+      assertThatThrownBy(() -> guard.execute("test", true, () -> fail(400)))
+          .isInstanceOf(GeminiApiException.class);
+    }
+    assertThat(guard.state()).isEqualTo(GeminiGuard.State.CLOSED);
+  }
+
+  @Test
+  void halfOpenTrialClosesOnSuccessAndReopensOnFailure() throws InterruptedException {
+    GeminiGuard guard = breakerGuard();
+    for (int i = 0; i < 4; i++) {
+      assertThatThrownBy(() -> guard.execute("test", true, () -> fail(503)));
+    }
+    assertThat(guard.state()).isEqualTo(GeminiGuard.State.OPEN);
+
+    Thread.sleep(OPEN_MS + 50);
+    assertThatThrownBy(() -> guard.execute("test", true, () -> fail(502)));
+    assertThat(guard.state()).isEqualTo(GeminiGuard.State.OPEN);
+
+    Thread.sleep(OPEN_MS + 50);
+    assertThat(guard.execute("test", true, () -> "ok")).isEqualTo("ok");
+    assertThat(guard.state()).isEqualTo(GeminiGuard.State.CLOSED);
+  }
+
+  @Test
+  void retriesTransientFailuresOnlyWhenRetryable() {
+    GeminiGuard guard = new GeminiGuard(new SimpleMeterRegistry(), 1000, 1000, 0, 16, 0, 3, 1, 2,
+        20, 10, 0.5, OPEN_MS, 1);
+
+    AtomicInteger attempts = new AtomicInteger();
+    String result = guard.execute("test", true, () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new GeminiApiException(503, "busy", 0);
+      }
+      return "ok";
+    });
+    assertThat(result).isEqualTo("ok");
+    assertThat(attempts).hasValue(3);
+
+    AtomicInteger streamAttempts = new AtomicInteger();
+    assertThatThrownBy(() -> guard.execute("test", false, () -> {
+      streamAttempts.incrementAndGet();
+      throw new GeminiApiException(503, "busy", 0);
+    })).isInstanceOf(GeminiApiException.class);
+    assertThat(streamAttempts).hasValue(1);
+  }
+
+  @Test
+  void tokenBucketRejectsBeyondBurstWhenWaitIsTooLong() {
+    // 1 permit/s, burst 2, no waiting allowed
+    GeminiGuard guard = new GeminiGuard(new SimpleMeterRegistry(), 1, 2, 0, 16, 0, 1, 1, 1,
+        20, 10, 0.5, OPEN_MS, 1);
+    guard.execute("test", true, () -> "ok");
+    guard.execute("test", true, () -> "ok");
+
+    assertThatThrownBy(() -> guard.execute("test", true, () -> "ok"))
+        .isInstanceOfSatisfying(APIException.class,
+            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    assertThat(guard.state()).isEqualTo(GeminiGuard.State.CLOSED);
+  }
+
+  @Test
+  void tokenBucketPacesCallersWithinMaxWait() {
+    // 20 permits/s, burst 1: the second call waits about 50 ms instead of being rejected
+    GeminiGuard guard = new GeminiGuard(new SimpleMeterRegistry(), 20, 1, 1000, 16, 0, 1, 1, 1,
+        20, 10, 0.5, OPEN_MS, 1);
+    guard.execute("test", true, () -> "ok");
+    long start = System.nanoTime();
+    guard.execute("test", true, () -> "ok");
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    assertThat(elapsedMs).isBetween(30L, 1000L);
+  }
+}
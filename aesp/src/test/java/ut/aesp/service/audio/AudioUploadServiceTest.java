@@ -0,0 +1,130 @@
+package ut.aesp.service.audio;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ut.aesp.enums.AudioUploadStatus;
+import ut.aesp.exception.ResourceNotFoundException;
+import ut.aesp.model.AudioUpload;
+import ut.aesp.model.LearnerProfile;
+import ut.aesp.repository.AudioUploadRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+import ut.aesp.service.Impl.AudioUploadService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AudioUploadServiceTest {
+
+  private static final long OWNER_USER = 10L;
+  private static final long OTHER_USER = 20L;
+  private static final String SHARED = "ab" + "0".repeat(62);
+  private static final String UNSHARED = "cd" + "0".repeat(62);
+
+  @TempDir
+  Path storageDir;
+
+  private final AudioUploadRepository uploadRepository = mock(AudioUploadRepository.class);
+  private final LearnerProfileRepository learnerProfileRepository = mock(LearnerProfileRepository.class);
+  private AudioStore store;
+  private AudioUploadService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    store = new AudioStore(storageDir.toString());
+    service = new AudioUploadService(uploadRepository, learnerProfileRepository, store, new SimpleMeterRegistry(),
+        1024, 180, List.of("audio/webm"), 24, 30);
+    when(learnerProfileRepository.findByUserId(OWNER_USER)).thenReturn(Optional.of(learner(1L)));
+    when(learnerProfileRepository.findByUserId(OTHER_USER)).thenReturn(Optional.of(learner(2L)));
+  }
+
+  private static LearnerProfile learner(long id) {
+    LearnerProfile profile = new LearnerProfile();
+    profile.setId(id);
+    return profile;
+  }
+
+  private static AudioUpload upload(String id, AudioUploadStatus status, String contentHash) {
+    AudioUpload upload = new AudioUpload();
+    upload.setId(id);
+    upload.setLearnerId(1L);
+    upload.setStatus(status);
+    upload.setMimeType("audio/webm");
+    upload.setTotalBytes(4);
+    upload.setContentHash(contentHash);
+    return upload;
+  }
+
+  private Path blob(String contentHash, Instant modified) throws Exception {
+    Path blob = store.blobPath(contentHash);
+    Files.createDirectories(blob.getParent());
+    Files.write(blob, new byte[] {1, 2, 3, 4});
+    Files.setLastModifiedTime(blob, FileTime.from(modified));
+    return blob;
+  }
+
+  @Test
+  void anotherLearnersUploadIsNotFound() throws Exception {
+    when(uploadRepository.findById("u1")).thenReturn(Optional.of(upload("u1", AudioUploadStatus.UPLOADING, null)));
+    when(uploadRepository.findById("u2")).thenReturn(Optional.of(upload("u2", AudioUploadStatus.COMPLETE, SHARED)));
+    blob(SHARED, Instant.now());
+
+    assertThat(service.getUpload("u1", OWNER_USER).getUploadId()).isEqualTo("u1");
+    assertThat(service.recording("u2", OWNER_USER).path()).isEqualTo(store.blobPath(SHARED));
+
+    assertThatThrownBy(() -> service.getUpload("u1", OTHER_USER)).isInstanceOf(ResourceNotFoundException.class);
+    assertThatThrownBy(() -> service.appendChunk("u1", 0, new ByteArrayInputStream(new byte[4]), OTHER_USER))
+        .isInstanceOf(ResourceNotFoundException.class);
+    assertThatThrownBy(() -> service.recording("u2", OTHER_USER)).isInstanceOf(ResourceNotFoundException.class);
+    // An evaluation for another learner cannot borrow the recording either
+    assertThatThrownBy(() -> service.clip("u2", 2L)).isInstanceOf(ResourceNotFoundException.class);
+    verify(uploadRepository, never()).advance(any(), anyLong(), anyLong(), any());
+  }
+
+  @Test
+  void expiredRecordingsAreDeletedWithTheBlobsNoOtherUploadShares() throws Exception {
+    Instant old = Instant.now().minus(40, ChronoUnit.DAYS);
+    Path shared = blob(SHARED, old);
+    Path unshared = blob(UNSHARED, old);
+    when(uploadRepository.findExpiredRecordings(any(LocalDateTime.class), anyInt())).thenReturn(List.of(
+        upload("u1", AudioUploadStatus.COMPLETE, SHARED),
+        upload("u2", AudioUploadStatus.COMPLETE, UNSHARED)));
+    when(uploadRepository.existsByContentHash(SHARED)).thenReturn(true);
+    when(uploadRepository.existsByContentHash(UNSHARED)).thenReturn(false);
+
+    service.purgeExpiredRecordings();
+
+    verify(uploadRepository).deleteAllByIdInBatch(List.of("u1", "u2"));
+    assertThat(shared).exists();
+    assertThat(unshared).doesNotExist();
+  }
+
+  @Test
+  void blobReusedSinceTheCutoffIsKept() throws Exception {
+    Path blob = blob(UNSHARED, Instant.now());
+    when(uploadRepository.findExpiredRecordings(any(LocalDateTime.class), anyInt()))
+        .thenReturn(List.of(upload("u1", AudioUploadStatus.COMPLETE, UNSHARED)));
+
+    service.purgeExpiredRecordings();
+
+    assertThat(blob).exists();
+  }
+}
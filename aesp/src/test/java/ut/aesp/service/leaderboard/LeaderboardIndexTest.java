@@ -0,0 +1,79 @@
+package ut.aesp.service.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import ut.aesp.dto.leaderboard.LeaderboardEntryResponse;
+import ut.aesp.dto.leaderboard.LearnerSeedRow;
+import ut.aesp.event.PracticeSessionRecordedEvent;
+import ut.aesp.repository.AiPracticeSessionRepository;
+import ut.aesp.repository.LearnerProfileRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeaderboardIndexTest {
+
+  private final LearnerProfileRepository learnerProfileRepository = mock(LearnerProfileRepository.class);
+  private final LeaderboardIndex index = new LeaderboardIndex(learnerProfileRepository,
+      mock(AiPracticeSessionRepository.class));
+  private final AtomicLong sessionIds = new AtomicLong();
+
+  private record Seed(Number getLearnerId, String getLearnerName, Number getAiScore) implements LearnerSeedRow {
+  }
+
+  private void session(long learnerId, LocalDateTime createdAt) {
+    index.onSessionRecorded(new PracticeSessionRecordedEvent(sessionIds.incrementAndGet(), learnerId, createdAt,
+        null, null, null));
+  }
+
+  private LeaderboardEntryResponse entry(long learnerId, LeaderboardWindow window) {
+    return index.entryFor(learnerId, window).orElseThrow();
+  }
+
+  @Test
+  void learnerFirstSeenInASessionIsLoadedWithNameAndScore() {
+    when(learnerProfileRepository.findLeaderboardSeed(1L)).thenReturn(Optional.of(new Seed(1L, "Lan", 7.5f)));
+    LocalDateTime now = LocalDateTime.now();
+
+    session(1, now.minusHours(1));
+    session(1, now);
+
+    LeaderboardEntryResponse entry = entry(1, LeaderboardWindow.ALL);
+    assertThat(entry.getLearnerName()).isEqualTo("Lan");
+    assertThat(entry.getAiScore()).isEqualTo(7.5f);
+    assertThat(entry.getTotalSessions()).isEqualTo(2);
+    // Only looked up while unknown
+    verify(learnerProfileRepository, times(1)).findLeaderboardSeed(1L);
+  }
+
+  @Test
+  void lateSessionsKeepWindowsOrderedAndCloseStreakGaps() {
+    when(learnerProfileRepository.findLeaderboardSeed(2L)).thenReturn(Optional.of(new Seed(2L, "Minh", 5f)));
+    LocalDateTime now = LocalDateTime.now();
+
+    session(2, now);
+    session(2, now.minusDays(2));
+    // Outside the weekly window, inside the monthly one
+    session(2, now.minusDays(10));
+    session(2, now.minusDays(1));
+
+    LeaderboardEntryResponse weekly = entry(2, LeaderboardWindow.WEEKLY);
+    assertThat(weekly.getTotalSessions()).isEqualTo(3);
+    assertThat(weekly.getStreak()).isEqualTo(3);
+    LeaderboardEntryResponse monthly = entry(2, LeaderboardWindow.MONTHLY);
+    assertThat(monthly.getTotalSessions()).isEqualTo(4);
+    assertThat(monthly.getStreak()).isEqualTo(3);
+    assertThat(entry(2, LeaderboardWindow.ALL).getStreak()).isEqualTo(3);
+
+    // Trimming from the head drops only what left the window
+    index.expireWindows();
+    assertThat(entry(2, LeaderboardWindow.WEEKLY).getTotalSessions()).isEqualTo(3);
+    assertThat(entry(2, LeaderboardWindow.MONTHLY).getTotalSessions()).isEqualTo(4);
+  }
+}
@@ -0,0 +1,86 @@
+package ut.aesp.service.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedScoreIndexTest {
+
+  @Test
+  void ordersByScoreDescendingThenIdAscending() {
+    RankedScoreIndex index = new RankedScoreIndex();
+    index.put(3, 7.5f);
+    index.put(1, 9f);
+    index.put(2, 7.5f);
+    index.put(4, 1f);
+
+    assertThat(index.top(10)).containsExactly(1L, 2L, 3L, 4L);
+    assertThat(index.rankOf(1)).isEqualTo(1);
+    assertThat(index.rankOf(2)).isEqualTo(2);
+    assertThat(index.rankOf(3)).isEqualTo(3);
+    assertThat(index.rankOf(4)).isEqualTo(4);
+    assertThat(index.top(2)).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void updateMovesLearnerAndRemoveDropsIt() {
+    RankedScoreIndex index = new RankedScoreIndex();
+    index.put(1, 5f);
+    index.put(2, 6f);
+    index.put(1, 8f);
+
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(index.rankOf(1)).isEqualTo(1);
+    assertThat(index.scoreOf(1)).isEqualTo(8f);
+
+    index.remove(1);
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.rankOf(1)).isEqualTo(-1);
+    assertThat(index.scoreOf(1)).isZero();
+    assertThat(index.top(5)).containsExactly(2L);
+  }
+
+  @Test
+  void unknownLearnerAndEmptyIndex() {
+    RankedScoreIndex index = new RankedScoreIndex();
+    assertThat(index.rankOf(42)).isEqualTo(-1);
+    assertThat(index.top(3)).isEmpty();
+    assertThat(index.top(0)).isEmpty();
+    index.remove(42);
+    assertThat(index.size()).isZero();
+  }
+
+  @Test
+  void matchesSortedListUnderRandomOperations() {
+    Random random = new Random(7);
+    RankedScoreIndex index = new RankedScoreIndex();
+    Map<Long, Float> expected = new HashMap<>();
+    for (int i = 0; i < 5_000; i++) {
+      long id = random.nextInt(500);
+      if (random.nextInt(5) == 0) {
+        index.remove(id);
+        expected.remove(id);
+      } else {
+        // Few distinct scores, so ties are common
+        float score = random.nextInt(20) / 2f;
+        index.put(id, score);
+        expected.put(id, score);
+      }
+    }
+
+    List<Long> sorted = new ArrayList<>(expected.keySet());
+    sorted.sort(Comparator.comparing((Long id) -> expected.get(id)).reversed().thenComparing(id -> id));
+    assertThat(index.size()).isEqualTo(sorted.size());
+    assertThat(index.top(sorted.size() + 10)).isEqualTo(sorted);
+    for (int i = 0; i < sorted.size(); i++) {
+      assertThat(index.rankOf(sorted.get(i))).isEqualTo(i + 1);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package ut.aesp.service.peer;
+
+import org.junit.jupiter.api.Test;
+import ut.aesp.enums.EnglishLevel;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchmakingQueueTest {
+
+  private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+  private static MatchmakingQueue.Ticket ticket(long learnerId, EnglishLevel level, String topic, Instant at) {
+    return new MatchmakingQueue.Ticket(learnerId, level, topic, "scenario", at);
+  }
+
+  @Test
+  void matchesOldestWaitingLearnerOfSameLevelAndTopic() {
+    MatchmakingQueue queue = new MatchmakingQueue(30, 1, 4);
+    assertThat(queue.matchOrEnqueue(ticket(1, EnglishLevel.BEGINNER, "Travel", T0))).isEmpty();
+    // Re-requesting never matches the learner with their own earlier ticket
+    assertThat(queue.matchOrEnqueue(ticket(1, EnglishLevel.BEGINNER, "travel", T0.plusSeconds(1)))).isEmpty();
+    assertThat(queue.size()).isEqualTo(1);
+
+    queue.requeue(ticket(2, EnglishLevel.BEGINNER, "Travel", T0.plusSeconds(2)));
+    assertThat(queue.matchOrEnqueue(ticket(3, EnglishLevel.BEGINNER, " TRAVEL", T0.plusSeconds(3))))
+        .map(MatchmakingQueue.Ticket::learnerId).contains(1L);
+    assertThat(queue.isWaiting(1L)).isFalse();
+    assertThat(queue.isWaiting(2L)).isTrue();
+    assertThat(queue.size()).isEqualTo(1);
+  }
+
+  @Test
+  void differentTopicsOrLevelsDoNotMatchBeforeWidening() {
+    MatchmakingQueue queue = new MatchmakingQueue(30, 1, 4);
+    queue.matchOrEnqueue(ticket(1, EnglishLevel.BEGINNER, "travel", T0));
+    assertThat(queue.matchOrEnqueue(ticket(2, EnglishLevel.BEGINNER, "food", T0))).isEmpty();
+    assertThat(queue.matchOrEnqueue(ticket(3, EnglishLevel.INTERMEDIATE, "travel", T0.plusSeconds(5)))).isEmpty();
+    assertThat(queue.size()).isEqualTo(3);
+  }
+
+  @Test
+  void waitingTicketAcceptsNeighbouringLevelAfterWidening() {
+    MatchmakingQueue queue = new MatchmakingQueue(30, 1, 4);
+    queue.matchOrEnqueue(ticket(1, EnglishLevel.BEGINNER, "travel", T0));
+    assertThat(queue.matchOrEnqueue(ticket(2, EnglishLevel.INTERMEDIATE, "travel", T0.plusSeconds(31))))
+        .map(MatchmakingQueue.Ticket::learnerId).contains(1L);
+    // Never beyond maxLevelDistance
+    queue.matchOrEnqueue(ticket(3, EnglishLevel.BEGINNER, "travel", T0));
+    assertThat(queue.matchOrEnqueue(ticket(4, EnglishLevel.ADVANCED, "travel", T0.plusSeconds(600)))).isEmpty();
+  }
+
+  @Test
+  void sweepPairsWidenedHeads() {
+    MatchmakingQueue queue = new MatchmakingQueue(30, 1, 4);
+    queue.matchOrEnqueue(ticket(1, EnglishLevel.BEGINNER, "travel", T0));
+    queue.matchOrEnqueue(ticket(2, EnglishLevel.INTERMEDIATE, "travel", T0.plusSeconds(10)));
+    assertThat(queue.pairWidened(T0.plusSeconds(20))).isEmpty();
+
+    List<MatchmakingQueue.Pair> pairs = queue.pairWidened(T0.plusSeconds(45));
+    assertThat(pairs).hasSize(1);
+    // Either head may lead the pair, depending on bucket iteration order
+    assertThat(List.of(pairs.get(0).first().learnerId(), pairs.get(0).second().learnerId()))
+        .containsExactlyInAnyOrder(1L, 2L);
+    assertThat(queue.size()).isZero();
+  }
+
+  @Test
+  void cancelRequeueAndReRequest() {
+    MatchmakingQueue queue = new MatchmakingQueue(30, 1, 4);
+    MatchmakingQueue.Ticket first = ticket(1, EnglishLevel.BEGINNER, "travel", T0);
+    queue.matchOrEnqueue(first);
+    assertThat(queue.cancel(1L)).isTrue();
+    assertThat(queue.cancel(1L)).isFalse();
+    assertThat(queue.matchOrEnqueue(ticket(2, EnglishLevel.BEGINNER, "travel", T0))).isEmpty();
+
+    // Re-requesting moves the learner to the new bucket
+    queue.matchOrEnqueue(ticket(2, EnglishLevel.BEGINNER, "food", T0.plusSeconds(1)));
+    assertThat(queue.size()).isEqualTo(1);
+
+    queue.requeue(first);
+    assertThat(queue.matchOrEnqueue(ticket(4, EnglishLevel.BEGINNER, "travel", T0.plusSeconds(3))))
+        .map(MatchmakingQueue.Ticket::learnerId).contains(1L);
+  }
+
+  @Test
+  void expireDropsOnlyTicketsPastTtl() {
+    MatchmakingQueue queue = new MatchmakingQueue(30, 1, 4);
+    queue.matchOrEnqueue(ticket(1, EnglishLevel.BEGINNER, "travel", T0));
+    queue.matchOrEnqueue(ticket(2, EnglishLevel.ADVANCED, "travel", T0.plusSeconds(200)));
+    List<MatchmakingQueue.Ticket> expired = queue.expire(T0.plusSeconds(301), Duration.ofSeconds(300));
+    assertThat(expired).extracting(MatchmakingQueue.Ticket::learnerId).containsExactly(1L);
+    assertThat(queue.isWaiting(2L)).isTrue();
+  }
+
+  /**
+   * Stress test for the lock striping: many threads requesting, cancelling and re-requesting
+   * across a few topics (so stripes are shared) must never put one learner in two matches,
+   * match a cancelled ticket, pair across buckets, or leave two compatible learners waiting
+   * side by side. A learner re-requests only after cancelling the waiting ticket, as the client
+   * does; a re-request that replaces a ticket being claimed at that moment is caught by the
+   * active_peer_learners guard (see PeerPracticeServiceTest), not by the queue.
+   */
+  @Test
+  void stressConcurrentRequestsNeverDoubleMatch() throws Exception {
+    MatchmakingQueue queue = new MatchmakingQueue(3600, 1, 4);
+    String[] topics = {"travel", "food", "work", "school", "music", "sport"};
+    EnglishLevel[] levels = EnglishLevel.values();
+    int threads = 16;
+    int learnersPerThread = 2_000;
+
+    Map<Long, MatchmakingQueue.Ticket> lastTicket = new ConcurrentHashMap<>();
+    ConcurrentLinkedQueue<MatchmakingQueue.Ticket[]> pairs = new ConcurrentLinkedQueue<>();
+    ConcurrentLinkedQueue<MatchmakingQueue.Ticket> cancelled = new ConcurrentLinkedQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        long base = (long) t * learnersPerThread;
+        futures.add(pool.submit(() -> {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (long id = base; id < base + learnersPerThread; id++) {
+            int requests = random.nextInt(4) == 0 ? 2 : 1;
+            for (int r = 0; r < requests; r++) {
+              // A failed cancel means the waiting ticket was just claimed: the learner is matched
+              if (r > 0 && !queue.cancel(id)) {
+                break;
+              }
+              // The scenario makes every ticket distinct, even for the same learner
+              MatchmakingQueue.Ticket ticket = new MatchmakingQueue.Ticket(id, levels[random.nextInt(levels.length)],
+                  topics[random.nextInt(topics.length)], "request " + r, T0);
+              lastTicket.put(id, ticket);
+              Optional<MatchmakingQueue.Ticket> partner = queue.matchOrEnqueue(ticket);
+              if (partner.isPresent()) {
+                pairs.add(new MatchmakingQueue.Ticket[] {partner.get(), ticket});
+                assertThat(partner.get().level()).isEqualTo(ticket.level());
+                assertThat(MatchmakingQueue.normalizeTopic(partner.get().topic()))
+                    .isEqualTo(MatchmakingQueue.normalizeTopic(ticket.topic()));
+                break;
+              }
+            }
+            MatchmakingQueue.Ticket last = lastTicket.get(id);
+            if (random.nextInt(10) == 0 && queue.cancel(id)) {
+              cancelled.add(last);
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    Set<MatchmakingQueue.Ticket> matched = new HashSet<>();
+    Set<Long> matchedLearners = new HashSet<>();
+    for (MatchmakingQueue.Ticket[] pair : pairs) {
+      assertThat(pair[0].learnerId()).isNotEqualTo(pair[1].learnerId());
+      for (MatchmakingQueue.Ticket ticket : pair) {
+        matched.add(ticket);
+        assertThat(matchedLearners.add(ticket.learnerId())).as("learner %d matched twice", ticket.learnerId()).isTrue();
+      }
+    }
+    assertThat(matched).isNotEmpty();
+    for (MatchmakingQueue.Ticket ticket : cancelled) {
+      assertThat(matched).doesNotContain(ticket);
+    }
+
+    // Whoever is still waiting holds their latest ticket and is alone in its (level, topic) bucket
+    Map<String, Long> waitingByBucket = new HashMap<>();
+    for (Map.Entry<Long, MatchmakingQueue.Ticket> entry : lastTicket.entrySet()) {
+      if (queue.isWaiting(entry.getKey())) {
+        assertThat(matched).doesNotContain(entry.getValue());
+        String bucket = entry.getValue().level() + "/" + entry.getValue().topic();
+        assertThat(waitingByBucket.put(bucket, entry.getKey())).as("two learners waiting in %s", bucket).isNull();
+      }
+    }
+    assertThat(queue.size()).isEqualTo(waitingByBucket.size());
+  }
+}